@@ -0,0 +1,10 @@
+package dev.bannmann.restflow;
+
+/**
+ * Simple payload type used by the benchmarks. Public fields keep JSON-B binding free of reflection on accessors.
+ */
+public class BenchmarkGreeting
+{
+    public String greeting;
+    public int count;
+}
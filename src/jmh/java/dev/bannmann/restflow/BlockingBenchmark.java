@@ -0,0 +1,103 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Compares waiting for {@link FetchHandle#fetch()} with {@link FetchHandle#fetchBlocking()} at high concurrency. On JDK
+ * 21 and later, run with {@code -Djmh.executor=VIRTUAL_TPE} to execute the benchmark threads as virtual threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class BlockingBenchmark
+{
+    private static final byte[] GREETING_BODY = "{\"greeting\":\"Hello, world!\",\"count\":42}".getBytes(
+        StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Endpoint endpoint;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/greeting", exchange -> {
+            exchange.sendResponseHeaders(200, GREETING_BODY.length);
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                responseBody.write(GREETING_BODY);
+            }
+        });
+        server.start();
+
+        ClientConfig clientConfig = ClientConfig.builder()
+            .httpClient(HttpClient.newHttpClient())
+            .jsonb(JsonbBuilder.create())
+            .build();
+        URI baseUri = URI.create("http://localhost:" + server.getAddress()
+            .getPort() + "/");
+        endpoint = StandardRestClient.builder()
+            .clientConfig(clientConfig)
+            .requestTemplate(HttpRequest.newBuilder(baseUri))
+            .build()
+            .endpoint("greeting");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public BenchmarkGreeting fetchAndJoin()
+    {
+        return endpoint.get()
+            .returning(BenchmarkGreeting.class)
+            .fetch()
+            .join();
+    }
+
+    @Benchmark
+    public BenchmarkGreeting fetchBlocking()
+    {
+        return endpoint.get()
+            .returning(BenchmarkGreeting.class)
+            .fetchBlocking();
+    }
+}
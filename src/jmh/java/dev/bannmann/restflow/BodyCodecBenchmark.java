@@ -0,0 +1,91 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.bannmann.restflow.cbor.CborCodec;
+
+/**
+ * Compares encoding and decoding with the CBOR codec to the default JSON-B path. The sizes of the encoded bodies are
+ * listed in the README.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyCodecBenchmark
+{
+    @Param({ "1", "100", "10000" })
+    private int elementCount;
+
+    private Jsonb jsonb;
+    private CborCodec cborCodec;
+    private BenchmarkGreeting[] greetings;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        jsonb = JsonbBuilder.create();
+        cborCodec = new CborCodec();
+
+        greetings = new BenchmarkGreeting[elementCount];
+        for (int i = 0; i < elementCount; i++)
+        {
+            greetings[i] = new BenchmarkGreeting();
+            greetings[i].greeting = "Hello, world!";
+            greetings[i].count = i;
+        }
+
+        jsonBytes = encodeJson();
+        cborBytes = encodeCbor();
+    }
+
+    @Benchmark
+    public byte[] encodeJson()
+    {
+        var outputStream = new ByteArrayOutputStream();
+        jsonb.toJson(greetings, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException
+    {
+        var outputStream = new ByteArrayOutputStream();
+        cborCodec.encode(greetings, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object decodeJson()
+    {
+        return jsonb.fromJson(new ByteArrayInputStream(jsonBytes), BenchmarkGreeting[].class);
+    }
+
+    @Benchmark
+    public Object decodeCbor() throws IOException
+    {
+        return cborCodec.decode(new ByteArrayInputStream(cborBytes), BenchmarkGreeting[].class);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.bannmann.restflow;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures capturing the caller frames that are attached to exceptions, which happens for every request with the
+ * default configuration, using each of the {@link CallerFrameCapture} strategies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallerFramesBenchmark
+{
+    @Param({ "1", "5", "20" })
+    private int callerFrameCount;
+
+    @Param({ "always", "sampled", "perCallSite" })
+    private String strategy;
+
+    private CallerFrameCapture callerFrameCapture;
+
+    @Setup
+    public void setUp()
+    {
+        switch (strategy)
+        {
+            case "sampled":
+                callerFrameCapture = CallerFrameCapture.sampled(100);
+                break;
+            case "perCallSite":
+                callerFrameCapture = CallerFrameCapture.perCallSite(1000);
+                break;
+            default:
+                callerFrameCapture = CallerFrameCapture.always();
+                break;
+        }
+    }
+
+    @Benchmark
+    public List<StackWalker.StackFrame> capture()
+    {
+        return callerFrameCapture.capture(callerFrameCount);
+    }
+}
@@ -0,0 +1,125 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures complete requests against an in-process HTTP server on the loopback interface. Run with {@code -prof gc}
+ * to obtain the allocation rate per request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark
+{
+    private static final byte[] GREETING_BODY = "{\"greeting\":\"Hello, world!\",\"count\":42}".getBytes(
+        StandardCharsets.UTF_8);
+
+    @Param({ "false", "true" })
+    private boolean binaryJsonDecoding;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private StandardRestClient client;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/greeting", this::respondWithGreeting);
+        server.start();
+
+        ClientConfig clientConfig = ClientConfig.builder()
+            .httpClient(HttpClient.newHttpClient())
+            .jsonb(JsonbBuilder.create())
+            .binaryJsonDecoding(binaryJsonDecoding)
+            .build();
+        URI baseUri = URI.create("http://localhost:" + server.getAddress()
+            .getPort() + "/");
+        client = StandardRestClient.builder()
+            .clientConfig(clientConfig)
+            .requestTemplate(HttpRequest.newBuilder(baseUri))
+            .build();
+    }
+
+    private void respondWithGreeting(HttpExchange exchange) throws IOException
+    {
+        try (InputStream requestBody = exchange.getRequestBody())
+        {
+            requestBody.transferTo(OutputStream.nullOutputStream());
+        }
+
+        exchange.getResponseHeaders()
+            .set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, GREETING_BODY.length);
+        try (OutputStream responseBody = exchange.getResponseBody())
+        {
+            responseBody.write(GREETING_BODY);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public BenchmarkGreeting fetchObject()
+    {
+        return client.get("greeting")
+            .returning(BenchmarkGreeting.class)
+            .fetch()
+            .join();
+    }
+
+    @Benchmark
+    public BenchmarkGreeting postObject()
+    {
+        BenchmarkGreeting body = new BenchmarkGreeting();
+        body.greeting = "Hi";
+        body.count = 1;
+
+        return client.post(body)
+            .to("greeting")
+            .returning(BenchmarkGreeting.class)
+            .fetch()
+            .join();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares creating a request from a resource path with creating it from a precompiled {@link Endpoint}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndpointBenchmark
+{
+    private RequestTemplate requestTemplate;
+    private Endpoint endpoint;
+    private long userId;
+
+    @Setup
+    public void setUp()
+    {
+        HttpRequest.Builder templateBuilder = HttpRequest.newBuilder(URI.create("http://localhost:8080/api/v1"))
+            .header("Accept", "application/json")
+            .header("User-Agent", "restflow-benchmark");
+        requestTemplate = new RequestTemplate(templateBuilder);
+
+        ClientConfig clientConfig = ClientConfig.builder()
+            .httpClient(HttpClient.newHttpClient())
+            .jsonb(JsonbBuilder.create())
+            .build();
+        endpoint = new Endpoint(clientConfig, requestTemplate.createPrototype(), "users/{id}/orders{?page,size}");
+    }
+
+    @Benchmark
+    public HttpRequest resourcePath()
+    {
+        userId++;
+        return requestTemplate.newBuilder("users/" + userId + "/orders?page=3&size=20")
+            .build();
+    }
+
+    @Benchmark
+    public HttpRequest endpoint()
+    {
+        userId++;
+        return endpoint.createRequest("GET", Map.of("id", userId, "page", 3, "size", 20));
+    }
+}
@@ -0,0 +1,101 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.bannmann.restflow.util.HttpRequests;
+
+/**
+ * Measures the stages that turn a resource path into the request that is handed to the {@link HttpClient}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPreparationBenchmark
+{
+    private RequestTemplate requestTemplate;
+    private HttpRequest request;
+    private RequestSpecification<String, String> plainSpecification;
+    private RequestSpecification<String, String> customizedSpecification;
+    private RequestSpecification<String, String> uncustomizedSpecification;
+    private RequestCustomizer customizer;
+
+    @Setup
+    public void setUp()
+    {
+        HttpRequest.Builder templateBuilder = HttpRequest.newBuilder(URI.create("http://localhost:8080/api/v1"))
+            .header("Accept", "application/json")
+            .header("User-Agent", "restflow-benchmark");
+        requestTemplate = new RequestTemplate(templateBuilder);
+        request = requestTemplate.newBuilder("greetings/42")
+            .build();
+
+        customizer = builder -> builder.setHeader("Authorization", "Bearer abc");
+        ClientConfig clientConfig = ClientConfig.builder()
+            .httpClient(HttpClient.newHttpClient())
+            .jsonb(JsonbBuilder.create())
+            .requestCustomizer(customizer)
+            .build();
+
+        plainSpecification = RequestSpecification.<String, String>builder()
+            .request(request)
+            .responseBodyConfig(new ResponseBodyConfig<>(HttpResponse.BodyHandlers.ofString(), (String s) -> s))
+            .clientConfig(clientConfig)
+            .build();
+        customizedSpecification = plainSpecification.withCustomizer(customizer);
+        uncustomizedSpecification = plainSpecification.toBuilder()
+            .clientConfig(clientConfig.toBuilder()
+                .clearRequestCustomizers()
+                .build())
+            .build();
+    }
+
+    @Benchmark
+    public HttpRequest.Builder templateNewBuilder()
+    {
+        return requestTemplate.newBuilder("greetings/42");
+    }
+
+    @Benchmark
+    public HttpRequest.Builder httpRequestsToBuilder()
+    {
+        return HttpRequests.toBuilder(request);
+    }
+
+    @Benchmark
+    public RequestSpecification<String, String> withCustomizer()
+    {
+        return plainSpecification.withCustomizer(customizer);
+    }
+
+    @Benchmark
+    public HttpRequest createFinalRequest()
+    {
+        return customizedSpecification.createFinalRequest();
+    }
+
+    @Benchmark
+    public HttpRequest createFinalRequestWithoutCustomizers()
+    {
+        return uncustomizedSpecification.createFinalRequest();
+    }
+}
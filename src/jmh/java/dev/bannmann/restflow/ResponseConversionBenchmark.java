@@ -0,0 +1,106 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures converting a response body into Java objects the way the different {@link RequestHandle} modes do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseConversionBenchmark
+{
+    @Param({ "1", "100", "10000" })
+    private int elementCount;
+
+    private Jsonb jsonb;
+    private ResponseContext context;
+    private String arrayText;
+    private byte[] arrayBytes;
+    private byte[] ndjsonBytes;
+
+    @Setup
+    public void setUp()
+    {
+        jsonb = JsonbBuilder.create();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/greetings"))
+            .build();
+        context = new ResponseContext(request, null, Map.of(), null);
+
+        String element = "{\"greeting\":\"Hello, world!\",\"count\":42}";
+        arrayText = IntStream.range(0, elementCount)
+            .mapToObj(i -> element)
+            .collect(Collectors.joining(",", "[", "]"));
+        arrayBytes = arrayText.getBytes(StandardCharsets.UTF_8);
+        ndjsonBytes = IntStream.range(0, elementCount)
+            .mapToObj(i -> element + "\n")
+            .collect(Collectors.joining())
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object bindFromString()
+    {
+        return jsonb.fromJson(arrayText, BenchmarkGreeting[].class);
+    }
+
+    @Benchmark
+    public Object bindFromDecodedBytes()
+    {
+        return jsonb.fromJson(new String(arrayBytes, StandardCharsets.UTF_8), BenchmarkGreeting[].class);
+    }
+
+    @Benchmark
+    public Object bindFromBytes()
+    {
+        return jsonb.fromJson(new ByteArrayInputStream(arrayBytes), BenchmarkGreeting[].class);
+    }
+
+    @Benchmark
+    public void streamArrayElements(Blackhole blackhole)
+    {
+        var elements = new JsonArrayElements<>(new ByteArrayInputStream(arrayBytes),
+            BenchmarkGreeting.class,
+            jsonb,
+            context);
+        elements.stream()
+            .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void streamNdjsonRecords(Blackhole blackhole)
+    {
+        var records = new NdjsonRecords<>(new ByteArrayInputStream(ndjsonBytes),
+            BenchmarkGreeting.class,
+            jsonb,
+            context);
+        records.stream()
+            .forEach(blackhole::consume);
+    }
+}
@@ -4,102 +4,721 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
-import com.google.common.io.ByteStreams;
+import com.google.common.collect.ImmutableMap;
 import dev.failsafe.Failsafe;
 import dev.failsafe.Policy;
+import dev.failsafe.Timeout;
+import dev.failsafe.TimeoutExceededException;
 
-@RequiredArgsConstructor
 @Slf4j
 abstract class AbstractRequester<B, R> implements Requester<R>
 {
+    /**
+     * The minimum time that must remain until the deadline for another attempt to be started.
+     */
+    private static final long MINIMUM_ATTEMPT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     protected final HttpRequest request;
     protected final ClientConfig clientConfig;
-    protected final ConcurrentMap<String, Object> diagnosticsData = new ConcurrentHashMap<>();
+    protected Map<String, Object> diagnosticsData = ImmutableMap.of();
 
+    private final RequestSpecification<B, ?> spec;
     private ImmutableList<StackWalker.StackFrame> callerFrames;
+    private boolean hasDeadline;
+    private long deadlineNanos;
+    private Timeout<HttpResponse<?>> deadlineTimeout;
+    private volatile boolean cancelled;
+    private volatile CompletableFuture<?> currentExchange;
+
+    protected AbstractRequester(RequestSpecification<B, ?> spec)
+    {
+        this.request = spec.createFinalRequest();
+        this.clientConfig = spec.getClientConfig();
+        this.spec = spec;
+    }
 
     @Override
     public final CompletableFuture<R> start()
+    {
+        captureContext();
+
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return abortingOnCancel(withinDeadline(sendAndConvert()));
+        }
+
+        requestListener.requestStarted(request, System.nanoTime());
+        return abortingOnCancel(withinDeadline(sendAndConvert()).whenComplete((result, throwable) -> {
+            if (throwable != null)
+            {
+                requestListener.requestFailed(request, throwable, System.nanoTime());
+            }
+        }));
+    }
+
+    /**
+     * Aborts the exchange in flight and prevents further attempts once the given future is cancelled. This is needed
+     * as cancelling a {@link CompletableFuture} does not affect the stages it was derived from. Exchanges shared by the
+     * {@link RequestCoalescer} keep running for the other requests.
+     */
+    private CompletableFuture<R> abortingOnCancel(CompletableFuture<R> result)
+    {
+        result.whenComplete((value, throwable) -> {
+            if (throwable instanceof CancellationException)
+            {
+                abortExecution();
+            }
+        });
+        return result;
+    }
+
+    private void abortExecution()
+    {
+        cancelled = true;
+        cancelCurrentExchange();
+    }
+
+    private void cancelCurrentExchange()
+    {
+        CompletableFuture<?> exchange = currentExchange;
+        if (exchange != null)
+        {
+            exchange.cancel(true);
+        }
+    }
+
+    private CompletableFuture<R> sendAndConvert()
+    {
+        ConversionExecutor conversionExecutor = clientConfig.getConversionExecutor();
+        if (conversionExecutor == null)
+        {
+            return send().thenApply(this::extractValue);
+        }
+
+        return send().thenCompose(response -> convertOn(conversionExecutor, response));
+    }
+
+    private CompletableFuture<R> convertOn(ConversionExecutor conversionExecutor, HttpResponse<B> response)
+    {
+        try
+        {
+            return conversionExecutor.convert(response, this::extractValue);
+        }
+        catch (RejectedExecutionException e)
+        {
+            String message = String.format("Conversion of response from URL %s was rejected", request.uri());
+            throw new RequestFailureException(request, message, e, diagnosticsData, callerFrames);
+        }
+    }
+
+    /**
+     * Fails the given future once the deadline has passed, even if the response is still being converted. Retries and
+     * the exchange in flight are ended by the {@linkplain #getPolicies() deadline timeout}.
+     */
+    private CompletableFuture<R> withinDeadline(CompletableFuture<R> result)
+    {
+        if (!hasDeadline)
+        {
+            return result;
+        }
+
+        return result.orTimeout(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+            .handle(this::failIfDeadlineExceeded);
+    }
+
+    private <T> T failIfDeadlineExceeded(T result, Throwable throwable)
+    {
+        if (throwable == null)
+        {
+            return result;
+        }
+
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof TimeoutException || isDeadlineTimeout(cause))
+        {
+            abortExecution();
+            throw createDeadlineExceededException(cause);
+        }
+        throw throwable instanceof CompletionException
+            ? (CompletionException) throwable
+            : new CompletionException(throwable);
+    }
+
+    @Override
+    public final R startBlocking()
+    {
+        captureContext();
+
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return extractValue(sendBlocking());
+        }
+
+        requestListener.requestStarted(request, System.nanoTime());
+        try
+        {
+            return extractValue(sendBlocking());
+        }
+        catch (RuntimeException e)
+        {
+            requestListener.requestFailed(request, e, System.nanoTime());
+            throw e;
+        }
+    }
+
+    private void captureContext()
     {
         var diagnosticsDataSupplier = clientConfig.getDiagnosticsDataSupplier();
         if (diagnosticsDataSupplier != null)
         {
-            Map<String, Object> values = diagnosticsDataSupplier.get();
-            diagnosticsData.putAll(values);
+            diagnosticsData = ImmutableMap.copyOf(diagnosticsDataSupplier.get());
         }
 
         int callerFrameCount = clientConfig.getCallerFrameCount();
         if (callerFrameCount > 0)
         {
-            var stackWalker = StackWalker.getInstance(Collections.emptySet(), callerFrameCount);
-            callerFrames = stackWalker.walk(stream -> captureCallerFrames(callerFrameCount, stream));
+            callerFrames = clientConfig.getCallerFrameCapture()
+                .capture(callerFrameCount);
         }
 
-        return send().thenApply(this::extractValue);
+        Duration timeBudget = spec.calculateTimeBudget();
+        if (timeBudget != null)
+        {
+            hasDeadline = true;
+            deadlineNanos = System.nanoTime() + timeBudget.toNanos();
+        }
     }
 
-    private ImmutableList<StackWalker.StackFrame> captureCallerFrames(int count, Stream<StackWalker.StackFrame> stream)
+    private CompletableFuture<HttpResponse<B>> send()
     {
-        return stream.dropWhile(stackFrame -> stackFrame.getClassName()
-                .startsWith(getClass().getPackageName()))
-            .limit(count)
-            .collect(ImmutableList.toImmutableList());
+        if (isCached())
+        {
+            CompletableFuture<HttpResponse<B>> cachedResponse = clientConfig.getResponseCache()
+                .lookup(request, getDecodingBodyHandler());
+            if (cachedResponse != null)
+            {
+                return cachedResponse.handle(this::addDetailsForLowLevelExceptions);
+            }
+        }
+
+        List<Policy<HttpResponse<?>>> policies = getPolicies();
+        if (!policies.isEmpty())
+        {
+            CompletableFuture<HttpResponse<B>> execution = Failsafe.with(policies)
+                .getStageAsync(context -> sendOnce(context.getAttemptCount() + 1));
+            return execution.handle(this::failIfDeadlineExceeded);
+        }
+
+        return sendOnce(1);
     }
 
-    private CompletableFuture<HttpResponse<B>> send()
+    /**
+     * Returns the configured policies. If the request has a deadline, they are wrapped in a timeout for the remaining
+     * time, which ends the execution at the deadline: it interrupts retry delays as well as blocking attempts, and
+     * aborts the exchange in flight.
+     */
+    private List<Policy<HttpResponse<?>>> getPolicies()
     {
         List<Policy<HttpResponse<?>>> policies = clientConfig.getPolicies();
+        if (!hasDeadline)
+        {
+            return policies;
+        }
+
+        long remainingNanos = Math.max(deadlineNanos - System.nanoTime(), MINIMUM_ATTEMPT_NANOS);
+        deadlineTimeout = Timeout.<HttpResponse<?>>builder(Duration.ofNanos(remainingNanos))
+            .withInterrupt()
+            .onFailure(event -> {
+                if (isDeadlineTimeout(event.getException()))
+                {
+                    abortExecution();
+                }
+            })
+            .build();
+        return ImmutableList.<Policy<HttpResponse<?>>>builder()
+            .add(deadlineTimeout)
+            .addAll(policies)
+            .build();
+    }
+
+    private boolean isDeadlineTimeout(Throwable throwable)
+    {
+        return throwable instanceof TimeoutExceededException &&
+            ((TimeoutExceededException) throwable).getTimeout() == deadlineTimeout;
+    }
+
+    private CompletableFuture<HttpResponse<B>> sendOnce(int attempt)
+    {
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return sendWithinLimit(attempt);
+        }
+
+        requestListener.attemptStarted(request, attempt, System.nanoTime());
+        return sendWithinLimit(attempt).whenComplete((response, throwable) -> {
+            if (throwable != null)
+            {
+                requestListener.attemptFailed(request, attempt, throwable, System.nanoTime());
+            }
+            else
+            {
+                requestListener.attemptSucceeded(request, attempt, response.statusCode(), System.nanoTime());
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<B>> sendWithinLimit(int attempt)
+    {
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        if (concurrencyLimiter != null)
+        {
+            return concurrencyLimiter.acquire(request)
+                .handle(this::failIfNotPermitted)
+                .thenCompose(permit -> sendWithPermit(attempt, permit));
+        }
+
+        return sendWithoutLimit(attempt);
+    }
+
+    private CompletableFuture<HttpResponse<B>> sendWithPermit(int attempt, AdaptiveConcurrencyLimiter.Permit permit)
+    {
+        RuntimeException refusal = getAttemptRefusal();
+        if (refusal != null)
+        {
+            // No request is sent, so the outcome must not affect the limit
+            permit.abandon();
+            return CompletableFuture.failedFuture(refusal);
+        }
+
+        return sendWithoutLimit(attempt).whenComplete((response, throwable) -> permit.release(throwable));
+    }
+
+    /**
+     * Returns the limiter to acquire a permit from, or {@code null} if there is none. Streaming requests bypass the
+     * limiter as they stay open indefinitely, which would both hold a permit and distort the round trip times.
+     */
+    private AdaptiveConcurrencyLimiter getConcurrencyLimiter()
+    {
+        return spec.isStreaming()
+            ? null
+            : clientConfig.getConcurrencyLimiter();
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit failIfNotPermitted(
+        AdaptiveConcurrencyLimiter.Permit permit, Throwable throwable)
+    {
+        if (throwable != null)
+        {
+            String message = String.format("Request to URL %s was not permitted: %s",
+                request.uri(),
+                throwable.getMessage());
+            throw new ConcurrencyLimitExceededException(request, message, throwable, diagnosticsData, callerFrames);
+        }
+        return permit;
+    }
+
+    private CompletableFuture<HttpResponse<B>> sendWithoutLimit(int attempt)
+    {
+        RuntimeException refusal = getAttemptRefusal();
+        if (refusal != null)
+        {
+            return CompletableFuture.failedFuture(refusal);
+        }
+
+        StatusAwareBodyHandler<B> statusAwareBodyHandler = createStatusAwareBodyHandler();
+        return exchange(createAttemptRequest(), createBodyHandler(attempt, statusAwareBodyHandler))
+            .handle(this::addDetailsForLowLevelExceptions)
+            .thenApply(response -> failOrPassThrough(response, statusAwareBodyHandler.getCapturedBody()));
+    }
+
+    /**
+     * @return the reason why no further attempt may be started, or {@code null} if it may
+     */
+    private RuntimeException getAttemptRefusal()
+    {
+        if (isDeadlineExceeded())
+        {
+            return createDeadlineExceededException(null);
+        }
+
+        if (cancelled)
+        {
+            return new CancellationException("Request was cancelled");
+        }
+
+        return null;
+    }
+
+    private StatusAwareBodyHandler<B> createStatusAwareBodyHandler()
+    {
+        return new StatusAwareBodyHandler<>(getBodyHandler(),
+            this::selectBodyStrategy,
+            clientConfig.getMaxErrorBodyBytes());
+    }
+
+    private HttpResponse.BodyHandler<B> createBodyHandler(int attempt, StatusAwareBodyHandler<B> statusAwareBodyHandler)
+    {
+        HttpResponse.BodyHandler<B> bodyHandler = decode(statusAwareBodyHandler);
+
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return bodyHandler;
+        }
+
+        return responseInfo -> {
+            requestListener.headersReceived(request, attempt, responseInfo.statusCode(), System.nanoTime());
+            return bodyHandler.apply(responseInfo);
+        };
+    }
+
+    private HttpResponse.BodyHandler<B> getDecodingBodyHandler()
+    {
+        return decode(getBodyHandler());
+    }
+
+    /**
+     * Decompresses bodies before they reach the given handler if compression is enabled. As responses are stored in
+     * the {@link ResponseCache} and shared by the {@link RequestCoalescer} in their compressed form, all handlers that
+     * may receive such responses need to be wrapped.
+     */
+    private <T> HttpResponse.BodyHandler<T> decode(HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        Compression compression = clientConfig.getCompression();
+        if (compression == null)
+        {
+            return bodyHandler;
+        }
+        return compression.decoding(bodyHandler);
+    }
+
+    /**
+     * Returns the request to send for the next attempt. If the request has a deadline, its timeout is clamped to the
+     * remaining time.
+     */
+    private HttpRequest createAttemptRequest()
+    {
+        if (!hasDeadline)
+        {
+            return request;
+        }
+
+        return new DeadlineBoundRequest(request,
+            Duration.ofNanos(deadlineNanos - System.nanoTime()),
+            clientConfig.getDeadlineHeader());
+    }
+
+    private boolean isDeadlineExceeded()
+    {
+        return hasDeadline && deadlineNanos - System.nanoTime() < MINIMUM_ATTEMPT_NANOS;
+    }
+
+    private CompletableFuture<HttpResponse<B>> exchange(
+        HttpRequest attemptRequest, HttpResponse.BodyHandler<B> bodyHandler)
+    {
+        if (isCached())
+        {
+            return clientConfig.getResponseCache()
+                .exchange(request, attemptRequest, bodyHandler, this::transmit);
+        }
+
+        return transmit(attemptRequest, bodyHandler);
+    }
+
+    /**
+     * Starts the transmission and keeps it so that it can be aborted if the request is cancelled.
+     */
+    private CompletableFuture<HttpResponse<B>> transmit(
+        HttpRequest outgoingRequest, HttpResponse.BodyHandler<B> bodyHandler)
+    {
+        CompletableFuture<HttpResponse<B>> transmission = startTransmission(outgoingRequest, bodyHandler);
+        currentExchange = transmission;
+        if (cancelled)
+        {
+            // The request was cancelled while the transmission was being started
+            cancelCurrentExchange();
+        }
+        return transmission;
+    }
+
+    private CompletableFuture<HttpResponse<B>> startTransmission(
+        HttpRequest outgoingRequest, HttpResponse.BodyHandler<B> bodyHandler)
+    {
+        if (isCoalesced(outgoingRequest))
+        {
+            return clientConfig.getRequestCoalescer()
+                .exchange(clientConfig.getHttpClient(),
+                    outgoingRequest,
+                    bodyHandler,
+                    clientConfig.getMaxErrorBodyBytes());
+        }
+
+        if (isHedged(outgoingRequest))
+        {
+            return clientConfig.getHedgingPolicy()
+                .exchange(clientConfig.getHttpClient(), outgoingRequest, bodyHandler);
+        }
+
+        return clientConfig.getHttpClient()
+            .sendAsync(outgoingRequest, bodyHandler);
+    }
+
+    private boolean isCached()
+    {
+        ResponseCache responseCache = clientConfig.getResponseCache();
+        return responseCache != null && spec.isBuffered() && responseCache.isApplicable(request);
+    }
+
+    private boolean isCoalesced(HttpRequest outgoingRequest)
+    {
+        RequestCoalescer requestCoalescer = clientConfig.getRequestCoalescer();
+        return requestCoalescer != null &&
+            !spec.isCoalescingDisabled() &&
+            spec.isBuffered() &&
+            requestCoalescer.isApplicable(outgoingRequest);
+    }
+
+    private boolean isHedged(HttpRequest outgoingRequest)
+    {
+        HedgingPolicy hedgingPolicy = clientConfig.getHedgingPolicy();
+        return hedgingPolicy != null && spec.isBuffered() && hedgingPolicy.isApplicable(outgoingRequest);
+    }
+
+    private HttpResponse<B> sendBlocking()
+    {
+        if (isCached())
+        {
+            CompletableFuture<HttpResponse<B>> cachedResponse = clientConfig.getResponseCache()
+                .lookup(request, getDecodingBodyHandler());
+            if (cachedResponse != null)
+            {
+                return await(cachedResponse.handle(this::addDetailsForLowLevelExceptions));
+            }
+        }
+
+        List<Policy<HttpResponse<?>>> policies = getPolicies();
         if (!policies.isEmpty())
         {
-            return Failsafe.with(policies)
-                .getStageAsync(context -> sendOnce());
+            try
+            {
+                return Failsafe.with(policies)
+                    .get(context -> sendOnceBlocking(context.getAttemptCount() + 1));
+            }
+            catch (TimeoutExceededException e)
+            {
+                if (isDeadlineTimeout(e))
+                {
+                    throw createDeadlineExceededException(e);
+                }
+                throw e;
+            }
+        }
+
+        return sendOnceBlocking(1);
+    }
+
+    private HttpResponse<B> sendOnceBlocking(int attempt)
+    {
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return sendWithinLimitBlocking(attempt);
+        }
+
+        requestListener.attemptStarted(request, attempt, System.nanoTime());
+        try
+        {
+            HttpResponse<B> response = sendWithinLimitBlocking(attempt);
+            requestListener.attemptSucceeded(request, attempt, response.statusCode(), System.nanoTime());
+            return response;
+        }
+        catch (RuntimeException e)
+        {
+            requestListener.attemptFailed(request, attempt, e, System.nanoTime());
+            throw e;
+        }
+    }
+
+    private HttpResponse<B> sendWithinLimitBlocking(int attempt)
+    {
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        if (concurrencyLimiter == null)
+        {
+            return sendWithoutLimitBlocking(attempt);
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = await(concurrencyLimiter.acquire(request)
+            .handle(this::failIfNotPermitted));
+        RuntimeException refusal = getAttemptRefusal();
+        if (refusal != null)
+        {
+            permit.abandon();
+            throw refusal;
+        }
+
+        try
+        {
+            HttpResponse<B> response = sendWithoutLimitBlocking(attempt);
+            permit.release(null);
+            return response;
+        }
+        catch (RuntimeException e)
+        {
+            permit.release(e);
+            throw e;
+        }
+    }
+
+    private HttpResponse<B> sendWithoutLimitBlocking(int attempt)
+    {
+        RuntimeException refusal = getAttemptRefusal();
+        if (refusal != null)
+        {
+            throw refusal;
         }
 
-        return sendOnce();
+        StatusAwareBodyHandler<B> statusAwareBodyHandler = createStatusAwareBodyHandler();
+        HttpResponse<B> response;
+        try
+        {
+            response = exchangeBlocking(createAttemptRequest(), createBodyHandler(attempt, statusAwareBodyHandler));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            throw createRequestFailureException(e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread()
+                .interrupt();
+            throw createRequestFailureException(e);
+        }
+        return failOrPassThrough(response, statusAwareBodyHandler.getCapturedBody());
     }
 
-    private CompletableFuture<HttpResponse<B>> sendOnce()
+    /**
+     * Uses {@link java.net.http.HttpClient#send} unless the exchange involves the response cache, request coalescing or
+     * hedging, which are only available asynchronously.
+     */
+    private HttpResponse<B> exchangeBlocking(HttpRequest attemptRequest, HttpResponse.BodyHandler<B> bodyHandler)
+        throws IOException, InterruptedException
     {
+        if (isCached() || isCoalesced(attemptRequest) || isHedged(attemptRequest))
+        {
+            try
+            {
+                return exchange(attemptRequest, bodyHandler).join();
+            }
+            catch (CompletionException e)
+            {
+                Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+        }
+
         return clientConfig.getHttpClient()
-            .sendAsync(request, getBodyHandler())
-            .handle(this::addDetailsForLowLevelExceptions)
-            .thenApply(this::failOrPassThrough);
+            .send(attemptRequest, bodyHandler);
+    }
+
+    private static <T> T await(CompletableFuture<T> future)
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException e)
+        {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
     }
 
     protected abstract HttpResponse.BodyHandler<B> getBodyHandler();
 
+    /**
+     * Determines how to receive the body of a response with the given status. Bodies of failed responses are captured
+     * up to {@link ClientConfig#getMaxErrorBodyBytes()} for use in exceptions.
+     */
+    protected StatusAwareBodyHandler.Strategy selectBodyStrategy(int responseStatus)
+    {
+        if (isFailure(responseStatus))
+        {
+            return StatusAwareBodyHandler.Strategy.CAPTURE;
+        }
+        return StatusAwareBodyHandler.Strategy.CONVERT;
+    }
+
     private <T> T addDetailsForLowLevelExceptions(T result, Throwable throwable)
     {
         if (throwable != null)
         {
-            String message = String.format("Request to URL %s failed", request.uri());
-            throw new RequestFailureException(request, message, throwable, diagnosticsData, callerFrames);
+            throw createRequestFailureException(throwable);
         }
         return result;
     }
 
-    private HttpResponse<B> failOrPassThrough(HttpResponse<B> response)
+    private RequestException createRequestFailureException(Throwable cause)
+    {
+        if (isDeadlineExceeded())
+        {
+            // Most likely, the attempt timed out because its timeout was clamped to the deadline
+            return createDeadlineExceededException(cause);
+        }
+
+        String message = String.format("Request to URL %s failed", request.uri());
+        return new RequestFailureException(request, message, cause, diagnosticsData, callerFrames);
+    }
+
+    private DeadlineExceededException createDeadlineExceededException(Throwable cause)
+    {
+        String message = String.format("Deadline for request to URL %s was exceeded", request.uri());
+        return new DeadlineExceededException(request, message, cause, diagnosticsData, callerFrames);
+    }
+
+    private HttpResponse<B> failOrPassThrough(HttpResponse<B> response, CapturedBody capturedBody)
     {
-        verifyNoErrors(response);
+        verifyNoErrors(response, capturedBody);
         return response;
     }
 
-    protected abstract void verifyNoErrors(HttpResponse<B> response);
+    /**
+     * @param capturedBody the body captured for a response with a failure status, or {@code null} if there is none
+     */
+    protected abstract void verifyNoErrors(HttpResponse<B> response, CapturedBody capturedBody);
 
     private R extractValue(HttpResponse<B> httpResponse)
+    {
+        RequestListener requestListener = clientConfig.getRequestListener();
+        if (requestListener == null)
+        {
+            return convert(httpResponse);
+        }
+
+        long startNanos = System.nanoTime();
+        R result = convert(httpResponse);
+        requestListener.responseConverted(request, startNanos, System.nanoTime());
+        return result;
+    }
+
+    private R convert(HttpResponse<B> httpResponse)
     {
         try
         {
@@ -107,16 +726,30 @@ abstract class AbstractRequester<B, R> implements Requester<R>
         }
         catch (RuntimeException e)
         {
+            B body = httpResponse.body();
+            CapturedBody capturedBody = body instanceof InputStream ? null : captureBody(body);
             String message = String.format("Could not process response to %s %s:\n%s",
                 request.method(),
                 request.uri(),
-                httpResponse.body());
-            throw new ResponseBodyException(message, e, httpResponse, diagnosticsData, callerFrames);
+                capturedBody != null ? getMessageText(capturedBody) : ResponseBodies.toText(body));
+            throw ResponseBodyException.builder()
+                .message(message)
+                .cause(e)
+                .response(httpResponse)
+                .capturedBody(capturedBody)
+                .diagnosticsData(diagnosticsData)
+                .callerFrames(callerFrames)
+                .build();
         }
     }
 
     protected abstract R doExtractValue(HttpResponse<B> response);
 
+    protected ResponseContext createResponseContext(HttpResponse<?> response)
+    {
+        return new ResponseContext(request, response, diagnosticsData, callerFrames);
+    }
+
     protected boolean isFailure(int responseStatus)
     {
         return !isSuccess(responseStatus);
@@ -127,47 +760,71 @@ abstract class AbstractRequester<B, R> implements Requester<R>
         return responseStatus >= 200 && responseStatus < 300;
     }
 
-    protected <T> ResponseStatusException createException(HttpResponse<T> response)
+    protected <T> ResponseStatusException createException(HttpResponse<T> response, CapturedBody capturedBody)
     {
         int status = response.statusCode();
-        String body = getQuotedStringBody(response);
+        T body = response.body();
+        if (capturedBody == null && body != null)
+        {
+            capturedBody = captureBody(body);
+        }
         String message = String.format("Got status %d with message %s for %s %s",
             status,
-            body,
+            getQuotedBodyText(body, capturedBody),
             request.method(),
             request.uri());
 
         return ResponseStatusException.builder()
             .message(message)
             .response(response)
+            .capturedBody(capturedBody)
             .diagnosticsData(diagnosticsData)
             .build();
     }
 
-    private <T> String getQuotedStringBody(HttpResponse<T> response)
+    private CapturedBody captureBody(Object body)
     {
-        T body = response.body();
-        if (body == null)
+        try
+        {
+            return ResponseBodies.capture(body, clientConfig.getMaxErrorBodyBytes());
+        }
+        catch (IOException e)
         {
+            log.debug("Could not read body stream for error message; returning fallback value", e);
             return null;
         }
+    }
+
+    private String getQuotedBodyText(Object body, CapturedBody capturedBody)
+    {
+        if (capturedBody == null)
+        {
+            return body == null ? null : "<unreadable stream>";
+        }
 
+        String text = getMessageText(capturedBody);
         if (body instanceof InputStream)
         {
-            try
-            {
-                byte[] bytes = ByteStreams.toByteArray((InputStream) body);
-                return new String(bytes, StandardCharsets.UTF_8);
-            }
-            catch (IOException e)
-            {
-                log.debug("Could not read body stream for error message; returning fallback value", e);
-                return "<unreadable stream>";
-            }
+            return text;
+        }
+
+        return String.format("»%s«", text.trim());
+    }
+
+    /**
+     * Returns the captured text, abbreviated to the configured number of characters for messages.
+     */
+    private String getMessageText(CapturedBody capturedBody)
+    {
+        String text = capturedBody.getText();
+        int maxChars = clientConfig.getMaxMessageBodyChars();
+        if (text.length() <= maxChars && !capturedBody.isTruncated())
+        {
+            return text;
         }
 
-        return String.format("»%s«",
-            body.toString()
-                .trim());
+        return String.format("%s… (%d bytes total)",
+            text.substring(0, Math.min(text.length(), maxChars)),
+            capturedBody.getTotalLength());
     }
 }
@@ -0,0 +1,318 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Builder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+/**
+ * Limits the number of requests in flight per host, adjusting each limit to the observed behavior of the host. <br>
+ * <br>
+ * The algorithm is gradient-based: a long-term average of the round trip time serves as the baseline, and whenever
+ * requests take longer than that (indicating that they queue up at the server), the limit is lowered proportionally.
+ * While requests are as fast as the baseline, the limit grows by a headroom of √limit. Failed exchanges and responses
+ * with status 429 or 503 reduce the limit multiplicatively. <br>
+ * <br>
+ * Requests exceeding the limit wait up to {@code maxQueueWait} for a permit, or fail immediately if that is zero. In
+ * either case, a request that is not granted a permit fails with {@link ConcurrencyLimitExceededException}.
+ */
+public final class AdaptiveConcurrencyLimiter
+{
+    private static final double LONG_RTT_WEIGHT = 0.05;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxQueueWaitNanos;
+    private final int maxQueueLength;
+
+    private final ConcurrentMap<String, HostLimit> hostLimits = new ConcurrentHashMap<>();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param initialLimit the limit for a host before any requests have completed; defaults to 20
+     * @param minLimit the lower bound of each limit; defaults to 1
+     * @param maxLimit the upper bound of each limit; defaults to 200
+     * @param maxQueueWait how long a request may wait for a permit; defaults to zero, i.e. failing immediately
+     * @param maxQueueLength how many requests per host may wait for a permit; defaults to unlimited
+     */
+    @Builder
+    private AdaptiveConcurrencyLimiter(
+        int initialLimit, int minLimit, int maxLimit, Duration maxQueueWait, int maxQueueLength)
+    {
+        this.minLimit = minLimit > 0 ? minLimit : 1;
+        this.maxLimit = maxLimit > 0 ? maxLimit : 200;
+        this.initialLimit = initialLimit > 0 ? initialLimit : Math.min(20, this.maxLimit);
+        this.maxQueueWaitNanos = maxQueueWait != null ? maxQueueWait.toNanos() : 0;
+        this.maxQueueLength = maxQueueLength > 0 ? maxQueueLength : Integer.MAX_VALUE;
+
+        Preconditions.checkArgument(this.minLimit <= this.initialLimit && this.initialLimit <= this.maxLimit,
+            "Limits must satisfy minLimit <= initialLimit <= maxLimit");
+        Preconditions.checkArgument(maxQueueWaitNanos >= 0, "maxQueueWait must not be negative");
+    }
+
+    /**
+     * Returns the hosts (including the port, if specified) for which requests have been sent so far.
+     */
+    public Set<String> getHosts()
+    {
+        return Set.copyOf(hostLimits.keySet());
+    }
+
+    /**
+     * Returns the current limit for the given host, or the initial limit if no requests have been sent to it.
+     */
+    public int getLimit(String host)
+    {
+        HostLimit hostLimit = hostLimits.get(host);
+        return hostLimit != null ? hostLimit.getLimit() : initialLimit;
+    }
+
+    public int getInFlight(String host)
+    {
+        HostLimit hostLimit = hostLimits.get(host);
+        return hostLimit != null ? hostLimit.getInFlight() : 0;
+    }
+
+    /**
+     * Returns the number of requests that failed because they were not granted a permit.
+     */
+    public long getRejectedCount()
+    {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Returns a future that completes with a permit once the request may be sent. If no permit is granted, the
+     * future fails with a {@link RejectedExecutionException}.
+     */
+    CompletableFuture<Permit> acquire(HttpRequest request)
+    {
+        return hostLimits.computeIfAbsent(getHost(request.uri()), host -> new HostLimit())
+            .acquire();
+    }
+
+    private static String getHost(URI uri)
+    {
+        return String.valueOf(uri.getAuthority());
+    }
+
+    private RejectedExecutionException reject(String reason)
+    {
+        rejectedCount.increment();
+        return new RejectedExecutionException(reason);
+    }
+
+    private final class HostLimit
+    {
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+        private double limit = initialLimit;
+        private int inFlight;
+        private double longRttNanos;
+
+        public synchronized int getLimit()
+        {
+            return (int) limit;
+        }
+
+        public synchronized int getInFlight()
+        {
+            return inFlight;
+        }
+
+        public CompletableFuture<Permit> acquire()
+        {
+            CompletableFuture<Permit> waiter;
+            synchronized (this)
+            {
+                if (inFlight < (int) limit)
+                {
+                    return CompletableFuture.completedFuture(grant());
+                }
+
+                if (maxQueueWaitNanos == 0 || waiters.size() >= maxQueueLength)
+                {
+                    return CompletableFuture.failedFuture(reject("Concurrency limit of " + (int) limit + " reached"));
+                }
+
+                waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+            }
+
+            return waiter.orTimeout(maxQueueWaitNanos, TimeUnit.NANOSECONDS)
+                .exceptionallyCompose(throwable -> CompletableFuture.failedFuture(reject(
+                    "Timed out waiting for a permit")));
+        }
+
+        /**
+         * Must be called while holding the lock.
+         */
+        private Permit grant()
+        {
+            inFlight++;
+            return new Permit(this, System.nanoTime(), inFlight);
+        }
+
+        /**
+         * @param sampled whether the exchange made with the permit should be used to adjust the limit
+         */
+        public void release(Permit permit, boolean sampled, boolean dropped)
+        {
+            long rttNanos = System.nanoTime() - permit.startNanos;
+            List<CompletableFuture<Permit>> admitted = new ArrayList<>();
+            List<Permit> permits = new ArrayList<>();
+            synchronized (this)
+            {
+                inFlight--;
+                if (sampled)
+                {
+                    updateLimit(rttNanos, permit.inFlightAtStart, dropped);
+                }
+
+                while (inFlight < (int) limit && !waiters.isEmpty())
+                {
+                    CompletableFuture<Permit> waiter = waiters.poll();
+                    if (!waiter.isDone())
+                    {
+                        admitted.add(waiter);
+                        permits.add(grant());
+                    }
+                }
+            }
+
+            for (int i = 0; i < admitted.size(); i++)
+            {
+                Permit admittedPermit = permits.get(i);
+                if (!admitted.get(i)
+                    .complete(admittedPermit))
+                {
+                    // The waiter timed out in the meantime
+                    admittedPermit.abandon();
+                }
+            }
+        }
+
+        private void updateLimit(long rttNanos, int inFlightAtStart, boolean dropped)
+        {
+            if (dropped)
+            {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                return;
+            }
+
+            if (longRttNanos == 0)
+            {
+                longRttNanos = rttNanos;
+            }
+            else
+            {
+                longRttNanos = longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+            }
+
+            if (inFlightAtStart < limit / 2)
+            {
+                // The limit is not being used, so samples say nothing about whether it could be higher
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / Math.max(1, rttNanos)));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        }
+    }
+
+    /**
+     * Grants sending a single request. Must be released exactly once when the exchange has completed.
+     */
+    static final class Permit
+    {
+        private final HostLimit hostLimit;
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        private Permit(HostLimit hostLimit, long startNanos, int inFlightAtStart)
+        {
+            this.hostLimit = hostLimit;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * @param throwable the failure of the exchange, or {@code null} if it succeeded
+         */
+        public void release(Throwable throwable)
+        {
+            Throwable failure = unwrap(throwable);
+            if (isClientSideOutcome(failure))
+            {
+                // The exchange ended for reasons of the client, so its duration says nothing about the server
+                abandon();
+                return;
+            }
+
+            hostLimit.release(this, true, isDropSignal(failure));
+        }
+
+        /**
+         * Releases the permit without having sent a request.
+         */
+        public void abandon()
+        {
+            hostLimit.release(this, false, false);
+        }
+
+        private static Throwable unwrap(Throwable throwable)
+        {
+            if (throwable instanceof CompletionException && throwable.getCause() != null)
+            {
+                return throwable.getCause();
+            }
+            return throwable;
+        }
+
+        private static boolean isClientSideOutcome(Throwable failure)
+        {
+            if (failure instanceof CancellationException || failure instanceof DeadlineExceededException)
+            {
+                return true;
+            }
+
+            Throwable rootCause = failure == null ? null : Throwables.getRootCause(failure);
+            return rootCause instanceof CancellationException || rootCause instanceof InterruptedException;
+        }
+
+        /**
+         * Only failures that indicate an overloaded server count as congestion: rejecting statuses and failures to
+         * communicate with the server. Failures to convert the body or of the caller's own code do not.
+         */
+        private static boolean isDropSignal(Throwable failure)
+        {
+            if (failure instanceof ResponseStatusException)
+            {
+                int status = ((ResponseStatusException) failure).getStatusCode();
+                return status == 429 || status == 503;
+            }
+
+            return failure instanceof RequestFailureException;
+        }
+    }
+}
@@ -5,13 +5,28 @@ import java.net.http.HttpRequest;
 import lombok.Builder;
 import lombok.NonNull;
 
+import dev.bannmann.restflow.util.HttpRequests;
+
 @Builder
 public final class BasicRestClient
 {
     private final @NonNull ClientConfig clientConfig;
 
+    /**
+     * Prepares sending the given request. If {@link ClientConfig#getCompression() compression} is enabled and the
+     * request does not specify {@code Accept-Encoding}, the header is added.
+     */
     public RequestHandle make(HttpRequest request)
     {
+        if (clientConfig.getCompression() != null &&
+            request.headers()
+                .firstValue("Accept-Encoding")
+                .isEmpty())
+        {
+            request = HttpRequests.toBuilder(request)
+                .header("Accept-Encoding", Compression.ACCEPT_ENCODING)
+                .build();
+        }
         return new RequestHandle(request, clientConfig);
     }
 }
@@ -0,0 +1,215 @@
+package dev.bannmann.restflow;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Combines individual fetches by key into batch requests, similar to the DataLoader pattern. Keys passed to
+ * {@link #load(Object)} are collected until {@code maxWait} has passed since the first one, or until
+ * {@code maxBatchSize} keys are collected. Then, one request is sent for all of them, and its result is split back into
+ * the futures of the individual keys. <br>
+ * <br>
+ * The batch request is created by a user-supplied function, so any endpoint shape can be used. Example:
+ * <pre>{@code
+ * Endpoint items = client.endpoint("items{?ids}");
+ * BatchLoader<String, Item> loader = BatchLoader.<String, Item>builder()
+ *     .batchRequest(ids -> items.get(Map.of("ids", String.join(",", ids)))
+ *         .returningListOf(Item.class))
+ *     .keyExtractor(Item::getId)
+ *     .build();
+ * CompletableFuture<Optional<Item>> item = loader.load("42");
+ * }</pre>
+ * Like with {@link FetchHandle#tryFetch()}, keys missing from the batch result resolve to an empty {@code Optional},
+ * as do all keys of a batch request to which the server responds with 404 (Not Found). If the batch request fails, the
+ * futures of all its keys fail. <br>
+ * <br>
+ * Keys that are loaded several times within the same batch are only requested once.
+ */
+public final class BatchLoader<K, V>
+{
+    private static final class Batch<K, V>
+    {
+        private final Map<K, CompletableFuture<Optional<V>>> futures = new LinkedHashMap<>();
+        private final Map<K, Long> loadNanos = new HashMap<>();
+    }
+
+    private final Function<List<K>, FetchHandle<? extends Collection<V>>> batchRequest;
+    private final Function<V, K> keyExtractor;
+    private final int maxBatchSize;
+    private final Executor delayedExecutor;
+
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram waitTimes = new Histogram();
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private Batch<K, V> currentBatch;
+
+    /**
+     * @param batchRequest creates the request for the given keys, e.g. {@code GET items?ids=…} or a {@code POST} of
+     * the list of keys
+     * @param keyExtractor returns the key of an element of the batch result
+     * @param maxWait the maximum time a key waits for other keys before the batch is sent; defaults to 1 ms
+     * @param maxBatchSize the maximum number of keys in a batch; defaults to {@code 100}
+     */
+    @Builder
+    private BatchLoader(
+        @NonNull Function<List<K>, FetchHandle<? extends Collection<V>>> batchRequest,
+        @NonNull Function<V, K> keyExtractor,
+        Duration maxWait,
+        int maxBatchSize)
+    {
+        Preconditions.checkArgument(maxWait == null || !maxWait.isNegative(), "maxWait must not be negative");
+        Preconditions.checkArgument(maxBatchSize >= 0, "maxBatchSize must not be negative");
+
+        this.batchRequest = batchRequest;
+        this.keyExtractor = keyExtractor;
+        this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : 100;
+
+        long maxWaitNanos = maxWait != null ? maxWait.toNanos() : TimeUnit.MILLISECONDS.toNanos(1);
+        this.delayedExecutor = CompletableFuture.delayedExecutor(maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the distribution of the number of distinct keys per batch request.
+     */
+    public Histogram getBatchSizes()
+    {
+        return batchSizes;
+    }
+
+    /**
+     * Returns the distribution of the time in microseconds between loading a key and sending the batch request
+     * containing it.
+     */
+    public Histogram getWaitTimes()
+    {
+        return waitTimes;
+    }
+
+    /**
+     * Adds the key to the current batch.
+     *
+     * @return a future of the element with the given key, or of an empty {@code Optional} if there is none
+     */
+    public CompletableFuture<Optional<V>> load(@NonNull K key)
+    {
+        Batch<K, V> fullBatch = null;
+        CompletableFuture<Optional<V>> result;
+        synchronized (this)
+        {
+            if (currentBatch == null)
+            {
+                Batch<K, V> batch = new Batch<>();
+                currentBatch = batch;
+                delayedExecutor.execute(() -> sendIfCurrent(batch));
+            }
+
+            Batch<K, V> batch = currentBatch;
+            result = batch.futures.computeIfAbsent(key, k -> {
+                batch.loadNanos.put(k, System.nanoTime());
+                return new CompletableFuture<>();
+            });
+
+            if (batch.futures.size() >= maxBatchSize)
+            {
+                fullBatch = batch;
+                currentBatch = null;
+            }
+        }
+
+        if (fullBatch != null)
+        {
+            send(fullBatch);
+        }
+        return result;
+    }
+
+    private void sendIfCurrent(Batch<K, V> batch)
+    {
+        synchronized (this)
+        {
+            if (currentBatch != batch)
+            {
+                // The batch was already sent because it reached the maximum size
+                return;
+            }
+            currentBatch = null;
+        }
+        send(batch);
+    }
+
+    private void send(Batch<K, V> batch)
+    {
+        long sendNanos = System.nanoTime();
+        batchSizes.record(batch.futures.size());
+        for (Long loadNanos : batch.loadNanos.values())
+        {
+            waitTimes.record(TimeUnit.NANOSECONDS.toMicros(sendNanos - loadNanos));
+        }
+
+        CompletableFuture<? extends Optional<? extends Collection<V>>> response;
+        try
+        {
+            response = batchRequest.apply(ImmutableList.copyOf(batch.futures.keySet()))
+                .tryFetch();
+        }
+        catch (RuntimeException e)
+        {
+            failAll(batch, e);
+            return;
+        }
+
+        response.whenComplete((elements, throwable) -> {
+            if (throwable != null)
+            {
+                failAll(batch, throwable);
+                return;
+            }
+
+            try
+            {
+                completeAll(batch, elements);
+            }
+            catch (RuntimeException e)
+            {
+                failAll(batch, e);
+            }
+        });
+    }
+
+    private void completeAll(Batch<K, V> batch, Optional<? extends Collection<V>> elements)
+    {
+        Map<K, V> elementsByKey = new HashMap<>();
+        for (V element : elements.isPresent() ? elements.get() : ImmutableList.<V>of())
+        {
+            elementsByKey.put(keyExtractor.apply(element), element);
+        }
+
+        batch.futures.forEach((key, future) -> future.complete(Optional.ofNullable(elementsByKey.get(key))));
+    }
+
+    private void failAll(Batch<K, V> batch, Throwable throwable)
+    {
+        for (CompletableFuture<Optional<V>> future : batch.futures.values())
+        {
+            future.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.bannmann.restflow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import lombok.experimental.UtilityClass;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Provides the executor for tasks that block on I/O, e.g. reading from a response body {@link java.io.InputStream}.
+ * Running such tasks on a dedicated cached pool prevents them from starving the common pool or the executor of the
+ * {@link java.net.http.HttpClient}.
+ */
+@UtilityClass
+class BlockingIo
+{
+    public final Executor EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
+            "restflow-blocking-io-%d")
+        .setDaemon(true)
+        .build());
+}
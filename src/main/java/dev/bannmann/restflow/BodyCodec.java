@@ -0,0 +1,52 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Converts objects to and from request and response bodies of a specific media type. Codecs are registered via
+ * {@link ClientConfig#getBodyCodecs()}; implementations that are installed as services can be obtained with
+ * {@link #loadInstalled()}. <br>
+ * <br>
+ * If codecs are registered, requests for objects announce their media types in the {@code Accept} header, in order of
+ * registration, followed by {@code application/json}. Responses are decoded by the codec matching their
+ * {@code Content-Type}, with JSON-B as the fallback. Objects sent as request bodies are encoded with JSON-B unless a
+ * codec is set via {@link ClientConfig#getRequestBodyCodec()}. <br>
+ * <br>
+ * Implementations must be thread-safe.
+ *
+ * @see dev.bannmann.restflow.cbor.CborCodec
+ */
+public interface BodyCodec
+{
+    /**
+     * Returns the media type of the bodies handled by this codec without parameters, e.g. {@code application/cbor}.
+     */
+    String getMediaType();
+
+    /**
+     * Writes the given object to the stream. Implementations may close the stream when they are done.
+     */
+    void encode(Object value, OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads an object of the given type from the stream.
+     */
+    Object decode(InputStream inputStream, Type type) throws IOException;
+
+    /**
+     * Returns instances of all codecs registered as service providers via {@link ServiceLoader}.
+     */
+    static List<BodyCodec> loadInstalled()
+    {
+        List<BodyCodec> result = new ArrayList<>();
+        ServiceLoader.load(BodyCodec.class)
+            .forEach(result::add);
+        return result;
+    }
+}
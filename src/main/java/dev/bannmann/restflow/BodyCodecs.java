@@ -0,0 +1,121 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.json.bind.Jsonb;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Selects {@link BodyCodec} instances for requests and responses.
+ */
+@UtilityClass
+class BodyCodecs
+{
+    static final String APPLICATION_JSON = "application/json";
+
+    @RequiredArgsConstructor
+    private static final class JsonbCodec implements BodyCodec
+    {
+        private final Jsonb jsonb;
+
+        @Override
+        public String getMediaType()
+        {
+            return APPLICATION_JSON;
+        }
+
+        @Override
+        public void encode(Object value, OutputStream outputStream)
+        {
+            jsonb.toJson(value, outputStream);
+        }
+
+        @Override
+        public Object decode(InputStream inputStream, Type type)
+        {
+            return jsonb.fromJson(inputStream, type);
+        }
+    }
+
+    /**
+     * Returns the codec for request bodies, which is the configured request body codec or JSON-B if there is none.
+     */
+    public BodyCodec getRequestCodec(ClientConfig clientConfig)
+    {
+        BodyCodec requestBodyCodec = clientConfig.getRequestBodyCodec();
+        if (requestBodyCodec == null)
+        {
+            return new JsonbCodec(clientConfig.getJsonb());
+        }
+        return requestBodyCodec;
+    }
+
+    /**
+     * Returns the codec matching the given {@code Content-Type} header value, or JSON-B if there is none.
+     */
+    public BodyCodec getResponseCodec(ClientConfig clientConfig, String contentType)
+    {
+        if (contentType != null)
+        {
+            String mediaType = getMediaType(contentType);
+            for (BodyCodec bodyCodec : clientConfig.getBodyCodecs())
+            {
+                if (bodyCodec.getMediaType()
+                    .equalsIgnoreCase(mediaType))
+                {
+                    return bodyCodec;
+                }
+            }
+        }
+        return new JsonbCodec(clientConfig.getJsonb());
+    }
+
+    private String getMediaType(String contentType)
+    {
+        int parametersStart = contentType.indexOf(';');
+        return (parametersStart == -1 ? contentType : contentType.substring(0, parametersStart)).trim();
+    }
+
+    /**
+     * Returns the value for the {@code Accept} header of requests for objects.
+     */
+    public String createAcceptHeader(List<BodyCodec> bodyCodecs)
+    {
+        List<String> mediaTypes = bodyCodecs.stream()
+            .map(BodyCodec::getMediaType)
+            .filter(mediaType -> !mediaType.equalsIgnoreCase(APPLICATION_JSON))
+            .collect(Collectors.toList());
+        if (mediaTypes.isEmpty())
+        {
+            return APPLICATION_JSON;
+        }
+
+        // Prefer the registered codecs, but accept JSON from servers that do not support any of them
+        mediaTypes.add(APPLICATION_JSON + ";q=0.9");
+        return String.join(", ", mediaTypes);
+    }
+
+    /**
+     * Wraps checked exceptions of the codec so that they are reported like binding failures.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(BodyCodec bodyCodec, InputStream inputStream, Type type)
+    {
+        try
+        {
+            return (T) bodyCodec.decode(inputStream, type);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.bannmann.restflow;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base class for iterators that read elements incrementally from a response body. Only the current element is held in
+ * memory, and as the body is only read when the next element is requested, the consumer's pace applies backpressure to
+ * the download.
+ */
+abstract class BodyElementIterator<T> implements Iterator<T>, AutoCloseable
+{
+    private boolean finished;
+    private boolean pending;
+    private T next;
+
+    /**
+     * Returns a sequential stream of the elements. The stream must be closed to release the connection if it is not
+     * consumed completely.
+     */
+    public final Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+            .onClose(this::close);
+    }
+
+    /**
+     * Returns a publisher of the elements which supports a single subscriber. The body is read on a dedicated thread
+     * while the subscriber has outstanding demand.
+     */
+    public final Flow.Publisher<T> publisher()
+    {
+        return new IteratorPublisher<>(this, this, BlockingIo.EXECUTOR);
+    }
+
+    @Override
+    public final boolean hasNext()
+    {
+        if (!pending && !finished)
+        {
+            try
+            {
+                pending = readNext();
+            }
+            catch (RuntimeException e)
+            {
+                finished = true;
+                close();
+                throw e;
+            }
+
+            if (!pending)
+            {
+                finished = true;
+                close();
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public final T next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        T result = next;
+        next = null;
+        pending = false;
+        return result;
+    }
+
+    /**
+     * Reads the next element from the body and passes it to {@link #setNext(Object)}.
+     *
+     * @return {@code true} if an element was read, {@code false} if the end of the body was reached
+     *
+     * @throws ResponseBodyException if the element could not be read or bound
+     */
+    protected abstract boolean readNext();
+
+    protected final void setNext(T element)
+    {
+        next = element;
+    }
+
+    @Override
+    public abstract void close();
+}
@@ -0,0 +1,154 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.SSLSession;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Holds the status, headers and raw body bytes of a response so that it can be handed to any number of body handlers,
+ * each of which produces its own body object.
+ */
+@RequiredArgsConstructor
+final class BufferedResponse implements HttpResponse.ResponseInfo
+{
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final HttpClient.Version version;
+
+    @Getter
+    private final byte[] body;
+
+    @Override
+    public int statusCode()
+    {
+        return statusCode;
+    }
+
+    @Override
+    public HttpHeaders headers()
+    {
+        return headers;
+    }
+
+    @Override
+    public HttpClient.Version version()
+    {
+        return version;
+    }
+
+    /**
+     * Feeds the buffered body to a subscriber created by the given handler, as if the response had just been received.
+     *
+     * @param request the request to associate the resulting response with
+     */
+    public <T> CompletableFuture<HttpResponse<T>> replay(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        try
+        {
+            HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(this);
+            subscriber.onSubscribe(new ReplaySubscription(subscriber));
+            return subscriber.getBody()
+                .toCompletableFuture()
+                .thenApply(responseBody -> new ReplayedResponse<>(request, responseBody));
+        }
+        catch (RuntimeException e)
+        {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class ReplaySubscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super List<ByteBuffer>> subscriber;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        @Override
+        public void request(long n)
+        {
+            if (n > 0 && done.compareAndSet(false, true))
+            {
+                if (body.length > 0)
+                {
+                    subscriber.onNext(List.of(ByteBuffer.wrap(body)
+                        .asReadOnlyBuffer()));
+                }
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            done.set(true);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class ReplayedResponse<T> implements HttpResponse<T>
+    {
+        private final HttpRequest request;
+        private final T body;
+
+        @Override
+        public int statusCode()
+        {
+            return statusCode;
+        }
+
+        @Override
+        public HttpRequest request()
+        {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers()
+        {
+            return headers;
+        }
+
+        @Override
+        public T body()
+        {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri()
+        {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version()
+        {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.bannmann.restflow;
+
+import java.util.Collection;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Fetches many requests with bounded concurrency. Requests are only started while fewer than
+ * {@link #maxConcurrency(int) maxConcurrency} requests (and, optionally, fewer than {@link #perHostLimit(int)
+ * perHostLimit} requests to the same host) are in flight, so neither the server nor the connection pool of the HTTP
+ * client is flooded. <br>
+ * <br>
+ * Example:
+ * <pre>{@code
+ * BulkFetchExecution<Item> execution = BulkFetch.of(handles)
+ *     .maxConcurrency(32)
+ *     .perHostLimit(8)
+ *     .start();
+ * execution.results()
+ *     .forEach(result -> ...);
+ * }</pre>
+ */
+@Builder(toBuilder = true, access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BulkFetch<R>
+{
+    public enum ErrorMode
+    {
+        /**
+         * Stops starting requests after the first failure and cancels the ones in flight. The aggregate future
+         * completes exceptionally with that failure.
+         */
+        FAIL_FAST,
+
+        /**
+         * Runs all requests regardless of failures. If any request failed, the aggregate future completes
+         * exceptionally with a {@link BulkFetchException} listing all failures.
+         */
+        COLLECT_ALL
+    }
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    public static <R> BulkFetch<R> of(@NonNull Collection<FetchHandle<R>> handles)
+    {
+        return BulkFetch.<R>builder()
+            .handles(ImmutableList.copyOf(handles))
+            .maxConcurrency(DEFAULT_MAX_CONCURRENCY)
+            .errorMode(ErrorMode.FAIL_FAST)
+            .build();
+    }
+
+    private final ImmutableList<FetchHandle<R>> handles;
+    private final int maxConcurrency;
+    private final int perHostLimit;
+    private final ErrorMode errorMode;
+
+    /**
+     * Sets the maximum number of requests in flight at the same time. Defaults to 8.
+     */
+    public BulkFetch<R> maxConcurrency(int maxConcurrency)
+    {
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+        return toBuilder().maxConcurrency(maxConcurrency)
+            .build();
+    }
+
+    /**
+     * Sets the maximum number of requests to the same host in flight at the same time. By default, only
+     * {@link #maxConcurrency(int) maxConcurrency} applies.
+     */
+    public BulkFetch<R> perHostLimit(int perHostLimit)
+    {
+        Preconditions.checkArgument(perHostLimit > 0, "perHostLimit must be positive");
+        return toBuilder().perHostLimit(perHostLimit)
+            .build();
+    }
+
+    /**
+     * Sets how failures of individual requests are handled. Defaults to {@link ErrorMode#FAIL_FAST}.
+     */
+    public BulkFetch<R> errorMode(@NonNull ErrorMode errorMode)
+    {
+        return toBuilder().errorMode(errorMode)
+            .build();
+    }
+
+    public BulkFetchExecution<R> start()
+    {
+        int effectivePerHostLimit = perHostLimit > 0 ? perHostLimit : maxConcurrency;
+        var execution = new BulkFetchExecution<>(handles, maxConcurrency, effectivePerHostLimit, errorMode);
+        execution.scheduleMore();
+        return execution;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.bannmann.restflow;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Thrown when one or more requests of a {@link BulkFetch} failed in {@link BulkFetch.ErrorMode#COLLECT_ALL} mode.
+ */
+@Getter
+public class BulkFetchException extends RuntimeException
+{
+    private final transient List<BulkFetchResult<?>> failures;
+
+    public BulkFetchException(String message, List<BulkFetchResult<?>> failures)
+    {
+        super(message,
+            failures.get(0)
+                .getFailure());
+        this.failures = List.copyOf(failures);
+    }
+}
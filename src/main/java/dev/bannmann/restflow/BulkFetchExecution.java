@@ -0,0 +1,385 @@
+package dev.bannmann.restflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A running {@link BulkFetch}. The results of the individual requests can be consumed in completion order via either
+ * {@link #results()} or {@link #publisher()}, but only once. Independently, {@link #getCompletion()} provides all
+ * values in the original order. <br>
+ * <br>
+ * Once the results are consumed, results waiting to be taken count against the concurrency limit. This way, a slow
+ * consumer slows down the execution instead of letting results pile up.
+ */
+public final class BulkFetchExecution<R>
+{
+    private static final Object END = new Object();
+
+    private final ImmutableList<FetchHandle<R>> handles;
+    private final int maxConcurrency;
+    private final int perHostLimit;
+    private final BulkFetch.ErrorMode errorMode;
+
+    private final CompletableFuture<List<R>> completion = new CompletableFuture<>();
+    private final BlockingQueue<Object> resultQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger scheduleRequests = new AtomicInteger();
+    private final AtomicBoolean resultsTaken = new AtomicBoolean();
+    private volatile boolean consuming;
+
+    // All fields below are guarded by 'this'
+    private final Map<String, ArrayDeque<Integer>> pendingByHost = new LinkedHashMap<>();
+    private final Map<String, Integer> inFlightByHost = new HashMap<>();
+    private final Map<Integer, CompletableFuture<R>> running = new HashMap<>();
+    private final List<BulkFetchResult<?>> failures = new ArrayList<>();
+    private final Object[] values;
+    private int inFlight;
+    private int finishedCount;
+    private boolean stopped;
+    private boolean ended;
+
+    BulkFetchExecution(
+        ImmutableList<FetchHandle<R>> handles, int maxConcurrency, int perHostLimit, BulkFetch.ErrorMode errorMode)
+    {
+        this.handles = handles;
+        this.maxConcurrency = maxConcurrency;
+        this.perHostLimit = perHostLimit;
+        this.errorMode = errorMode;
+        this.values = new Object[handles.size()];
+
+        for (int i = 0; i < handles.size(); i++)
+        {
+            pendingByHost.computeIfAbsent(getHost(i), host -> new ArrayDeque<>())
+                .add(i);
+        }
+    }
+
+    private String getHost(int index)
+    {
+        return String.valueOf(handles.get(index)
+            .getUri()
+            .getAuthority());
+    }
+
+    /**
+     * Returns a future that completes with the values of all requests in the original order, or exceptionally as
+     * specified by the {@link BulkFetch.ErrorMode}.
+     */
+    public CompletableFuture<List<R>> getCompletion()
+    {
+        return completion;
+    }
+
+    /**
+     * Returns the results in completion order. The stream blocks while waiting for the next request to complete and
+     * ends once no more requests will be started and all requests in flight have completed. Closing the stream cancels
+     * this execution.
+     *
+     * @throws IllegalStateException if the results were already consumed via this method or {@link #publisher()}
+     */
+    public Stream<BulkFetchResult<R>> results()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(createResultIterator(), Spliterator.NONNULL),
+                false)
+            .onClose(this::cancel);
+    }
+
+    /**
+     * Publishes the results in completion order. The publisher supports a single subscriber, and cancelling the
+     * subscription cancels this execution.
+     *
+     * @throws IllegalStateException if the results were already consumed via this method or {@link #results()}
+     */
+    public Flow.Publisher<BulkFetchResult<R>> publisher()
+    {
+        return new IteratorPublisher<>(createResultIterator(), this::cancel, BlockingIo.EXECUTOR);
+    }
+
+    private ResultIterator createResultIterator()
+    {
+        Preconditions.checkState(resultsTaken.compareAndSet(false, true), "Results can only be consumed once");
+        return new ResultIterator();
+    }
+
+    /**
+     * Stops starting further requests and cancels the requests in flight. The aggregate future completes with a
+     * {@link CancellationException} unless it is already complete. Does nothing once all requests have completed, e.g.
+     * when a fully consumed {@link #results()} stream is closed.
+     */
+    public void cancel()
+    {
+        List<CompletableFuture<R>> toCancel;
+        synchronized (this)
+        {
+            if (ended)
+            {
+                // The aggregate future is about to be completed with the results
+                return;
+            }
+            stopped = true;
+            toCancel = new ArrayList<>(running.values());
+            pendingByHost.clear();
+        }
+
+        completion.completeExceptionally(new CancellationException("Bulk fetch was cancelled"));
+        // The requesters abort their exchanges once these futures are cancelled
+        toCancel.forEach(future -> future.cancel(false));
+        endIfIdle();
+    }
+
+    /**
+     * Starts requests while there is capacity. Requests completing synchronously (e.g. from a cache) trigger another
+     * round which is performed by the thread already scheduling instead of recursing.
+     */
+    void scheduleMore()
+    {
+        if (scheduleRequests.getAndIncrement() != 0)
+        {
+            return;
+        }
+
+        int missed = 1;
+        do
+        {
+            startAvailable();
+            missed = scheduleRequests.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    private void startAvailable()
+    {
+        List<Integer> toStart = new ArrayList<>();
+        synchronized (this)
+        {
+            while (!stopped && inFlight + countWaitingResults() < maxConcurrency)
+            {
+                Integer index = pollStartable();
+                if (index == null)
+                {
+                    break;
+                }
+
+                inFlight++;
+                inFlightByHost.merge(getHost(index), 1, Integer::sum);
+                toStart.add(index);
+            }
+        }
+
+        toStart.forEach(this::start);
+        endIfIdle();
+    }
+
+    private int countWaitingResults()
+    {
+        return consuming ? resultQueue.size() : 0;
+    }
+
+    private Integer pollStartable()
+    {
+        Iterator<Map.Entry<String, ArrayDeque<Integer>>> iterator = pendingByHost.entrySet()
+            .iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<String, ArrayDeque<Integer>> entry = iterator.next();
+            if (inFlightByHost.getOrDefault(entry.getKey(), 0) < perHostLimit)
+            {
+                Integer index = entry.getValue()
+                    .poll();
+                if (entry.getValue()
+                    .isEmpty())
+                {
+                    iterator.remove();
+                }
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private void start(int index)
+    {
+        CompletableFuture<R> future;
+        try
+        {
+            future = handles.get(index)
+                .fetch();
+        }
+        catch (RuntimeException e)
+        {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        synchronized (this)
+        {
+            if (!future.isDone())
+            {
+                running.put(index, future);
+            }
+        }
+
+        future.whenComplete((value, throwable) -> onComplete(index, value, throwable));
+    }
+
+    private void onComplete(int index, R value, Throwable throwable)
+    {
+        Throwable failure = unwrap(throwable);
+        var result = new BulkFetchResult<>(index, failure == null ? value : null, failure);
+
+        boolean failFast = false;
+        synchronized (this)
+        {
+            running.remove(index);
+            inFlight--;
+            inFlightByHost.merge(getHost(index), -1, Integer::sum);
+            finishedCount++;
+
+            if (failure == null)
+            {
+                values[index] = value;
+            }
+            else
+            {
+                failures.add(result);
+                if (errorMode == BulkFetch.ErrorMode.FAIL_FAST && !stopped)
+                {
+                    failFast = true;
+                }
+            }
+        }
+
+        resultQueue.add(result);
+
+        if (failFast)
+        {
+            completion.completeExceptionally(failure);
+            cancel();
+        }
+        else
+        {
+            scheduleMore();
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable)
+    {
+        if (throwable instanceof CompletionException && throwable.getCause() != null)
+        {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Ends the result stream and completes the aggregate future once no requests are in flight and no more will be
+     * started.
+     */
+    private void endIfIdle()
+    {
+        List<BulkFetchResult<?>> collectedFailures;
+        List<R> collectedValues;
+        synchronized (this)
+        {
+            if (ended || inFlight > 0 || !(stopped || pendingByHost.isEmpty()))
+            {
+                return;
+            }
+            ended = true;
+            collectedFailures = List.copyOf(failures);
+            collectedValues = finishedCount == handles.size() ? toValueList() : null;
+        }
+
+        resultQueue.add(END);
+
+        if (!collectedFailures.isEmpty())
+        {
+            String message = String.format("%d of %d requests failed", collectedFailures.size(), handles.size());
+            completion.completeExceptionally(new BulkFetchException(message, collectedFailures));
+        }
+        else if (collectedValues != null)
+        {
+            completion.complete(collectedValues);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<R> toValueList()
+    {
+        return Collections.unmodifiableList(Arrays.asList((R[]) values.clone()));
+    }
+
+    private final class ResultIterator implements Iterator<BulkFetchResult<R>>
+    {
+        private Object next;
+
+        ResultIterator()
+        {
+            consuming = true;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (next == null)
+            {
+                next = take();
+            }
+            return next != END;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public BulkFetchResult<R> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            var result = (BulkFetchResult<R>) next;
+            next = null;
+            return result;
+        }
+
+        private Object take()
+        {
+            Object result;
+            try
+            {
+                result = resultQueue.take();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread()
+                    .interrupt();
+                throw new CancellationException("Interrupted while waiting for the next result");
+            }
+
+            // Taking the result freed up capacity for another request
+            scheduleMore();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.bannmann.restflow;
+
+import lombok.Value;
+
+/**
+ * The outcome of a single request of a {@link BulkFetch}.
+ */
+@Value
+public class BulkFetchResult<R>
+{
+    /**
+     * The position of the request in the collection passed to {@link BulkFetch#of(java.util.Collection)}.
+     */
+    int index;
+
+    /**
+     * The result of the request, or {@code null} if it failed.
+     */
+    R value;
+
+    /**
+     * The reason the request failed, or {@code null} if it succeeded.
+     */
+    Throwable failure;
+
+    public boolean isSuccess()
+    {
+        return failure == null;
+    }
+}
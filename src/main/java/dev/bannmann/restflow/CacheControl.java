@@ -0,0 +1,76 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+
+import lombok.Value;
+
+/**
+ * The directives of a {@code Cache-Control} header that are relevant for a private cache.
+ */
+@Value
+class CacheControl
+{
+    private static final String HEADER_NAME = "Cache-Control";
+
+    boolean noStore;
+    boolean noCache;
+
+    /**
+     * The value of the {@code max-age} directive in seconds, or {@code -1} if absent or invalid.
+     */
+    long maxAgeSeconds;
+
+    public static CacheControl of(HttpHeaders headers)
+    {
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAgeSeconds = -1;
+
+        for (String value : headers.allValues(HEADER_NAME))
+        {
+            for (String directive : value.split(","))
+            {
+                String[] parts = directive.trim()
+                    .split("=", 2);
+                String name = parts[0].trim()
+                    .toLowerCase(Locale.ROOT);
+                switch (name)
+                {
+                    case "no-store":
+                        noStore = true;
+                        break;
+                    case "no-cache":
+                        noCache = true;
+                        break;
+                    case "max-age":
+                        maxAgeSeconds = parts.length == 2 ? parseSeconds(parts[1]) : -1;
+                        break;
+                    default:
+                        // Irrelevant for a private cache
+                        break;
+                }
+            }
+        }
+
+        return new CacheControl(noStore, noCache, maxAgeSeconds);
+    }
+
+    private static long parseSeconds(String value)
+    {
+        String trimmed = value.trim();
+        if (trimmed.startsWith("\"") && trimmed.endsWith("\"") && trimmed.length() >= 2)
+        {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+
+        try
+        {
+            return Long.parseLong(trimmed);
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import dev.bannmann.restflow.util.HttpRequests;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class CachedResponse
+{
+    /**
+     * Roughly accounts for the status line, headers and bookkeeping of an entry.
+     */
+    private static final int OVERHEAD_WEIGHT = 512;
+
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    @Getter
+    private final BufferedResponse response;
+
+    private final long expiresAtNanos;
+
+    /**
+     * Determines whether a response with the given headers may be stored. Responses which vary by request headers are
+     * only stored if the cache keys on all of these headers.
+     */
+    public static boolean isStorable(HttpHeaders headers)
+    {
+        if (CacheControl.of(headers)
+            .isNoStore())
+        {
+            return false;
+        }
+
+        if (!varyOnlyByKeyHeaders(headers))
+        {
+            return false;
+        }
+
+        return getFreshnessLifetime(headers).compareTo(Duration.ZERO) > 0 ||
+            headers.firstValue(ETAG)
+                .isPresent() ||
+            headers.firstValue(LAST_MODIFIED)
+                .isPresent();
+    }
+
+    /**
+     * @param responseNanos the {@link System#nanoTime()} at which the response was received
+     */
+    public static CachedResponse create(BufferedResponse response, long responseNanos)
+    {
+        HttpHeaders headers = response.headers();
+        Duration age = Duration.ofSeconds(headers.firstValueAsLong("Age")
+            .orElse(0));
+        Duration remaining = getFreshnessLifetime(headers).minus(age);
+        if (remaining.isNegative())
+        {
+            remaining = Duration.ZERO;
+        }
+
+        return new CachedResponse(response, responseNanos + remaining.toNanos());
+    }
+
+    private static boolean varyOnlyByKeyHeaders(HttpHeaders headers)
+    {
+        for (String value : headers.allValues("Vary"))
+        {
+            for (String name : value.split(","))
+            {
+                String field = name.trim()
+                    .toLowerCase(Locale.ROOT);
+                if (!field.isEmpty() && !ResponseCache.KEY_HEADERS.contains(field))
+                {
+                    // This includes "*", which means that the response varies by more than request headers
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Duration getFreshnessLifetime(HttpHeaders headers)
+    {
+        CacheControl cacheControl = CacheControl.of(headers);
+        if (cacheControl.isNoCache())
+        {
+            return Duration.ZERO;
+        }
+
+        if (cacheControl.getMaxAgeSeconds() >= 0)
+        {
+            return Duration.ofSeconds(cacheControl.getMaxAgeSeconds());
+        }
+
+        Optional<ZonedDateTime> expires = parseDate(headers, "Expires");
+        Optional<ZonedDateTime> date = parseDate(headers, "Date");
+        if (expires.isPresent() && date.isPresent())
+        {
+            return Duration.between(date.get(), expires.get());
+        }
+
+        return Duration.ZERO;
+    }
+
+    private static Optional<ZonedDateTime> parseDate(HttpHeaders headers, String name)
+    {
+        return headers.firstValue(name)
+            .flatMap(value -> {
+                try
+                {
+                    return Optional.of(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                }
+                catch (DateTimeParseException e)
+                {
+                    // An invalid date means "already expired" (RFC 9111 section 5.3)
+                    return Optional.empty();
+                }
+            });
+    }
+
+    public boolean isFresh()
+    {
+        return System.nanoTime() - expiresAtNanos < 0;
+    }
+
+    public int getWeight()
+    {
+        return response.getBody().length + OVERHEAD_WEIGHT;
+    }
+
+    /**
+     * Adds {@code If-None-Match} and {@code If-Modified-Since} headers based on the validators of this response.
+     *
+     * @return the original request if this response has no validators
+     */
+    public HttpRequest addValidators(HttpRequest request)
+    {
+        Optional<String> eTag = response.headers()
+            .firstValue(ETAG);
+        Optional<String> lastModified = response.headers()
+            .firstValue(LAST_MODIFIED);
+        if (eTag.isEmpty() && lastModified.isEmpty())
+        {
+            return request;
+        }
+
+        HttpRequest.Builder builder = HttpRequests.toBuilder(request);
+        eTag.ifPresent(value -> builder.setHeader("If-None-Match", value));
+        lastModified.ifPresent(value -> builder.setHeader("If-Modified-Since", value));
+        return builder.build();
+    }
+
+    /**
+     * Creates a new entry whose headers are updated with those of a {@code 304 Not Modified} response.
+     */
+    public CachedResponse refresh(HttpHeaders notModifiedHeaders)
+    {
+        Map<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(response.headers()
+            .map());
+        notModifiedHeaders.map()
+            .forEach((name, values) -> {
+                if (!name.equalsIgnoreCase("Content-Length"))
+                {
+                    merged.put(name, values);
+                }
+            });
+
+        var refreshed = new BufferedResponse(response.statusCode(),
+            HttpHeaders.of(merged, (name, value) -> true),
+            response.version(),
+            response.getBody());
+        return create(refreshed, System.nanoTime());
+    }
+}
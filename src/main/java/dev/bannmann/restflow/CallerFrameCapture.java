@@ -0,0 +1,134 @@
+package dev.bannmann.restflow;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Determines when restflow captures {@link ClientConfig#getCallerFrameCount() caller frames} for inclusion in
+ * exceptions. Capturing the frames of every request is the most helpful option, but also costs CPU time and
+ * allocations on every request, most of which will never fail.
+ */
+public abstract class CallerFrameCapture
+{
+    private static final CallerFrameCapture ALWAYS = new Always();
+
+    /**
+     * Captures the caller frames of every request. This is the default.
+     */
+    public static CallerFrameCapture always()
+    {
+        return ALWAYS;
+    }
+
+    /**
+     * Captures the caller frames of a random sample of requests. Exceptions of the remaining requests will not include
+     * caller frames.
+     *
+     * @param rate the average number of requests per captured request, e.g. {@code 100} to capture frames for one
+     * in a hundred requests
+     */
+    public static CallerFrameCapture sampled(int rate)
+    {
+        Preconditions.checkArgument(rate > 0, "rate must be positive");
+        return new Sampled(rate);
+    }
+
+    /**
+     * Captures the caller frames once per calling method and reuses them for subsequent requests from that method.
+     * This only requires a short stack walk to the first frame outside of restflow, but can be misleading if the
+     * method is reached via different code paths.
+     *
+     * @param maximumCallSites the number of call sites for which frames are kept
+     */
+    public static CallerFrameCapture perCallSite(int maximumCallSites)
+    {
+        Preconditions.checkArgument(maximumCallSites > 0, "maximumCallSites must be positive");
+        return new PerCallSite(maximumCallSites);
+    }
+
+    CallerFrameCapture()
+    {
+    }
+
+    /**
+     * @return the frames, or {@code null} if frames are not captured for the current request
+     */
+    abstract ImmutableList<StackWalker.StackFrame> capture(int count);
+
+    private static final class Always extends CallerFrameCapture
+    {
+        @Override
+        ImmutableList<StackWalker.StackFrame> capture(int count)
+        {
+            return CallerFrames.capture(count);
+        }
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Sampled extends CallerFrameCapture
+    {
+        private final int rate;
+
+        @Override
+        ImmutableList<StackWalker.StackFrame> capture(int count)
+        {
+            if (ThreadLocalRandom.current()
+                .nextInt(rate) != 0)
+            {
+                return null;
+            }
+            return CallerFrames.capture(count);
+        }
+    }
+
+    private static final class PerCallSite extends CallerFrameCapture
+    {
+        @Value
+        private static class CallSite
+        {
+            String className;
+            String methodName;
+            int byteCodeIndex;
+            int count;
+        }
+
+        private final Cache<CallSite, ImmutableList<StackWalker.StackFrame>> cache;
+
+        private PerCallSite(int maximumCallSites)
+        {
+            cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumCallSites)
+                .build();
+        }
+
+        @Override
+        ImmutableList<StackWalker.StackFrame> capture(int count)
+        {
+            StackWalker.StackFrame frame = CallerFrames.findCallSite();
+            if (frame == null)
+            {
+                return ImmutableList.of();
+            }
+
+            var callSite = new CallSite(frame.getClassName(), frame.getMethodName(), frame.getByteCodeIndex(), count);
+            try
+            {
+                return cache.get(callSite, () -> CallerFrames.capture(count));
+            }
+            catch (ExecutionException e)
+            {
+                // Capturing frames does not throw checked exceptions
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.bannmann.restflow;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import lombok.experimental.UtilityClass;
+
+import com.google.common.collect.ImmutableList;
+
+@UtilityClass
+class CallerFrames
+{
+    private final String PACKAGE_NAME = CallerFrames.class.getPackageName();
+
+    /**
+     * Captures the frames of the code that invoked restflow, skipping all frames inside restflow itself.
+     */
+    public ImmutableList<StackWalker.StackFrame> capture(int count)
+    {
+        var stackWalker = StackWalker.getInstance(Collections.emptySet(), count);
+        return stackWalker.walk(stream -> capture(count, stream));
+    }
+
+    /**
+     * Returns the frame of the code that invoked restflow, or {@code null} if there is no such frame.
+     */
+    public StackWalker.StackFrame findCallSite()
+    {
+        return StackWalker.getInstance()
+            .walk(stream -> stream.dropWhile(CallerFrames::isInternal)
+                .findFirst()
+                .orElse(null));
+    }
+
+    private boolean isInternal(StackWalker.StackFrame stackFrame)
+    {
+        return stackFrame.getClassName()
+            .startsWith(PACKAGE_NAME);
+    }
+
+    private ImmutableList<StackWalker.StackFrame> capture(int count, Stream<StackWalker.StackFrame> stream)
+    {
+        return stream.dropWhile(CallerFrames::isInternal)
+            .limit(count)
+            .collect(ImmutableList.toImmutableList());
+    }
+}
@@ -0,0 +1,33 @@
+package dev.bannmann.restflow;
+
+import java.io.Serializable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The beginning of a response body, kept for diagnostic purposes. To protect against huge error pages, at most
+ * {@link ClientConfig#getMaxErrorBodyBytes()} bytes are captured; the remainder is read and discarded. <br>
+ * <br>
+ * Instances are serializable so that exceptions carrying them can be serialized as well.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class CapturedBody implements Serializable
+{
+    /**
+     * The captured part of the body, decoded as UTF-8.
+     */
+    String text;
+
+    /**
+     * The length of the complete body in bytes.
+     */
+    long totalLength;
+
+    /**
+     * Whether {@link #getText()} contains only a prefix of the body.
+     */
+    boolean truncated;
+}
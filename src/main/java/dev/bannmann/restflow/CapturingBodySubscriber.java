@@ -0,0 +1,68 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the first bytes of a response body and discards the rest while counting its length.
+ */
+@RequiredArgsConstructor
+final class CapturingBodySubscriber implements HttpResponse.BodySubscriber<CapturedBody>
+{
+    private final CompletableFuture<CapturedBody> result = new CompletableFuture<>();
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private final int maxBytes;
+
+    private long totalLength;
+
+    @Override
+    public CompletionStage<CapturedBody> getBody()
+    {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items)
+    {
+        for (ByteBuffer item : items)
+        {
+            int length = item.remaining();
+            totalLength += length;
+
+            int capturedLength = Math.min(length, maxBytes - captured.size());
+            if (capturedLength > 0)
+            {
+                byte[] bytes = new byte[capturedLength];
+                item.get(bytes);
+                captured.writeBytes(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        String text = captured.toString(StandardCharsets.UTF_8);
+        result.complete(new CapturedBody(text, totalLength, totalLength > captured.size()));
+    }
+}
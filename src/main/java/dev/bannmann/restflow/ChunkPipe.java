@@ -0,0 +1,234 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects a writing thread with a reading thread via a bounded number of fixed-size chunks. In contrast to
+ * {@link java.io.PipedInputStream}, a failure of the writer is reported to the reader instead of appearing as a
+ * regular end of stream.
+ */
+final class ChunkPipe
+{
+    private static final byte[] END = new byte[0];
+
+    /**
+     * Guards against leaking the writing thread if the reader abandons the pipe without closing it.
+     */
+    private static final long WRITE_TIMEOUT_MINUTES = 5;
+
+    private final BlockingQueue<byte[]> chunks;
+    private final int chunkSize;
+
+    private volatile Throwable failure;
+    private volatile boolean readerClosed;
+
+    public ChunkPipe(int chunkSize, int chunkCount)
+    {
+        this.chunks = new ArrayBlockingQueue<>(chunkCount);
+        this.chunkSize = chunkSize;
+    }
+
+    public OutputStream outputStream()
+    {
+        return new ChunkOutputStream();
+    }
+
+    public InputStream inputStream()
+    {
+        return new ChunkInputStream();
+    }
+
+    /**
+     * Signals the reader that all data has been written. Closing the output stream alone does not end the pipe, so a
+     * library closing the stream while failing cannot make the reader accept truncated data.
+     */
+    public void complete() throws IOException
+    {
+        put(END);
+    }
+
+    /**
+     * Terminates the pipe with the given failure, which the reader receives as the cause of an {@link IOException}.
+     */
+    public void fail(Throwable cause)
+    {
+        failure = cause;
+        chunks.clear();
+        chunks.offer(END);
+    }
+
+    private void put(byte[] chunk) throws IOException
+    {
+        if (readerClosed)
+        {
+            throw new IOException("Pipe was closed by reader");
+        }
+
+        try
+        {
+            if (!chunks.offer(chunk, WRITE_TIMEOUT_MINUTES, TimeUnit.MINUTES))
+            {
+                throw new IOException("Timed out waiting for reader");
+            }
+            if (readerClosed)
+            {
+                // Closing the reader freed the space the chunk was waiting for
+                chunks.clear();
+                throw new IOException("Pipe was closed by reader");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread()
+                .interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for reader");
+        }
+    }
+
+    private final class ChunkOutputStream extends OutputStream
+    {
+        private byte[] buffer = new byte[chunkSize];
+        private int position;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            buffer[position++] = (byte) b;
+            if (position == buffer.length)
+            {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException
+        {
+            while (length > 0)
+            {
+                int count = Math.min(length, buffer.length - position);
+                System.arraycopy(bytes, offset, buffer, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+
+                if (position == buffer.length)
+                {
+                    sendBuffer();
+                }
+            }
+        }
+
+        private void sendBuffer() throws IOException
+        {
+            put(buffer);
+            buffer = new byte[chunkSize];
+            position = 0;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+
+            if (position > 0)
+            {
+                byte[] remainder = new byte[position];
+                System.arraycopy(buffer, 0, remainder, 0, position);
+                put(remainder);
+            }
+        }
+    }
+
+    private final class ChunkInputStream extends InputStream
+    {
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException
+        {
+            if (!ensureAvailable())
+            {
+                return -1;
+            }
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            if (length == 0)
+            {
+                return 0;
+            }
+            if (!ensureAvailable())
+            {
+                return -1;
+            }
+
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean ensureAvailable() throws IOException
+        {
+            while (position == current.length)
+            {
+                if (ended)
+                {
+                    return false;
+                }
+
+                byte[] next = take();
+                if (next == END)
+                {
+                    ended = true;
+                    if (failure != null)
+                    {
+                        throw new IOException("Writing to pipe failed", failure);
+                    }
+                    return false;
+                }
+
+                current = next;
+                position = 0;
+            }
+            return true;
+        }
+
+        private byte[] take() throws IOException
+        {
+            try
+            {
+                return chunks.take();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread()
+                    .interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for writer");
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            readerClosed = true;
+            chunks.clear();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package dev.bannmann.restflow;
 
 import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -34,6 +35,22 @@ public final class ClientConfig
     @Singular
     private final List<RequestCustomizer> requestCustomizers;
 
+    /**
+     * Codecs for media types other than JSON, in order of preference. If none are registered, all objects are
+     * converted with {@link #getJsonb() JSON-B}.
+     *
+     * @see BodyCodec
+     */
+    @Singular
+    private final List<BodyCodec> bodyCodecs;
+
+    /**
+     * The codec used to serialize objects sent as request bodies, or {@code null} to use {@link #getJsonb() JSON-B}.
+     * This is independent of the {@link #getBodyCodecs() body codecs}, as servers that send responses in a format do
+     * not necessarily accept requests in it.
+     */
+    private final BodyCodec requestBodyCodec;
+
     /**
      * The number of caller stack frames to capture when starting a request. The captured frames will be included in
      * any {@link RequestException} (or subclass) instance thrown by restflow. This is useful if the application is
@@ -43,4 +60,88 @@ public final class ClientConfig
      */
     @Builder.Default
     private final int callerFrameCount = 5;
+
+    /**
+     * Determines for which requests the {@link #getCallerFrameCount() caller frames} are captured. Defaults to
+     * {@link CallerFrameCapture#always()}.
+     */
+    @Builder.Default
+    private final @NonNull CallerFrameCapture callerFrameCapture = CallerFrameCapture.always();
+
+    /**
+     * The maximum number of bytes of a response body that are kept for diagnostic purposes when a request fails, e.g.
+     * for {@link InvalidResponseException#getCapturedBody()}. The remainder of streamed bodies is discarded.
+     */
+    @Builder.Default
+    private final int maxErrorBodyBytes = 64 * 1024;
+
+    /**
+     * The maximum number of characters of a response body that are included in exception messages.
+     */
+    @Builder.Default
+    private final int maxMessageBodyChars = 2000;
+
+    /**
+     * The maximum time from starting a request until its response is available, including all retries and other
+     * {@link #getPolicies() policies}, or {@code null} for no limit. Individual requests can override this via
+     * {@link FetchHandle#withTimeBudget(Duration)} or {@link FetchHandle#withDeadline(java.time.Instant)}. <br>
+     * <br>
+     * The timeout of each attempt is clamped to the remaining time, and no further attempt is made once the deadline
+     * has passed. If the deadline is exceeded, the request fails with a {@link DeadlineExceededException}.
+     */
+    private final Duration defaultTimeBudget;
+
+    /**
+     * The name of a header in which the time remaining until the deadline of a request is sent to the server, in
+     * milliseconds, or {@code null} to not send it. The header is only added to requests that have a deadline. As its
+     * value differs between requests, it usually prevents {@link #getRequestCoalescer() coalescing}.
+     */
+    private final String deadlineHeader;
+
+    /**
+     * Whether to deserialize JSON responses directly from the received bytes instead of decoding them to a
+     * {@link String} first. This avoids keeping the body in memory twice; the body text is only reconstructed if the
+     * conversion fails and an exception message needs to be created.
+     */
+    private final boolean binaryJsonDecoding;
+
+    /**
+     * The cache for responses to {@code GET} requests, or {@code null} to send every request to the server.
+     */
+    private final ResponseCache responseCache;
+
+    /**
+     * Lets concurrent identical requests with a safe method share a single exchange, or {@code null} to send each
+     * request on its own. Individual requests can opt out via {@link FetchHandle#withoutCoalescing()}.
+     */
+    private final RequestCoalescer requestCoalescer;
+
+    /**
+     * Compresses response and optionally request bodies, or {@code null} to transfer all bodies as they are.
+     */
+    private final Compression compression;
+
+    /**
+     * Limits the number of requests in flight per host, or {@code null} to send all requests immediately. The limiter
+     * applies to each individual attempt, so retries configured via {@link #getPolicies() policies} need a permit as
+     * well. Server-sent event streams are not limited.
+     */
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Sends a second copy of slow requests with safe methods, or {@code null} to disable hedging.
+     */
+    private final HedgingPolicy hedgingPolicy;
+
+    /**
+     * Receives timing events for each request, or {@code null} to disable such events. If no listener is set, no
+     * timestamps are taken and no additional objects are created while processing requests.
+     */
+    private final RequestListener requestListener;
+
+    /**
+     * Converts response bodies on a dedicated executor, or {@code null} to convert them on the thread that completed
+     * the exchange.
+     */
+    private final ConversionExecutor conversionExecutor;
 }
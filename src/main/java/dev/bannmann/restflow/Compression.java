@@ -0,0 +1,164 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Builder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * Reduces the amount of data transferred by compressing bodies. If this feature is enabled, clients ask the server for
+ * compressed responses via {@code Accept-Encoding}, and {@code gzip} or {@code deflate} encoded responses are
+ * decompressed while they arrive, before they are converted. <br>
+ * <br>
+ * Optionally, {@link StandardRestClient} also compresses request bodies with {@code gzip}. Only enable this if the
+ * server supports compressed request bodies, as there is no way to negotiate it.
+ */
+public final class Compression
+{
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+    static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final boolean requestBodyCompression;
+    private final int minimumRequestBodySize;
+    private final boolean unknownSizeCompression;
+
+    private final LongAdder compressedBytesReceived = new LongAdder();
+    private final LongAdder decompressedBytesReceived = new LongAdder();
+    private final LongAdder uncompressedBytesSent = new LongAdder();
+    private final LongAdder compressedBytesSent = new LongAdder();
+
+    /**
+     * @param requestBodyCompression whether to compress request bodies
+     * @param minimumRequestBodySize the size in bytes from which on request bodies are compressed; defaults to
+     * {@code 1024}
+     * @param unknownSizeCompression whether to compress request bodies whose size is not known in advance, e.g.
+     * serialized objects. As the {@code Content-Encoding} header is sent before the body is serialized, they cannot be
+     * compared to the minimum size, so they are only compressed if this is enabled.
+     */
+    @Builder
+    private Compression(boolean requestBodyCompression, int minimumRequestBodySize, boolean unknownSizeCompression)
+    {
+        Preconditions.checkArgument(minimumRequestBodySize >= 0, "minimumRequestBodySize must not be negative");
+
+        this.requestBodyCompression = requestBodyCompression;
+        this.minimumRequestBodySize = minimumRequestBodySize > 0 ? minimumRequestBodySize : 1024;
+        this.unknownSizeCompression = unknownSizeCompression;
+    }
+
+    /**
+     * Returns the number of compressed response body bytes received.
+     */
+    public long getCompressedBytesReceived()
+    {
+        return compressedBytesReceived.sum();
+    }
+
+    /**
+     * Returns the number of bytes that compressed response bodies were decompressed to.
+     */
+    public long getDecompressedBytesReceived()
+    {
+        return decompressedBytesReceived.sum();
+    }
+
+    /**
+     * Returns the number of request body bytes before compression.
+     */
+    public long getUncompressedBytesSent()
+    {
+        return uncompressedBytesSent.sum();
+    }
+
+    /**
+     * Returns the number of request body bytes after compression.
+     */
+    public long getCompressedBytesSent()
+    {
+        return compressedBytesSent.sum();
+    }
+
+    void recordReceived(long compressedLength, long decompressedLength)
+    {
+        compressedBytesReceived.add(compressedLength);
+        decompressedBytesReceived.add(decompressedLength);
+    }
+
+    /**
+     * Wraps the given handler so that it receives decompressed bodies if the response is compressed.
+     */
+    <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        return responseInfo -> {
+            HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+            String contentEncoding = responseInfo.headers()
+                .firstValue("Content-Encoding")
+                .orElse("")
+                .trim();
+            if (contentEncoding.equalsIgnoreCase(GZIP) || contentEncoding.equalsIgnoreCase("x-gzip"))
+            {
+                return new DecompressingBodySubscriber<>(subscriber, DecompressingBodySubscriber.Format.GZIP, this);
+            }
+            if (contentEncoding.equalsIgnoreCase("deflate"))
+            {
+                return new DecompressingBodySubscriber<>(subscriber, DecompressingBodySubscriber.Format.DEFLATE, this);
+            }
+            return subscriber;
+        };
+    }
+
+    /**
+     * @param contentLength the length of the body, or {@code -1} if it is unknown
+     */
+    boolean shouldCompress(long contentLength)
+    {
+        if (contentLength < 0)
+        {
+            return requestBodyCompression && unknownSizeCompression;
+        }
+        return requestBodyCompression && contentLength >= minimumRequestBodySize;
+    }
+
+    SerializingBodyPublisher.BodyWriter compressing(SerializingBodyPublisher.BodyWriter bodyWriter)
+    {
+        return outputStream -> {
+            var compressedStream = new CountingOutputStream(outputStream);
+            var gzipStream = new GZIPOutputStream(compressedStream, BUFFER_SIZE);
+            var uncompressedStream = new CountingOutputStream(gzipStream);
+            bodyWriter.writeTo(uncompressedStream);
+
+            // Does nothing if the body writer already closed the stream
+            gzipStream.finish();
+            recordSent(uncompressedStream.getCount(), compressedStream.getCount());
+        };
+    }
+
+    byte[] compress(byte[] body)
+    {
+        var result = new ByteArrayOutputStream(body.length / 4);
+        try (var gzipStream = new GZIPOutputStream(result, BUFFER_SIZE))
+        {
+            gzipStream.write(body);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        recordSent(body.length, result.size());
+        return result.toByteArray();
+    }
+
+    private void recordSent(long uncompressedLength, long compressedLength)
+    {
+        uncompressedBytesSent.add(uncompressedLength);
+        compressedBytesSent.add(compressedLength);
+    }
+}
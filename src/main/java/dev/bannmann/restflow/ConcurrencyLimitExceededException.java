@@ -0,0 +1,27 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request was not sent because the {@link AdaptiveConcurrencyLimiter} did not grant a permit in time.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RequestException
+{
+    private final HttpRequest request;
+
+    public ConcurrencyLimitExceededException(
+        HttpRequest request,
+        String message,
+        Throwable cause,
+        Map<String, Object> diagnosticsData,
+        List<StackWalker.StackFrame> callerFrames)
+    {
+        super(message, cause, diagnosticsData, callerFrames);
+        this.request = request;
+    }
+}
@@ -0,0 +1,143 @@
+package dev.bannmann.restflow;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Runs the conversion of response bodies (e.g. JSON-B deserialization) on a dedicated executor instead of the
+ * {@link java.net.http.HttpClient HttpClient} thread that completed the exchange. This keeps the client's threads
+ * available for I/O when large responses are converted. <br>
+ * <br>
+ * Small responses are cheaper to convert than to hand over to another thread. Therefore, responses with a
+ * {@code Content-Length} below the {@code inlineThreshold} are converted inline. Streaming response types are always
+ * converted inline, as their conversion only wraps the stream. <br>
+ * <br>
+ * Requests sent with the blocking methods (e.g. {@link FetchHandle#fetchBlocking()}) always convert the response on
+ * the calling thread.
+ */
+public final class ConversionExecutor
+{
+    private final Executor executor;
+    private final long inlineThreshold;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder inlineCount = new LongAdder();
+    private final LongAdder offloadedCount = new LongAdder();
+    private final LongAdder offloadedConversionNanos = new LongAdder();
+
+    /**
+     * @param executor the executor to run conversions on
+     * @param inlineThreshold the {@code Content-Length} in bytes below which responses are converted inline; defaults
+     * to {@code 0}, i.e. all responses with a body of known or unknown length are converted on the executor
+     */
+    @Builder
+    private ConversionExecutor(@NonNull Executor executor, long inlineThreshold)
+    {
+        Preconditions.checkArgument(inlineThreshold >= 0, "inlineThreshold must not be negative");
+        this.executor = executor;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    /**
+     * Returns the number of conversions that were submitted to the executor, but have not started yet.
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the number of responses that were converted inline.
+     */
+    public long getInlineCount()
+    {
+        return inlineCount.sum();
+    }
+
+    /**
+     * Returns the number of responses that were converted on the executor.
+     */
+    public long getOffloadedCount()
+    {
+        return offloadedCount.sum();
+    }
+
+    /**
+     * Returns the total time spent converting responses on the executor, excluding the time spent in the queue.
+     */
+    public Duration getOffloadedConversionTime()
+    {
+        return Duration.ofNanos(offloadedConversionNanos.sum());
+    }
+
+    /**
+     * @throws RejectedExecutionException if the executor does not accept the conversion
+     */
+    <B, R> CompletableFuture<R> convert(HttpResponse<B> response, Function<HttpResponse<B>, R> conversion)
+    {
+        if (isInline(response))
+        {
+            inlineCount.increment();
+            try
+            {
+                return CompletableFuture.completedFuture(conversion.apply(response));
+            }
+            catch (RuntimeException e)
+            {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        queueDepth.incrementAndGet();
+        try
+        {
+            return CompletableFuture.supplyAsync(() -> convertOffloaded(response, conversion), executor);
+        }
+        catch (RejectedExecutionException e)
+        {
+            queueDepth.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isInline(HttpResponse<?> response)
+    {
+        Object body = response.body();
+        if (body == null || body instanceof InputStream)
+        {
+            return true;
+        }
+
+        OptionalLong contentLength = response.headers()
+            .firstValueAsLong("Content-Length");
+        return contentLength.isPresent() && contentLength.getAsLong() < inlineThreshold;
+    }
+
+    private <B, R> R convertOffloaded(HttpResponse<B> response, Function<HttpResponse<B>, R> conversion)
+    {
+        queueDepth.decrementAndGet();
+        long startNanos = System.nanoTime();
+        try
+        {
+            return conversion.apply(response);
+        }
+        finally
+        {
+            offloadedConversionNanos.add(System.nanoTime() - startNanos);
+            offloadedCount.increment();
+        }
+    }
+}
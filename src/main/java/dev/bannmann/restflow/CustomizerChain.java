@@ -0,0 +1,48 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpRequest;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Immutable list of request customizers which shares its elements with the chain it was derived from, so adding a
+ * customizer does not copy the existing ones.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class CustomizerChain
+{
+    private static final CustomizerChain EMPTY = new CustomizerChain(null, null);
+
+    private final CustomizerChain previous;
+    private final RequestCustomizer customizer;
+
+    public static CustomizerChain empty()
+    {
+        return EMPTY;
+    }
+
+    public CustomizerChain append(RequestCustomizer requestCustomizer)
+    {
+        return new CustomizerChain(this, requestCustomizer);
+    }
+
+    public boolean isEmpty()
+    {
+        return this == EMPTY;
+    }
+
+    /**
+     * Invokes all customizers in the order they were appended.
+     */
+    public void applyTo(HttpRequest.Builder builder)
+    {
+        if (isEmpty())
+        {
+            return;
+        }
+
+        previous.applyTo(builder);
+        customizer.customize(builder);
+    }
+}
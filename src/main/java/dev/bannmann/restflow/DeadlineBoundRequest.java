@@ -0,0 +1,87 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * A view of a request for a single attempt whose timeout is clamped to the time remaining until the deadline of the
+ * request. Optionally, the remaining time is announced to the server in a header.
+ */
+final class DeadlineBoundRequest extends HttpRequest
+{
+    private final HttpRequest delegate;
+    private final Duration timeout;
+    private final HttpHeaders headers;
+
+    /**
+     * @param remainingTime the positive time until the deadline
+     * @param headerName the name of the header for the remaining time in milliseconds, or {@code null} to not add one
+     */
+    public DeadlineBoundRequest(HttpRequest delegate, Duration remainingTime, String headerName)
+    {
+        this.delegate = delegate;
+        this.timeout = delegate.timeout()
+            .filter(requestTimeout -> requestTimeout.compareTo(remainingTime) < 0)
+            .orElse(remainingTime);
+        this.headers = headerName != null
+            ? addHeader(delegate.headers(), headerName, String.valueOf(remainingTime.toMillis()))
+            : delegate.headers();
+    }
+
+    private static HttpHeaders addHeader(HttpHeaders headers, String name, String value)
+    {
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers.map());
+        map.put(name, List.of(value));
+        return HttpHeaders.of(map, (headerName, headerValue) -> true);
+    }
+
+    @Override
+    public Optional<BodyPublisher> bodyPublisher()
+    {
+        return delegate.bodyPublisher();
+    }
+
+    @Override
+    public String method()
+    {
+        return delegate.method();
+    }
+
+    @Override
+    public Optional<Duration> timeout()
+    {
+        return Optional.of(timeout);
+    }
+
+    @Override
+    public boolean expectContinue()
+    {
+        return delegate.expectContinue();
+    }
+
+    @Override
+    public URI uri()
+    {
+        return delegate.uri();
+    }
+
+    @Override
+    public Optional<HttpClient.Version> version()
+    {
+        return delegate.version();
+    }
+
+    @Override
+    public HttpHeaders headers()
+    {
+        return headers;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request could not be completed before its deadline, regardless of whether the time was spent waiting
+ * for the server, between retries or in other {@link ClientConfig#getPolicies() policies}.
+ *
+ * @see FetchHandle#withDeadline(java.time.Instant)
+ * @see ClientConfig#getDefaultTimeBudget()
+ */
+@Getter
+public class DeadlineExceededException extends RequestException
+{
+    private final HttpRequest request;
+
+    public DeadlineExceededException(
+        HttpRequest request,
+        String message,
+        Throwable cause,
+        Map<String, Object> diagnosticsData,
+        List<StackWalker.StackFrame> callerFrames)
+    {
+        super(message, cause, diagnosticsData, callerFrames);
+        this.request = request;
+    }
+}
@@ -0,0 +1,384 @@
+package dev.bannmann.restflow;
+
+import java.io.EOFException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a {@code gzip} or {@code deflate} encoded body while it arrives and passes the decompressed bytes on to
+ * another subscriber. Each received list of buffers results in at most one list of decompressed buffers, so the demand
+ * of the other subscriber is passed through unchanged. <br>
+ * <br>
+ * For {@code deflate}, both the zlib format mandated by RFC 9110 and the raw format sent by some servers are
+ * supported. A {@code gzip} body may consist of several members, which are decompressed one after the other as
+ * specified by RFC 1952.
+ */
+final class DecompressingBodySubscriber<T> implements HttpResponse.BodySubscriber<T>
+{
+    enum Format
+    {
+        GZIP,
+        DEFLATE
+    }
+
+    private enum State
+    {
+        HEADER,
+        BODY,
+        TRAILER,
+
+        /**
+         * After a {@code gzip} member, which may be followed by another one.
+         */
+        MEMBER_END,
+        DONE
+    }
+
+    private static final int OUTPUT_CHUNK_SIZE = 16 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final int GZIP_MINIMUM_HEADER_LENGTH = 10;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int GZIP_FLAG_HEADER_CRC = 2;
+    private static final int GZIP_FLAG_EXTRA = 4;
+    private static final int GZIP_FLAG_NAME = 8;
+    private static final int GZIP_FLAG_COMMENT = 16;
+
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final Format format;
+    private final Compression compression;
+    private final CRC32 crc = new CRC32();
+
+    private Flow.Subscription subscription;
+    private Inflater inflater;
+    private State state = State.HEADER;
+    private boolean failed;
+
+    /**
+     * Bytes of a header or trailer which could not be parsed yet because the rest has not arrived.
+     */
+    private byte[] pending = EMPTY;
+
+    private long compressedLength;
+    private long decompressedLength;
+    private long memberLength;
+
+    public DecompressingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, Format format, Compression compression)
+    {
+        this.delegate = delegate;
+        this.format = format;
+        this.compression = compression;
+    }
+
+    @Override
+    public CompletionStage<T> getBody()
+    {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        this.subscription = subscription;
+        delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items)
+    {
+        if (failed)
+        {
+            return;
+        }
+
+        List<ByteBuffer> output = new ArrayList<>();
+        try
+        {
+            for (ByteBuffer item : items)
+            {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                compressedLength += bytes.length;
+                process(bytes, output);
+            }
+        }
+        catch (DataFormatException | ZipException e)
+        {
+            fail(e);
+            return;
+        }
+
+        if (output.isEmpty())
+        {
+            // The delegate's demand was not satisfied, so ask for more input on its behalf
+            subscription.request(1);
+        }
+        else
+        {
+            delegate.onNext(output);
+        }
+    }
+
+    private void process(byte[] input, List<ByteBuffer> output) throws DataFormatException, ZipException
+    {
+        byte[] data = pending.length == 0 ? input : concat(pending, input);
+        pending = EMPTY;
+
+        int offset = 0;
+        while (offset < data.length)
+        {
+            switch (state)
+            {
+                case HEADER:
+                    int headerLength = parseHeader(data, offset);
+                    if (headerLength < 0)
+                    {
+                        pending = Arrays.copyOfRange(data, offset, data.length);
+                        return;
+                    }
+                    offset += headerLength;
+                    state = State.BODY;
+                    break;
+
+                case BODY:
+                    inflater.setInput(data, offset, data.length - offset);
+                    inflate(output);
+                    offset = data.length - inflater.getRemaining();
+                    if (inflater.finished())
+                    {
+                        state = format == Format.GZIP ? State.TRAILER : State.DONE;
+                    }
+                    break;
+
+                case TRAILER:
+                    if (data.length - offset < GZIP_TRAILER_LENGTH)
+                    {
+                        pending = Arrays.copyOfRange(data, offset, data.length);
+                        return;
+                    }
+                    verifyTrailer(data, offset);
+                    offset += GZIP_TRAILER_LENGTH;
+                    state = State.MEMBER_END;
+                    break;
+
+                case MEMBER_END:
+                    if (data.length - offset < 2)
+                    {
+                        pending = Arrays.copyOfRange(data, offset, data.length);
+                        return;
+                    }
+                    if ((data[offset] & 0xFF) == 0x1F && (data[offset + 1] & 0xFF) == 0x8B)
+                    {
+                        crc.reset();
+                        memberLength = 0;
+                        state = State.HEADER;
+                    }
+                    else
+                    {
+                        state = State.DONE;
+                    }
+                    break;
+
+                default:
+                    // Ignore trailing garbage
+                    offset = data.length;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the length of the header, or {@code -1} if the header is incomplete
+     */
+    private int parseHeader(byte[] data, int offset) throws ZipException
+    {
+        if (format == Format.DEFLATE)
+        {
+            if (data.length - offset < 2)
+            {
+                return -1;
+            }
+
+            int cmf = data[offset] & 0xFF;
+            int flg = data[offset + 1] & 0xFF;
+            boolean zlib = (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+            inflater = new Inflater(!zlib);
+
+            // The zlib header is processed by the inflater
+            return 0;
+        }
+
+        if (data.length - offset < GZIP_MINIMUM_HEADER_LENGTH)
+        {
+            return -1;
+        }
+        if ((data[offset] & 0xFF) != 0x1F || (data[offset + 1] & 0xFF) != 0x8B || data[offset + 2] != 8)
+        {
+            throw new ZipException("Not in gzip format");
+        }
+
+        int flags = data[offset + 3] & 0xFF;
+        int position = offset + GZIP_MINIMUM_HEADER_LENGTH;
+        if ((flags & GZIP_FLAG_EXTRA) != 0)
+        {
+            if (data.length - position < 2)
+            {
+                return -1;
+            }
+            position += 2 + readUnsignedShort(data, position);
+        }
+        if ((flags & GZIP_FLAG_NAME) != 0)
+        {
+            position = skipZeroTerminated(data, position);
+        }
+        if ((flags & GZIP_FLAG_COMMENT) != 0 && position >= 0)
+        {
+            position = skipZeroTerminated(data, position);
+        }
+        if ((flags & GZIP_FLAG_HEADER_CRC) != 0 && position >= 0)
+        {
+            position += 2;
+        }
+        if (position < 0 || position > data.length)
+        {
+            return -1;
+        }
+
+        if (inflater == null)
+        {
+            inflater = new Inflater(true);
+        }
+        else
+        {
+            // Another member follows the previous one
+            inflater.reset();
+        }
+        return position - offset;
+    }
+
+    /**
+     * @return the position after the terminating zero byte, or {@code -1} if it has not arrived yet
+     */
+    private static int skipZeroTerminated(byte[] data, int position)
+    {
+        for (int i = position; i < data.length; i++)
+        {
+            if (data[i] == 0)
+            {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void inflate(List<ByteBuffer> output) throws DataFormatException
+    {
+        byte[] chunk = new byte[OUTPUT_CHUNK_SIZE];
+        while (!inflater.finished() && !inflater.needsInput())
+        {
+            int length = inflater.inflate(chunk);
+            if (length > 0)
+            {
+                crc.update(chunk, 0, length);
+                decompressedLength += length;
+                memberLength += length;
+                output.add(ByteBuffer.wrap(chunk, 0, length));
+                chunk = new byte[OUTPUT_CHUNK_SIZE];
+            }
+            else if (inflater.needsDictionary())
+            {
+                throw new DataFormatException("Preset dictionaries are not supported");
+            }
+        }
+    }
+
+    private void verifyTrailer(byte[] data, int offset) throws ZipException
+    {
+        long expectedCrc = readUnsignedInt(data, offset);
+        long expectedLength = readUnsignedInt(data, offset + 4);
+        if (expectedCrc != crc.getValue())
+        {
+            throw new ZipException("Corrupt gzip trailer: CRC mismatch");
+        }
+        if (expectedLength != (memberLength & 0xFFFFFFFFL))
+        {
+            throw new ZipException("Corrupt gzip trailer: length mismatch");
+        }
+    }
+
+    private static int readUnsignedShort(byte[] data, int offset)
+    {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static long readUnsignedInt(byte[] data, int offset)
+    {
+        return readUnsignedShort(data, offset) | (long) readUnsignedShort(data, offset + 2) << 16;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second)
+    {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private void fail(Exception e)
+    {
+        failed = true;
+        subscription.cancel();
+        end();
+        delegate.onError(e);
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        if (failed)
+        {
+            return;
+        }
+
+        end();
+        delegate.onError(throwable);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        if (failed)
+        {
+            return;
+        }
+
+        boolean empty = state == State.HEADER && compressedLength == 0;
+        if (state != State.DONE && state != State.MEMBER_END && !empty)
+        {
+            failed = true;
+            end();
+            delegate.onError(new EOFException("Unexpected end of compressed body"));
+            return;
+        }
+
+        end();
+        compression.recordReceived(compressedLength, decompressedLength);
+        delegate.onComplete();
+    }
+
+    private void end()
+    {
+        if (inflater != null)
+        {
+            inflater.end();
+        }
+    }
+}
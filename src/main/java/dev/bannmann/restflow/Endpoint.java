@@ -0,0 +1,181 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A resource URI template of a {@link StandardRestClient}, e.g. {@code users/{id}/orders{?page,size}}. The template
+ * is parsed and validated once, so sending requests to an endpoint is cheaper than passing resource paths to
+ * {@link StandardRestClient#get(String)} and its siblings. Instances are immutable and thread-safe. <br>
+ * <br>
+ * Templates support path variables ({@code {id}}) as well as query variables ({@code {?page,size}} or, after a
+ * literal query, {@code {&sort}}). Variable values are converted with {@link Object#toString()} and percent-encoded.
+ * Query variables without a value are omitted. <br>
+ * <br>
+ * Like resource paths, templates are relative to the base URI of the client unless they start with {@code /}, in
+ * which case they replace the path of the base URI.
+ *
+ * @see StandardRestClient#endpoint(String)
+ * @see RequestBodyHandle#to(Endpoint, Map)
+ */
+public final class Endpoint
+{
+    @Value
+    private static class BodyType
+    {
+        String contentType;
+        String contentEncoding;
+    }
+
+    private final ClientConfig clientConfig;
+    private final HttpRequest prototype;
+    private final UriTemplate uriTemplate;
+    private final String uriPrefix;
+    private final ConcurrentMap<BodyType, HttpHeaders> headersByBodyType = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    Endpoint(ClientConfig clientConfig, HttpRequest prototype, String template)
+    {
+        this.clientConfig = clientConfig;
+        this.prototype = prototype;
+        this.uriTemplate = new UriTemplate(template);
+        this.uriPrefix = obtainUriPrefix(prototype.uri(), template);
+
+        validate();
+    }
+
+    private static String obtainUriPrefix(URI baseUri, String template)
+    {
+        if (template.startsWith("/"))
+        {
+            return baseUri.getScheme() + "://" + baseUri.getRawAuthority();
+        }
+
+        String spec = baseUri.toString();
+        if (!spec.endsWith("/"))
+        {
+            // Ensure the last path segment is not overwritten, just like RequestTemplate does
+            spec = spec + "/";
+        }
+        return spec;
+    }
+
+    private void validate()
+    {
+        Map<String, String> sampleValues = new HashMap<>();
+        for (String name : uriTemplate.getVariableNames())
+        {
+            sampleValues.put(name, "x");
+        }
+
+        String sample = uriTemplate.expand(uriPrefix, sampleValues);
+        try
+        {
+            URI.create(sample);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid URI template " + uriTemplate.getTemplate(), e);
+        }
+    }
+
+    /**
+     * @return the names of all variables in the template, in order of appearance
+     */
+    public List<String> getVariableNames()
+    {
+        return uriTemplate.getVariableNames();
+    }
+
+    /**
+     * Expands the template.
+     *
+     * @throws IllegalArgumentException if a path variable has no value
+     */
+    public URI expand(@NonNull Map<String, ?> variables)
+    {
+        return URI.create(uriTemplate.expand(uriPrefix, variables));
+    }
+
+    /**
+     * Prepares a GET request to a template without variables.
+     */
+    public RequestHandle get()
+    {
+        return get(Map.of());
+    }
+
+    /**
+     * Prepares a GET request.
+     *
+     * @throws IllegalArgumentException if a path variable has no value
+     */
+    public RequestHandle get(@NonNull Map<String, ?> variables)
+    {
+        return new RequestHandle(createRequest("GET", variables), clientConfig);
+    }
+
+    /**
+     * Prepares a DELETE request to a template without variables.
+     */
+    public RequestHandle delete()
+    {
+        return delete(Map.of());
+    }
+
+    /**
+     * Prepares a DELETE request.
+     *
+     * @throws IllegalArgumentException if a path variable has no value
+     */
+    public RequestHandle delete(@NonNull Map<String, ?> variables)
+    {
+        return new RequestHandle(createRequest("DELETE", variables), clientConfig);
+    }
+
+    HttpRequest createRequest(String method, Map<String, ?> variables)
+    {
+        return new TemplatedRequest(prototype, prototype.headers(), method, Optional.empty(), expand(variables));
+    }
+
+    /**
+     * @param contentEncoding the encoding of the body, or {@code null} if it is not compressed
+     */
+    HttpRequest createUploadRequest(
+        String method,
+        String contentType,
+        String contentEncoding,
+        HttpRequest.BodyPublisher bodyPublisher,
+        Map<String, ?> variables)
+    {
+        HttpHeaders headers = headersByBodyType.computeIfAbsent(new BodyType(contentType, contentEncoding),
+            this::createHeaders);
+        return new TemplatedRequest(prototype, headers, method, Optional.of(bodyPublisher), expand(variables));
+    }
+
+    private HttpHeaders createHeaders(BodyType bodyType)
+    {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(prototype.headers()
+            .map());
+        headers.put("Content-Type", List.of(bodyType.getContentType()));
+        if (bodyType.getContentEncoding() != null)
+        {
+            headers.put("Content-Encoding", List.of(bodyType.getContentEncoding()));
+        }
+        return HttpHeaders.of(headers, (name, value) -> true);
+    }
+}
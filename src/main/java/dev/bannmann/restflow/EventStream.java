@@ -0,0 +1,107 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Receives server-sent events from a {@code text/event-stream} endpoint. Events are parsed as the body arrives without
+ * blocking a thread, so many streams can share the executor of the {@link java.net.http.HttpClient}. <br>
+ * <br>
+ * If the connection ends, the stream reconnects after the delay most recently sent by the server via {@code retry},
+ * passing the ID of the last event in the {@code Last-Event-ID} header. Failures to (re)connect are retried according
+ * to the {@link ClientConfig#getPolicies() policies}; once they give up, the subscriber receives the
+ * {@link RequestException}. As the policies only cover establishing the connection, a timeout among them does not
+ * limit how long the stream stays open. If the server responds with 204 (No Content), the subscriber is completed.
+ * <br>
+ * <br>
+ * Example:
+ * <pre>{@code
+ * client.get("notifications")
+ *     .returningEventsOf(Notification.class)
+ *     .publisher()
+ *     .subscribe(subscriber);
+ * }</pre>
+ */
+@Builder(toBuilder = true, access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EventStream<T>
+{
+    static final String MEDIA_TYPE = "text/event-stream";
+
+    private static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(3);
+
+    /**
+     * Opens a connection whose response body is received with the given handler. The returned future completes once
+     * the response headers were received; the end of the connection is signalled to the body subscriber.
+     */
+    @FunctionalInterface
+    interface Connector
+    {
+        CompletableFuture<?> connect(String lastEventId, HttpResponse.BodyHandler<Void> bodyHandler);
+    }
+
+    static <T> EventStream<T> of(Connector connector, Function<String, T> dataBinder)
+    {
+        return EventStream.<T>builder()
+            .connector(connector)
+            .dataBinder(dataBinder)
+            .reconnectDelay(DEFAULT_RECONNECT_DELAY)
+            .build();
+    }
+
+    private final Connector connector;
+    private final Function<String, T> dataBinder;
+    private final String lastEventId;
+    private final Duration reconnectDelay;
+
+    /**
+     * Resumes a stream received earlier by sending the given ID in the {@code Last-Event-ID} header of the first
+     * connection.
+     */
+    public EventStream<T> resumingAfter(@NonNull String lastEventId)
+    {
+        return toBuilder().lastEventId(lastEventId)
+            .build();
+    }
+
+    /**
+     * Sets the delay before reconnecting that applies until the server sends a {@code retry} field. Defaults to 3
+     * seconds.
+     */
+    public EventStream<T> reconnectDelay(@NonNull Duration reconnectDelay)
+    {
+        Preconditions.checkArgument(!reconnectDelay.isNegative(), "reconnectDelay must not be negative");
+        return toBuilder().reconnectDelay(reconnectDelay)
+            .build();
+    }
+
+    /**
+     * Returns a publisher of the events. Each subscriber receives the events of its own connection, which is opened
+     * when it subscribes and closed when it cancels its subscription. <br>
+     * <br>
+     * The body is only read while the subscriber has outstanding demand. Failures to bind the data of an event are
+     * signalled to the subscriber, which ends the stream.
+     */
+    public Flow.Publisher<ServerSentEvent<T>> publisher()
+    {
+        return subscriber -> {
+            var subscription = new EventStreamSubscription<>(subscriber,
+                connector,
+                dataBinder,
+                lastEventId,
+                reconnectDelay.toMillis());
+            subscriber.onSubscribe(subscription);
+            subscription.connect();
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Receives the body of a single connection of an {@link EventStream} and passes the parsed events to the
+ * {@link EventStreamSubscription}. Buffers are requested one at a time, and only when the subscription asks for more.
+ * <br>
+ * <br>
+ * The body completes as soon as the connection is established, so that the exchange covered by the
+ * {@link ClientConfig#getPolicies() policies} ends there. The end of the connection is signalled separately via
+ * {@link #getEnd()}. As the response headers have already arrived at that point, it always completes normally, so that
+ * the subscription reconnects even if the connection broke before the first event, e.g. when the server only sent
+ * keep-alive comments.
+ */
+final class EventStreamBodySubscriber implements HttpResponse.BodySubscriber<Void>
+{
+    private final EventStreamSubscription<?> owner;
+    private final EventStreamParser parser;
+    private final CompletableFuture<Void> body = new CompletableFuture<>();
+    private final CompletableFuture<Void> end = new CompletableFuture<>();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean closed;
+
+    public EventStreamBodySubscriber(EventStreamSubscription<?> owner, EventStreamParser parser)
+    {
+        this.owner = owner;
+        this.parser = parser;
+    }
+
+    @Override
+    public CompletionStage<Void> getBody()
+    {
+        return body;
+    }
+
+    /**
+     * Returns a future that completes when the connection has ended.
+     */
+    CompletableFuture<Void> getEnd()
+    {
+        return end;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        this.subscription = subscription;
+        body.complete(null);
+        if (closed)
+        {
+            subscription.cancel();
+            return;
+        }
+        owner.drain();
+    }
+
+    /**
+     * Requests the next buffers unless a request is already outstanding.
+     */
+    void requestMore()
+    {
+        Flow.Subscription current = subscription;
+        if (current != null && !closed && requested.compareAndSet(false, true))
+        {
+            current.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items)
+    {
+        requested.set(false);
+        if (closed)
+        {
+            return;
+        }
+
+        try
+        {
+            for (ByteBuffer item : items)
+            {
+                parser.parse(item);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            owner.fail(e);
+            return;
+        }
+
+        owner.onLastEventId(parser.getLastEventId());
+        owner.drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        // If the body is still pending, the connection was not established and the exchange fails
+        body.completeExceptionally(throwable);
+        end.complete(null);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        body.complete(null);
+        end.complete(null);
+    }
+
+    /**
+     * Closes the connection and completes both the body and its end, e.g. because the subscriber cancelled.
+     */
+    void close()
+    {
+        closed = true;
+        Flow.Subscription current = subscription;
+        if (current != null)
+        {
+            current.cancel();
+        }
+        body.complete(null);
+        end.complete(null);
+    }
+}
@@ -0,0 +1,193 @@
+package dev.bannmann.restflow;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses a {@code text/event-stream} body incrementally as specified by the HTML Living Standard. Lines are split on
+ * the raw bytes and only decoded once they are complete, so multi-byte characters may span buffers. <br>
+ * <br>
+ * An instance handles a single connection; an event that is incomplete when the connection ends is discarded. Lines
+ * longer than {@value #MAX_LINE_BYTES} bytes fail the stream, as a server that never sends a line break would
+ * otherwise exhaust the memory.
+ */
+final class EventStreamParser
+{
+    interface Listener
+    {
+        void onEvent(String id, String type, String data);
+
+        void onRetry(long retryMillis);
+    }
+
+    private static final String DEFAULT_TYPE = "message";
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private final Listener listener;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private boolean afterCarriageReturn;
+    private boolean firstLine = true;
+
+    private final StringBuilder data = new StringBuilder();
+    private String type;
+    private String idBuffer;
+    private String lastEventId;
+
+    /**
+     * @param lastEventId the ID of the last event received on a previous connection, or {@code null} if there is none
+     */
+    public EventStreamParser(Listener listener, String lastEventId)
+    {
+        this.listener = listener;
+        this.idBuffer = lastEventId;
+        this.lastEventId = lastEventId;
+    }
+
+    /**
+     * Returns the ID of the last complete event, which is sent in the {@code Last-Event-ID} header when reconnecting.
+     */
+    public String getLastEventId()
+    {
+        return lastEventId;
+    }
+
+    public void parse(ByteBuffer buffer)
+    {
+        while (buffer.hasRemaining())
+        {
+            byte b = buffer.get();
+            if (afterCarriageReturn)
+            {
+                afterCarriageReturn = false;
+                if (b == '\n')
+                {
+                    // The line was already processed when the CR arrived
+                    continue;
+                }
+            }
+
+            if (b == '\r')
+            {
+                afterCarriageReturn = true;
+                processLine();
+            }
+            else if (b == '\n')
+            {
+                processLine();
+            }
+            else
+            {
+                append(b);
+            }
+        }
+    }
+
+    private void append(byte b)
+    {
+        if (lineLength == line.length)
+        {
+            if (lineLength == MAX_LINE_BYTES)
+            {
+                throw new IllegalStateException("Event stream line exceeds " + MAX_LINE_BYTES + " bytes");
+            }
+            line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_BYTES));
+        }
+        line[lineLength++] = b;
+    }
+
+    private void processLine()
+    {
+        String text = new String(line, 0, lineLength, StandardCharsets.UTF_8);
+        lineLength = 0;
+
+        if (firstLine)
+        {
+            firstLine = false;
+            if (!text.isEmpty() && text.charAt(0) == BYTE_ORDER_MARK)
+            {
+                text = text.substring(1);
+            }
+        }
+
+        if (text.isEmpty())
+        {
+            dispatch();
+            return;
+        }
+        if (text.charAt(0) == ':')
+        {
+            // Comment, e.g. a keep-alive sent by the server
+            return;
+        }
+
+        int colon = text.indexOf(':');
+        String field = colon < 0 ? text : text.substring(0, colon);
+        String value = "";
+        if (colon >= 0)
+        {
+            int valueStart = colon + 1;
+            if (valueStart < text.length() && text.charAt(valueStart) == ' ')
+            {
+                valueStart++;
+            }
+            value = text.substring(valueStart);
+        }
+        processField(field, value);
+    }
+
+    private void processField(String field, String value)
+    {
+        switch (field)
+        {
+            case "event":
+                type = value;
+                break;
+            case "data":
+                data.append(value)
+                    .append('\n');
+                break;
+            case "id":
+                if (value.indexOf('\0') < 0)
+                {
+                    idBuffer = value;
+                }
+                break;
+            case "retry":
+                if (!value.isEmpty() &&
+                    value.length() <= 18 &&
+                    value.chars()
+                        .allMatch(c -> c >= '0' && c <= '9'))
+                {
+                    listener.onRetry(Long.parseLong(value));
+                }
+                break;
+            default:
+                // Unknown fields are ignored
+                break;
+        }
+    }
+
+    private void dispatch()
+    {
+        // The ID only takes effect once its event is complete, so a reconnect does not skip an incomplete event
+        lastEventId = idBuffer;
+        if (data.length() == 0)
+        {
+            type = null;
+            return;
+        }
+
+        // Remove the line feed appended after the last data line
+        data.setLength(data.length() - 1);
+        String eventType = type == null || type.isEmpty() ? DEFAULT_TYPE : type;
+        String eventData = data.toString();
+        data.setLength(0);
+        type = null;
+
+        listener.onEvent(lastEventId, eventType, eventData);
+    }
+}
@@ -0,0 +1,293 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Delivers the events of an {@link EventStream} to one subscriber, reconnecting as needed. Events are emitted by
+ * whichever thread calls {@link #drain()}, i.e. the thread receiving the body or the one requesting more events. <br>
+ * <br>
+ * More of the body is only requested from the current connection when all parsed events have been delivered and the
+ * subscriber has outstanding demand.
+ */
+final class EventStreamSubscription<T> implements Flow.Subscription, EventStreamParser.Listener
+{
+    private final Flow.Subscriber<? super ServerSentEvent<T>> subscriber;
+    private final EventStream.Connector connector;
+    private final Function<String, T> dataBinder;
+
+    private final Queue<ServerSentEvent<T>> events = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger workInProgress = new AtomicInteger();
+
+    private volatile String lastEventId;
+    private volatile long reconnectDelayMillis;
+    private volatile EventStreamBodySubscriber connection;
+
+    /**
+     * Whether the server ended the stream by responding with 204 (No Content).
+     */
+    private volatile boolean endedByServer;
+
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Throwable failure;
+    private boolean terminalSignalled;
+
+    public EventStreamSubscription(
+        Flow.Subscriber<? super ServerSentEvent<T>> subscriber,
+        EventStream.Connector connector,
+        Function<String, T> dataBinder,
+        String lastEventId,
+        long reconnectDelayMillis)
+    {
+        this.subscriber = subscriber;
+        this.connector = connector;
+        this.dataBinder = dataBinder;
+        this.lastEventId = lastEventId;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    public void connect()
+    {
+        if (done)
+        {
+            return;
+        }
+
+        try
+        {
+            connector.connect(lastEventId, this::createBodySubscriber)
+                .whenComplete((result, throwable) -> onConnected(throwable));
+        }
+        catch (RuntimeException e)
+        {
+            fail(e);
+        }
+    }
+
+    private HttpResponse.BodySubscriber<Void> createBodySubscriber(HttpResponse.ResponseInfo responseInfo)
+    {
+        if (responseInfo.statusCode() == 204)
+        {
+            endedByServer = true;
+            return HttpResponse.BodySubscribers.discarding();
+        }
+
+        String contentType = responseInfo.headers()
+            .firstValue("Content-Type")
+            .orElse("");
+        if (!contentType.toLowerCase(Locale.ROOT)
+            .startsWith(EventStream.MEDIA_TYPE))
+        {
+            fail(new IllegalStateException("Expected content type " + EventStream.MEDIA_TYPE + ", got " + contentType));
+            return HttpResponse.BodySubscribers.discarding();
+        }
+
+        var bodySubscriber = new EventStreamBodySubscriber(this, new EventStreamParser(this, lastEventId));
+        connection = bodySubscriber;
+        if (done)
+        {
+            // The subscription was cancelled while the connection was being established
+            bodySubscriber.close();
+        }
+        return bodySubscriber;
+    }
+
+    private void onConnected(Throwable throwable)
+    {
+        EventStreamBodySubscriber current = connection;
+        if (throwable != null || current == null)
+        {
+            // Either the connection failed, or the body was discarded and has already ended
+            onConnectionEnded(throwable);
+            return;
+        }
+
+        current.getEnd()
+            .whenComplete((result, endThrowable) -> onConnectionEnded(endThrowable));
+    }
+
+    private void onConnectionEnded(Throwable throwable)
+    {
+        connection = null;
+        if (done)
+        {
+            return;
+        }
+
+        if (throwable != null)
+        {
+            fail(throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable);
+        }
+        else if (endedByServer)
+        {
+            done = true;
+            drain();
+        }
+        else
+        {
+            CompletableFuture.delayedExecutor(reconnectDelayMillis, TimeUnit.MILLISECONDS)
+                .execute(this::connect);
+        }
+    }
+
+    @Override
+    public void onEvent(String id, String type, String data)
+    {
+        events.add(new ServerSentEvent<>(id, type, dataBinder.apply(data)));
+    }
+
+    @Override
+    public void onRetry(long retryMillis)
+    {
+        reconnectDelayMillis = retryMillis;
+    }
+
+    void onLastEventId(String lastEventId)
+    {
+        this.lastEventId = lastEventId;
+    }
+
+    @Override
+    public void request(long n)
+    {
+        if (n <= 0)
+        {
+            fail(new IllegalArgumentException("Requested non-positive number of events: " + n));
+            return;
+        }
+
+        long previous;
+        long next;
+        do
+        {
+            previous = demand.get();
+            next = previous + n;
+            if (next < 0)
+            {
+                next = Long.MAX_VALUE;
+            }
+        }
+        while (!demand.compareAndSet(previous, next));
+
+        drain();
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = true;
+        done = true;
+        closeConnection();
+    }
+
+    void fail(Throwable throwable)
+    {
+        if (done)
+        {
+            return;
+        }
+
+        failure = throwable;
+        done = true;
+        closeConnection();
+        drain();
+    }
+
+    private void closeConnection()
+    {
+        EventStreamBodySubscriber current = connection;
+        if (current != null)
+        {
+            current.close();
+        }
+    }
+
+    /**
+     * Emits parsed events while there is demand, then either signals termination or asks the connection for more of
+     * the body. Concurrent calls are merged into a single loop.
+     */
+    void drain()
+    {
+        if (workInProgress.getAndIncrement() != 0)
+        {
+            return;
+        }
+
+        int missed = 1;
+        do
+        {
+            if (cancelled || terminalSignalled)
+            {
+                events.clear();
+                return;
+            }
+
+            long requested = demand.get();
+            long emitted = 0;
+            while (emitted < requested && failure == null)
+            {
+                ServerSentEvent<T> event = events.poll();
+                if (event == null)
+                {
+                    break;
+                }
+                subscriber.onNext(event);
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE)
+            {
+                demand.addAndGet(-emitted);
+            }
+
+            // A failure is signalled right away, while completion waits until all events have been delivered
+            if (failure != null || done && events.isEmpty())
+            {
+                signalTermination();
+                return;
+            }
+
+            EventStreamBodySubscriber current = connection;
+            if (current != null && events.isEmpty() && demand.get() > 0)
+            {
+                current.requestMore();
+            }
+
+            missed = workInProgress.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    private void signalTermination()
+    {
+        terminalSignalled = true;
+        events.clear();
+        if (cancelled)
+        {
+            return;
+        }
+
+        // As fail() sets the failure before marking the subscription as done, it is visible here
+        Throwable currentFailure = failure;
+        if (currentFailure != null)
+        {
+            subscriber.onError(currentFailure);
+        }
+        else
+        {
+            subscriber.onComplete();
+        }
+    }
+}
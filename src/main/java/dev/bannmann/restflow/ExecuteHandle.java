@@ -1,5 +1,7 @@
 package dev.bannmann.restflow;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 
 import lombok.RequiredArgsConstructor;
@@ -14,9 +16,37 @@ public final class ExecuteHandle
         return new ExecuteHandle(requestSpecification.withCustomizer(requestCustomizer));
     }
 
+    /**
+     * @see FetchHandle#withDeadline(Instant)
+     */
+    public ExecuteHandle withDeadline(Instant deadline)
+    {
+        return new ExecuteHandle(requestSpecification.withDeadline(deadline));
+    }
+
+    /**
+     * @see FetchHandle#withTimeBudget(Duration)
+     */
+    public ExecuteHandle withTimeBudget(Duration timeBudget)
+    {
+        return new ExecuteHandle(requestSpecification.withTimeBudget(timeBudget));
+    }
+
     public CompletableFuture<Void> execute()
     {
         return RegularRequester.forSpec(requestSpecification)
             .start();
     }
+
+    /**
+     * Sends the request on the calling thread and waits for the response.
+     *
+     * @throws RequestException if the request fails
+     * @see FetchHandle#fetchBlocking()
+     */
+    public void executeBlocking()
+    {
+        RegularRequester.forSpec(requestSpecification)
+            .startBlocking();
+    }
 }
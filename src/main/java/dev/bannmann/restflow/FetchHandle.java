@@ -1,5 +1,8 @@
 package dev.bannmann.restflow;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -15,6 +18,44 @@ public final class FetchHandle<R>
         return new FetchHandle<>(requestSpecification.withCustomizer(requestCustomizer));
     }
 
+    /**
+     * Ensures the request is sent on its own even if the client config enables request coalescing, e.g. because the
+     * caller needs to observe the current state of a resource after modifying it.
+     */
+    public FetchHandle<R> withoutCoalescing()
+    {
+        return new FetchHandle<>(requestSpecification.withoutCoalescing());
+    }
+
+    /**
+     * Sets the point in time by which the request must be completed, including all retries and other
+     * {@link ClientConfig#getPolicies() policies}. This overrides {@link ClientConfig#getDefaultTimeBudget()}. <br>
+     * <br>
+     * The timeout of each attempt is clamped to the remaining time, and no further attempt is made once the deadline
+     * has passed. If the deadline is exceeded, the request fails with a {@link DeadlineExceededException}.
+     */
+    public FetchHandle<R> withDeadline(Instant deadline)
+    {
+        return new FetchHandle<>(requestSpecification.withDeadline(deadline));
+    }
+
+    /**
+     * Sets the time the request may take from being started, including all retries and other
+     * {@link ClientConfig#getPolicies() policies}. This overrides {@link ClientConfig#getDefaultTimeBudget()}.
+     *
+     * @see #withDeadline(Instant)
+     */
+    public FetchHandle<R> withTimeBudget(Duration timeBudget)
+    {
+        return new FetchHandle<>(requestSpecification.withTimeBudget(timeBudget));
+    }
+
+    URI getUri()
+    {
+        return requestSpecification.getRequest()
+            .uri();
+    }
+
     public CompletableFuture<R> fetch()
     {
         return RegularRequester.forSpec(requestSpecification)
@@ -26,4 +67,31 @@ public final class FetchHandle<R>
         return OptionalRequester.forSpec(requestSpecification)
             .start();
     }
+
+    /**
+     * Sends the request on the calling thread and waits for the response. This avoids the overhead of chaining
+     * asynchronous stages, which makes it a good fit for virtual threads. <br>
+     * <br>
+     * Requests involving the {@link ClientConfig#getResponseCache() response cache},
+     * {@link ClientConfig#getRequestCoalescer() request coalescing} or {@link ClientConfig#getHedgingPolicy() hedging}
+     * are still exchanged asynchronously, but the calling thread waits for them.
+     *
+     * @throws RequestException if the request fails
+     */
+    public R fetchBlocking()
+    {
+        return RegularRequester.forSpec(requestSpecification)
+            .startBlocking();
+    }
+
+    /**
+     * Like {@link #fetchBlocking()}, but returns an empty {@code Optional} if the server responds with 404 (Not Found).
+     *
+     * @throws RequestException if the request fails
+     */
+    public Optional<R> tryFetchBlocking()
+    {
+        return OptionalRequester.forSpec(requestSpecification)
+            .startBlocking();
+    }
 }
@@ -0,0 +1,300 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Reduces tail latency by sending a second copy of a request if the first one did not complete within a delay.
+ * Whichever exchange completes first is used, and the other one is cancelled. <br>
+ * <br>
+ * Only requests with safe methods ({@code GET}, {@code HEAD} and {@code OPTIONS}) are hedged, and only if their body
+ * is received in full before it is converted, so streamed bodies and file downloads are not. Hedging applies to each
+ * individual attempt, so {@link ClientConfig#getPolicies() policies} like retries and timeouts see a hedged exchange
+ * as a single attempt. Similarly, the hedge shares the permit of the original exchange if a
+ * {@link ClientConfig#getConcurrencyLimiter() concurrency limiter} is configured. <br>
+ * <br>
+ * The delay is either fixed or derived from a percentile of recent latencies of original exchanges. If the hedge
+ * completed first, the time the original exchange had been running by then is used as its latency. The additional
+ * load is limited by a budget: each request earns a fraction of a hedge, and a hedge is only sent if a full one has
+ * been earned.
+ */
+public final class HedgingPolicy
+{
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final long MILLI_TOKENS_PER_HEDGE = 1000;
+    private static final int MAXIMUM_SAVED_HEDGES = 10;
+    private static final int MINIMUM_SAMPLES = 20;
+    private static final int RECALCULATION_INTERVAL = 50;
+
+    private final long fixedDelayNanos;
+    private final double percentile;
+    private final long budgetMilliTokens;
+
+    private final long[] samples;
+    private long sampleCount;
+    private volatile long percentileDelayNanos;
+
+    private final AtomicLong milliTokens = new AtomicLong();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    /**
+     * @param delay the time after which a request is hedged. If {@code percentile} is set, this delay is only used
+     * until enough latencies were observed.
+     * @param percentile the latency percentile to use as delay, e.g. {@code 0.95}, or {@code 0} to always use
+     * {@code delay}
+     * @param budget the maximum number of hedges per request, e.g. {@code 0.05} for at most 5% additional requests;
+     * defaults to {@code 0.05}
+     * @param sampleSize the number of recent latencies from which the percentile is calculated; defaults to
+     * {@code 1000}
+     */
+    @Builder
+    private HedgingPolicy(@NonNull Duration delay, double percentile, double budget, int sampleSize)
+    {
+        Preconditions.checkArgument(!delay.isNegative(), "delay must not be negative");
+        Preconditions.checkArgument(percentile >= 0 && percentile < 1, "percentile must be in [0, 1)");
+        Preconditions.checkArgument(budget >= 0 && budget <= 1, "budget must be in [0, 1]");
+        Preconditions.checkArgument(sampleSize >= 0, "sampleSize must not be negative");
+
+        this.fixedDelayNanos = delay.toNanos();
+        this.percentile = percentile;
+        this.budgetMilliTokens = Math.round((budget > 0 ? budget : 0.05) * MILLI_TOKENS_PER_HEDGE);
+        this.samples = new long[sampleSize > 0 ? sampleSize : 1000];
+        this.percentileDelayNanos = fixedDelayNanos;
+    }
+
+    /**
+     * Returns the number of requests that were eligible for hedging.
+     */
+    public long getRequestCount()
+    {
+        return requestCount.sum();
+    }
+
+    /**
+     * Returns the number of hedges that were sent.
+     */
+    public long getHedgesSent()
+    {
+        return hedgesSent.sum();
+    }
+
+    /**
+     * Returns the number of hedges that completed before the original exchange.
+     */
+    public long getHedgesWon()
+    {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * Returns the delay after which requests are currently hedged.
+     */
+    public Duration getCurrentDelay()
+    {
+        return Duration.ofNanos(getDelayNanos());
+    }
+
+    boolean isApplicable(HttpRequest request)
+    {
+        return SAFE_METHODS.contains(request.method());
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> exchange(
+        HttpClient httpClient, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        requestCount.increment();
+        earnToken();
+
+        var hedgedExchange = new HedgedExchange<>(httpClient, request, bodyHandler);
+        hedgedExchange.start();
+        CompletableFuture.delayedExecutor(getDelayNanos(), TimeUnit.NANOSECONDS)
+            .execute(hedgedExchange::hedge);
+        return hedgedExchange.result;
+    }
+
+    private long getDelayNanos()
+    {
+        return percentile > 0 ? percentileDelayNanos : fixedDelayNanos;
+    }
+
+    private void earnToken()
+    {
+        long maximum = MAXIMUM_SAVED_HEDGES * MILLI_TOKENS_PER_HEDGE;
+        milliTokens.getAndUpdate(current -> Math.min(current + budgetMilliTokens, maximum));
+    }
+
+    private boolean trySpendToken()
+    {
+        long previous = milliTokens.getAndUpdate(current -> current >= MILLI_TOKENS_PER_HEDGE
+            ? current - MILLI_TOKENS_PER_HEDGE
+            : current);
+        return previous >= MILLI_TOKENS_PER_HEDGE;
+    }
+
+    private void recordLatency(long nanos)
+    {
+        if (percentile == 0)
+        {
+            return;
+        }
+
+        synchronized (samples)
+        {
+            samples[(int) (sampleCount % samples.length)] = nanos;
+            sampleCount++;
+
+            if (sampleCount >= MINIMUM_SAMPLES && sampleCount % RECALCULATION_INTERVAL == 0)
+            {
+                int size = (int) Math.min(sampleCount, samples.length);
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                percentileDelayNanos = sorted[(int) (percentile * (size - 1))];
+            }
+        }
+    }
+
+    private final class HedgedExchange<T>
+    {
+        private final HttpClient httpClient;
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> bodyHandler;
+        private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+
+        private long startNanos;
+        private CompletableFuture<HttpResponse<T>> original;
+        private CompletableFuture<HttpResponse<T>> hedge;
+        private int pendingCount;
+        private Throwable firstFailure;
+
+        private HedgedExchange(HttpClient httpClient, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+        {
+            this.httpClient = httpClient;
+            this.request = request;
+            this.bodyHandler = bodyHandler;
+        }
+
+        public void start()
+        {
+            synchronized (this)
+            {
+                startNanos = System.nanoTime();
+                pendingCount = 1;
+                original = httpClient.sendAsync(request, bodyHandler);
+            }
+            original.whenComplete((response, throwable) -> onCompletion(response, throwable, false));
+            result.whenComplete((response, throwable) -> {
+                if (throwable instanceof CancellationException)
+                {
+                    cancelExchanges();
+                }
+            });
+        }
+
+        private void cancelExchanges()
+        {
+            CompletableFuture<HttpResponse<T>> currentOriginal;
+            CompletableFuture<HttpResponse<T>> currentHedge;
+            synchronized (this)
+            {
+                currentOriginal = original;
+                currentHedge = hedge;
+            }
+
+            currentOriginal.cancel(true);
+            if (currentHedge != null)
+            {
+                currentHedge.cancel(true);
+            }
+        }
+
+        public void hedge()
+        {
+            synchronized (this)
+            {
+                if (result.isDone() || !trySpendToken())
+                {
+                    return;
+                }
+                pendingCount++;
+                hedgesSent.increment();
+                hedge = httpClient.sendAsync(request, bodyHandler);
+            }
+            hedge.whenComplete((response, throwable) -> onCompletion(response, throwable, true));
+        }
+
+        private void onCompletion(HttpResponse<T> response, Throwable throwable, boolean isHedge)
+        {
+            boolean lost = false;
+            CompletableFuture<HttpResponse<T>> loser = null;
+            long originalLatencyNanos = 0;
+            synchronized (this)
+            {
+                pendingCount--;
+                if (result.isDone())
+                {
+                    lost = true;
+                }
+                else if (throwable != null)
+                {
+                    if (firstFailure == null)
+                    {
+                        firstFailure = throwable;
+                    }
+                    if (pendingCount == 0)
+                    {
+                        result.completeExceptionally(firstFailure);
+                    }
+
+                    // Otherwise, the other exchange may still succeed
+                    return;
+                }
+                else
+                {
+                    result.complete(response);
+                    loser = isHedge ? original : hedge;
+                    originalLatencyNanos = System.nanoTime() - startNanos;
+                }
+            }
+
+            if (lost)
+            {
+                if (response != null)
+                {
+                    // The loser completed before it could be cancelled, so its connection needs to be released
+                    ResponseBodies.close(response.body());
+                }
+                return;
+            }
+
+            /*
+             * If the hedge won, the original exchange took at least as long as it has been running. Recording that
+             * lower bound keeps the slow tail in the samples, as otherwise the delay would drift downwards.
+             */
+            recordLatency(originalLatencyNanos);
+            if (isHedge)
+            {
+                hedgesWon.increment();
+            }
+            if (loser != null)
+            {
+                loser.cancel(true);
+            }
+        }
+    }
+}
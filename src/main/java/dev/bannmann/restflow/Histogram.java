@@ -0,0 +1,124 @@
+package dev.bannmann.restflow;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Counts non-negative values in buckets whose bounds are powers of two. Recording is lock-free and cheap enough for
+ * hot paths, at the expense of percentiles being approximate. <br>
+ * <br>
+ * Bucket 0 counts the value 0, and bucket {@code i > 0} counts values from {@code 2^(i-1)} to {@code 2^i - 1}.
+ */
+public final class Histogram
+{
+    private static final int BUCKET_COUNT = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long value)
+    {
+        long clamped = Math.max(value, 0);
+        buckets[getBucketIndex(clamped)].increment();
+        count.increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    private static int getBucketIndex(long value)
+    {
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Returns the largest value counted by the bucket with the given index.
+     */
+    public static long getBucketUpperBound(int index)
+    {
+        Preconditions.checkElementIndex(index, BUCKET_COUNT);
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+    }
+
+    /**
+     * Returns the number of values in each bucket. The array is a snapshot and may be modified by the caller.
+     */
+    public long[] getBucketCounts()
+    {
+        long[] result = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            result[i] = buckets[i].sum();
+        }
+        return result;
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public long getSum()
+    {
+        return sum.sum();
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values, or {@code 0} if there are none.
+     */
+    public double getMean()
+    {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0 : (double) sum.sum() / currentCount;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile, i.e. the upper bound of the bucket containing it, limited to the
+     * largest recorded value.
+     *
+     * @param percentile the percentile, e.g. {@code 0.99}
+     */
+    public long getPercentile(double percentile)
+    {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 1, "percentile must be in [0, 1]");
+
+        long[] bucketCounts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : bucketCounts)
+        {
+            total += bucketCount;
+        }
+        if (total == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            seen += bucketCounts[i];
+            if (seen >= rank)
+            {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -15,15 +15,32 @@ public abstract class InvalidResponseException extends RequestException
 {
     private final transient HttpResponse<?> response;
 
+    /**
+     * The beginning of the response body, or {@code null} if it was not captured.
+     */
+    private final CapturedBody capturedBody;
+
+    protected InvalidResponseException(
+        String message,
+        Throwable cause,
+        HttpResponse<?> response,
+        Map<String, Object> diagnosticsData,
+        List<StackWalker.StackFrame> callerFrames)
+    {
+        this(message, cause, response, null, diagnosticsData, callerFrames);
+    }
+
     protected InvalidResponseException(
         String message,
         Throwable cause,
         HttpResponse<?> response,
+        CapturedBody capturedBody,
         Map<String, Object> diagnosticsData,
         List<StackWalker.StackFrame> callerFrames)
     {
         super(message, cause, diagnosticsData, callerFrames);
         this.response = response;
+        this.capturedBody = capturedBody;
     }
 
     @Override
@@ -37,13 +54,16 @@ public abstract class InvalidResponseException extends RequestException
         return response.statusCode();
     }
 
+    /**
+     * Returns the response body as text. If the body was {@link #getCapturedBody() captured}, this is the captured
+     * text, which may be truncated.
+     */
     public String getRawBody()
     {
-        Object body = response.body();
-        if (body == null)
+        if (capturedBody != null)
         {
-            return null;
+            return capturedBody.getText();
         }
-        return body.toString();
+        return ResponseBodies.toText(response.body());
     }
 }
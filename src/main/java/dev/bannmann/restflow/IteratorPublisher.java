@@ -0,0 +1,170 @@
+package dev.bannmann.restflow;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the elements of an iterator according to subscriber demand. Elements are only pulled from the iterator
+ * while there is outstanding demand, so an iterator reading from a response body stream propagates backpressure to the
+ * download. <br>
+ * <br>
+ * As the iterator can only be traversed once, only a single subscriber is supported.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class IteratorPublisher<T> implements Flow.Publisher<T>
+{
+    private final Iterator<T> iterator;
+    private final AutoCloseable resource;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber)
+    {
+        if (!subscribed.compareAndSet(false, true))
+        {
+            subscriber.onSubscribe(new NoOpSubscription());
+            subscriber.onError(new IllegalStateException("This publisher only supports a single subscriber"));
+            return;
+        }
+
+        subscriber.onSubscribe(new IteratorSubscription(subscriber));
+    }
+
+    private static final class NoOpSubscription implements Flow.Subscription
+    {
+        @Override
+        public void request(long n)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void cancel()
+        {
+            // Nothing to do
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class IteratorSubscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                if (terminate())
+                {
+                    subscriber.onError(new IllegalArgumentException("Requested non-positive number of elements: " +
+                        n));
+                }
+                return;
+            }
+
+            long previous;
+            long next;
+            do
+            {
+                previous = demand.get();
+                next = previous + n;
+                if (next < 0)
+                {
+                    next = Long.MAX_VALUE;
+                }
+            }
+            while (!demand.compareAndSet(previous, next));
+
+            if (previous == 0)
+            {
+                executor.execute(this::drain);
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            terminate();
+        }
+
+        private void drain()
+        {
+            long requested = demand.get();
+            long emitted = 0;
+            while (true)
+            {
+                while (emitted < requested)
+                {
+                    if (terminated.get())
+                    {
+                        return;
+                    }
+
+                    T element;
+                    try
+                    {
+                        if (!iterator.hasNext())
+                        {
+                            if (terminate())
+                            {
+                                subscriber.onComplete();
+                            }
+                            return;
+                        }
+                        element = iterator.next();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        if (terminate())
+                        {
+                            subscriber.onError(e);
+                        }
+                        return;
+                    }
+
+                    subscriber.onNext(element);
+                    emitted++;
+                }
+
+                requested = demand.addAndGet(-emitted);
+                emitted = 0;
+                if (requested == 0)
+                {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if this call terminated the subscription, {@code false} if it was already terminated
+         */
+        private boolean terminate()
+        {
+            if (!terminated.compareAndSet(false, true))
+            {
+                return false;
+            }
+
+            try
+            {
+                resource.close();
+            }
+            catch (Exception e)
+            {
+                log.debug("Could not close resource of terminated subscription", e);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import javax.json.Json;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.bind.Jsonb;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParsingException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the elements of a JSON array incrementally, binding each one as soon as it is complete. <br>
+ * <br>
+ * Element boundaries are found by scanning the raw bytes for brackets, braces, commas and strings, so the body is never
+ * decoded as a whole. Each element is bound directly from a stream that ends with the element, which avoids building
+ * an intermediate tree or text for it.
+ */
+@Slf4j
+final class JsonArrayElements<T> extends BodyElementIterator<T>
+{
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final Class<T> elementClass;
+    private final Jsonb jsonb;
+    private final ResponseContext context;
+
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final byte[] discarded = new byte[256];
+    private int chunkPosition;
+    private int chunkLimit;
+    private long chunkOffset;
+
+    private boolean started;
+    private long index;
+
+    public JsonArrayElements(InputStream inputStream, Class<T> elementClass, Jsonb jsonb, ResponseContext context)
+    {
+        this.inputStream = inputStream;
+        this.elementClass = elementClass;
+        this.jsonb = jsonb;
+        this.context = context;
+    }
+
+    @Override
+    protected boolean readNext()
+    {
+        try
+        {
+            int next = readNonWhitespace();
+            if (!started)
+            {
+                started = true;
+                if (next != '[')
+                {
+                    throw createParsingException("Response body is not a JSON array");
+                }
+                next = readNonWhitespace();
+            }
+            else if (next == ',')
+            {
+                next = readNonWhitespace();
+            }
+            else if (next != ']' && next != -1)
+            {
+                throw createParsingException("Expected ',' or ']' after element");
+            }
+
+            if (next == ']')
+            {
+                return false;
+            }
+            if (next == -1)
+            {
+                throw createParsingException("Unexpected end of JSON array");
+            }
+
+            // Leave the first byte of the element to its stream
+            chunkPosition--;
+            var element = new ElementInputStream();
+            setNext(bind(element));
+            element.skipRemaining();
+            index++;
+            return true;
+        }
+        catch (IOException e)
+        {
+            throw context.createBodyException("element " + index, new UncheckedIOException(e));
+        }
+        catch (RuntimeException e)
+        {
+            throw context.createBodyException("element " + index, e);
+        }
+    }
+
+    private T bind(InputStream element)
+    {
+        if (JsonValue.class.isAssignableFrom(elementClass) || elementClass.isAssignableFrom(JsonValue.class))
+        {
+            try (JsonReader reader = Json.createReader(element))
+            {
+                return elementClass.cast(reader.readValue());
+            }
+        }
+        return jsonb.fromJson(element, elementClass);
+    }
+
+    /**
+     * @return the next byte that is not whitespace, or {@code -1} at the end of the body
+     */
+    private int readNonWhitespace() throws IOException
+    {
+        while (true)
+        {
+            if (chunkPosition == chunkLimit && !fill())
+            {
+                return -1;
+            }
+
+            byte b = chunk[chunkPosition++];
+            if (!isWhitespace(b))
+            {
+                return b & 0xFF;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException
+    {
+        int read = inputStream.read(chunk);
+        if (read <= 0)
+        {
+            return false;
+        }
+
+        chunkOffset += chunkLimit;
+        chunkPosition = 0;
+        chunkLimit = read;
+        return true;
+    }
+
+    private JsonParsingException createParsingException(String message)
+    {
+        long streamOffset = chunkOffset + chunkPosition;
+        JsonLocation location = new JsonLocation()
+        {
+            @Override
+            public long getLineNumber()
+            {
+                return -1;
+            }
+
+            @Override
+            public long getColumnNumber()
+            {
+                return -1;
+            }
+
+            @Override
+            public long getStreamOffset()
+            {
+                return streamOffset;
+            }
+        };
+        return new JsonParsingException(message + " at offset " + streamOffset, location);
+    }
+
+    private static boolean isWhitespace(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            inputStream.close();
+        }
+        catch (IOException e)
+        {
+            log.debug("Could not close response body stream", e);
+        }
+    }
+
+    /**
+     * Passes on the bytes of the current element and then signals the end of the stream. Closing it does not affect
+     * the body, as binders usually close the stream they read from.
+     */
+    private final class ElementInputStream extends InputStream
+    {
+        private final byte[] single = new byte[1];
+
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException
+        {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            if (ended)
+            {
+                return -1;
+            }
+            if (length == 0)
+            {
+                return 0;
+            }
+            if (chunkPosition == chunkLimit && !fill())
+            {
+                // The parser reports the incomplete element
+                ended = true;
+                return -1;
+            }
+
+            int end = Math.min(chunkLimit, chunkPosition + length);
+            int scanned = chunkPosition;
+            while (scanned < end && !ended)
+            {
+                if (isEndBefore(chunk[scanned]))
+                {
+                    ended = true;
+                    break;
+                }
+                scanned++;
+            }
+
+            int count = scanned - chunkPosition;
+            System.arraycopy(chunk, chunkPosition, bytes, offset, count);
+            chunkPosition = scanned;
+            return count == 0 ? -1 : count;
+        }
+
+        /**
+         * Tracks the structure of the element.
+         *
+         * @return {@code true} if the element ended before the given byte, which then belongs to the array
+         */
+        private boolean isEndBefore(byte b)
+        {
+            if (inString)
+            {
+                if (escaped)
+                {
+                    escaped = false;
+                }
+                else if (b == '\\')
+                {
+                    escaped = true;
+                }
+                else if (b == '"')
+                {
+                    inString = false;
+                    ended = depth == 0;
+                }
+                return false;
+            }
+
+            switch (b)
+            {
+                case '"':
+                    inString = true;
+                    return false;
+                case '{':
+                case '[':
+                    depth++;
+                    return false;
+                case '}':
+                case ']':
+                    if (depth == 0)
+                    {
+                        // The end of the array directly follows a number or literal
+                        return true;
+                    }
+                    depth--;
+                    ended = depth == 0;
+                    return false;
+                default:
+                    // Numbers and literals end at the next separator
+                    return depth == 0 && (b == ',' || isWhitespace(b));
+            }
+        }
+
+        public void skipRemaining() throws IOException
+        {
+            while (read(discarded, 0, discarded.length) != -1)
+            {
+                // Discard the bytes the binder did not read
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            // The body is closed by the enclosing iterator
+        }
+    }
+}
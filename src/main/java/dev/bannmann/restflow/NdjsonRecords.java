@@ -0,0 +1,209 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import javax.json.bind.Jsonb;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads newline-delimited JSON records incrementally. Lines are split on the raw bytes, so the body is never decoded
+ * as a whole; each record is bound from its bytes as soon as its terminating newline has arrived. Blank lines are
+ * skipped.
+ */
+@Slf4j
+final class NdjsonRecords<T> extends BodyElementIterator<T>
+{
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final Class<T> recordClass;
+    private final Jsonb jsonb;
+    private final ResponseContext context;
+
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkPosition;
+    private int chunkLimit;
+    private long chunkOffset;
+    private boolean endOfStream;
+
+    /**
+     * Holds the beginning of a line that spans multiple chunks.
+     */
+    private byte[] carry = new byte[0];
+    private int carryLength;
+
+    private long lineNumber;
+    private long lineOffset;
+    private long nextLineOffset;
+
+    public NdjsonRecords(InputStream inputStream, Class<T> recordClass, Jsonb jsonb, ResponseContext context)
+    {
+        this.inputStream = inputStream;
+        this.recordClass = recordClass;
+        this.jsonb = jsonb;
+        this.context = context;
+    }
+
+    @Override
+    protected boolean readNext()
+    {
+        try
+        {
+            while (true)
+            {
+                if (readLine())
+                {
+                    return true;
+                }
+                if (endOfStream && chunkPosition == chunkLimit && carryLength == 0)
+                {
+                    return false;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            String line = describeLine(lineNumber + 1, nextLineOffset);
+            throw context.createBodyException(line, new UncheckedIOException(e));
+        }
+    }
+
+    /**
+     * Completes the next line from the current chunk, reading another chunk if no line break is left, and binds the
+     * line if it is not blank.
+     *
+     * @return {@code true} if a record was bound, {@code false} if no record is available yet
+     */
+    private boolean readLine() throws IOException
+    {
+        for (int i = chunkPosition; i < chunkLimit; i++)
+        {
+            if (chunk[i] == '\n')
+            {
+                int start = chunkPosition;
+                chunkPosition = i + 1;
+                return completeLine(chunkOffset + i + 1, start, i);
+            }
+        }
+
+        appendToCarry(chunkPosition, chunkLimit);
+        chunkPosition = chunkLimit;
+
+        if (endOfStream)
+        {
+            return false;
+        }
+
+        int read = inputStream.read(chunk);
+        if (read == -1)
+        {
+            endOfStream = true;
+            if (carryLength > 0)
+            {
+                // Last line without trailing newline
+                return completeLine(chunkOffset + chunkLimit, 0, 0);
+            }
+            return false;
+        }
+
+        chunkOffset += chunkLimit;
+        chunkPosition = 0;
+        chunkLimit = read;
+        return false;
+    }
+
+    /**
+     * Binds the line formed by the carried-over bytes followed by the given chunk range.
+     */
+    private boolean completeLine(long endOffset, int start, int end)
+    {
+        lineNumber++;
+        lineOffset = nextLineOffset;
+        nextLineOffset = endOffset;
+
+        byte[] bytes;
+        int offset;
+        int length;
+        if (carryLength == 0)
+        {
+            bytes = chunk;
+            offset = start;
+            length = end - start;
+        }
+        else
+        {
+            appendToCarry(start, end);
+            bytes = carry;
+            offset = 0;
+            length = carryLength;
+            carryLength = 0;
+        }
+
+        if (isBlank(bytes, offset, length))
+        {
+            return false;
+        }
+
+        try
+        {
+            setNext(jsonb.fromJson(new ByteArrayInputStream(bytes, offset, length), recordClass));
+            return true;
+        }
+        catch (RuntimeException e)
+        {
+            throw context.createBodyException(describeLine(lineNumber, lineOffset), e);
+        }
+    }
+
+    private void appendToCarry(int start, int end)
+    {
+        int length = end - start;
+        if (length == 0)
+        {
+            return;
+        }
+
+        if (carryLength + length > carry.length)
+        {
+            carry = Arrays.copyOf(carry, Math.max(carryLength + length, carry.length * 2));
+        }
+        System.arraycopy(chunk, start, carry, carryLength, length);
+        carryLength += length;
+    }
+
+    private static boolean isBlank(byte[] bytes, int offset, int length)
+    {
+        for (int i = offset; i < offset + length; i++)
+        {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describeLine(long number, long offset)
+    {
+        return String.format("line %d (byte offset %d)", number, offset);
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            inputStream.close();
+        }
+        catch (IOException e)
+        {
+            log.debug("Could not close response body stream", e);
+        }
+    }
+}
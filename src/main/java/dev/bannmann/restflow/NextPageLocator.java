@@ -0,0 +1,44 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * Determines the URI of the page following a given page of a {@link Pagination}.
+ */
+@FunctionalInterface
+public interface NextPageLocator<P>
+{
+    /**
+     * Follows the {@code Link} header entry with relation type {@code next} (RFC 8288), as used by GitHub and many
+     * other APIs. Relative links are resolved against the URI of the page.
+     */
+    static <P> NextPageLocator<P> linkHeader()
+    {
+        return page -> PageLinks.findNextLink(page.getUri(), page.getHeaders());
+    }
+
+    /**
+     * Requests the next page by setting a query parameter to a cursor taken from the body of the current page. Other
+     * query parameters of the current page's URI are retained.
+     *
+     * @param queryParameter the name of the query parameter, e.g. {@code "cursor"}
+     * @param cursorExtractor returns the cursor for the next page, or an empty {@code Optional} if the page is the last
+     * one
+     */
+    static <P> NextPageLocator<P> cursor(
+        @NonNull String queryParameter, @NonNull Function<P, Optional<String>> cursorExtractor)
+    {
+        return page -> cursorExtractor.apply(page.getBody())
+            .filter(cursor -> !cursor.isEmpty())
+            .map(cursor -> PageLinks.withQueryParameter(page.getUri(), queryParameter, cursor));
+    }
+
+    /**
+     * @return the URI of the next page, or an empty {@code Optional} if the given page is the last one
+     */
+    Optional<URI> findNextPage(Page<P> page);
+}
@@ -16,7 +16,7 @@ final class OptionalRequester<B, R> extends AbstractRequester<B, Optional<R>>
 
     private OptionalRequester(RequestSpecification<B, R> spec)
     {
-        super(spec.createFinalRequest(), spec.getClientConfig());
+        super(spec);
         this.spec = spec;
     }
 
@@ -28,12 +28,22 @@ final class OptionalRequester<B, R> extends AbstractRequester<B, Optional<R>>
     }
 
     @Override
-    protected void verifyNoErrors(HttpResponse<B> response)
+    protected StatusAwareBodyHandler.Strategy selectBodyStrategy(int responseStatus)
+    {
+        if (responseStatus == HttpStatus.NOT_FOUND)
+        {
+            return StatusAwareBodyHandler.Strategy.DISCARD;
+        }
+        return super.selectBodyStrategy(responseStatus);
+    }
+
+    @Override
+    protected void verifyNoErrors(HttpResponse<B> response, CapturedBody capturedBody)
     {
         int responseStatus = response.statusCode();
         if (isFailure(responseStatus) && responseStatus != HttpStatus.NOT_FOUND)
         {
-            throw createException(response);
+            throw createException(response, capturedBody);
         }
     }
 
@@ -48,7 +58,7 @@ final class OptionalRequester<B, R> extends AbstractRequester<B, Optional<R>>
         B body = response.body();
         R result = spec.getResponseBodyConfig()
             .getResponseConverter()
-            .apply(body);
+            .convert(body, createResponseContext(response));
         return Optional.of(result);
     }
 }
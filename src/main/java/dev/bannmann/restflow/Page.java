@@ -0,0 +1,25 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * A single page of a {@link Pagination}, as passed to its {@link NextPageLocator}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class Page<P>
+{
+    /**
+     * The URI the page was received from, which relative links are resolved against.
+     */
+    URI uri;
+
+    HttpHeaders headers;
+
+    P body;
+}
@@ -0,0 +1,126 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+class PageLinks
+{
+    private static final String NEXT = "next";
+
+    /**
+     * Finds the target of the {@code Link} header entry with relation type {@code next}.
+     */
+    public Optional<URI> findNextLink(URI base, HttpHeaders headers)
+    {
+        for (String header : headers.allValues("Link"))
+        {
+            int position = 0;
+            while (position < header.length())
+            {
+                int start = header.indexOf('<', position);
+                int end = start < 0 ? -1 : header.indexOf('>', start);
+                if (end < 0)
+                {
+                    break;
+                }
+
+                int parametersEnd = findParametersEnd(header, end + 1);
+                if (hasNextRelation(header.substring(end + 1, parametersEnd)))
+                {
+                    return Optional.of(base.resolve(header.substring(start + 1, end)
+                        .trim()));
+                }
+                position = parametersEnd + 1;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the position of the comma separating the link value starting before {@code position} from the next one,
+     * or the length of the header if there is none
+     */
+    private int findParametersEnd(String header, int position)
+    {
+        boolean quoted = false;
+        for (int i = position; i < header.length(); i++)
+        {
+            char c = header.charAt(i);
+            if (c == '"')
+            {
+                quoted = !quoted;
+            }
+            else if (c == ',' && !quoted)
+            {
+                return i;
+            }
+        }
+        return header.length();
+    }
+
+    private boolean hasNextRelation(String parameters)
+    {
+        for (String parameter : parameters.split(";"))
+        {
+            int equals = parameter.indexOf('=');
+            if (equals < 0 ||
+                !parameter.substring(0, equals)
+                    .trim()
+                    .equalsIgnoreCase("rel"))
+            {
+                continue;
+            }
+
+            String value = parameter.substring(equals + 1)
+                .trim()
+                .replace("\"", "")
+                .toLowerCase(Locale.ROOT);
+
+            // The value may contain several space-separated relation types
+            for (String relation : value.split("\\s+"))
+            {
+                if (relation.equals(NEXT))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the given URI with the query parameter set to the given value, replacing any previous values.
+     */
+    public URI withQueryParameter(URI uri, String name, String value)
+    {
+        String encodedName = URLEncoder.encode(name, StandardCharsets.UTF_8);
+        StringBuilder query = new StringBuilder();
+        String rawQuery = uri.getRawQuery();
+        if (rawQuery != null)
+        {
+            for (String pair : rawQuery.split("&"))
+            {
+                if (!pair.isEmpty() && !pair.equals(encodedName) && !pair.startsWith(encodedName + "="))
+                {
+                    query.append(pair)
+                        .append('&');
+                }
+            }
+        }
+        query.append(encodedName)
+            .append('=')
+            .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+
+        // Fragments are not sent to the server, so they are dropped along with the previous query
+        String base = uri.toString()
+            .split("[?#]", 2)[0];
+        return URI.create(base + "?" + query);
+    }
+}
@@ -0,0 +1,184 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Iterates over the elements of all pages of a {@link Pagination}. While the elements of one page are consumed, up to
+ * {@code prefetchPages} following pages are requested one after the other and buffered. <br>
+ * <br>
+ * As the URI of a page is only known once the previous page has arrived, at most one page is in flight at a time.
+ */
+final class PaginatedElements<P, T> extends BodyElementIterator<T>
+{
+    private final Function<URI, CompletableFuture<Page<P>>> pageFetcher;
+    private final Function<P, ? extends Iterable<T>> elementExtractor;
+    private final NextPageLocator<P> nextPageLocator;
+    private final int prefetchPages;
+
+    /**
+     * Pages that were requested but not yet taken by the consumer, in order. Guarded by {@code this}.
+     */
+    private final Queue<CompletableFuture<Page<P>>> pages = new ArrayDeque<>();
+
+    /**
+     * The futures returned by the page fetcher for pages that have not arrived yet, including one that the consumer may
+     * already be waiting for. Cancelling them aborts the exchanges. Guarded by {@code this}.
+     */
+    private final Set<CompletableFuture<Page<P>>> fetches = new HashSet<>();
+
+    /**
+     * The URI of the page following the last requested one if it is known but not requested yet. Guarded by
+     * {@code this}.
+     */
+    private URI nextPage;
+
+    private boolean closed;
+
+    private Iterator<T> elements = Collections.emptyIterator();
+
+    public PaginatedElements(
+        URI firstPage,
+        Function<URI, CompletableFuture<Page<P>>> pageFetcher,
+        Function<P, ? extends Iterable<T>> elementExtractor,
+        NextPageLocator<P> nextPageLocator,
+        int prefetchPages)
+    {
+        this.pageFetcher = pageFetcher;
+        this.elementExtractor = elementExtractor;
+        this.nextPageLocator = nextPageLocator;
+        this.prefetchPages = prefetchPages;
+
+        synchronized (this)
+        {
+            nextPage = firstPage;
+            requestNextPage();
+        }
+    }
+
+    @Override
+    protected boolean readNext()
+    {
+        while (!elements.hasNext())
+        {
+            CompletableFuture<Page<P>> page = takePage();
+            if (page == null)
+            {
+                return false;
+            }
+
+            P body = await(page).getBody();
+            elements = body == null ? Collections.emptyIterator() : elementExtractor.apply(body)
+                .iterator();
+        }
+
+        setNext(elements.next());
+        return true;
+    }
+
+    /**
+     * @return the future of the next page, or {@code null} if there are no more pages
+     */
+    private synchronized CompletableFuture<Page<P>> takePage()
+    {
+        if (pages.isEmpty() && nextPage != null)
+        {
+            requestNextPage();
+        }
+
+        CompletableFuture<Page<P>> page = pages.poll();
+        prefetch();
+        return page;
+    }
+
+    private synchronized Page<P> onPageArrived(Page<P> page)
+    {
+        if (!closed)
+        {
+            nextPage = nextPageLocator.findNextPage(page)
+                .orElse(null);
+            prefetch();
+        }
+        return page;
+    }
+
+    private void prefetch()
+    {
+        if (nextPage != null && pages.size() < prefetchPages)
+        {
+            requestNextPage();
+        }
+    }
+
+    private void requestNextPage()
+    {
+        URI uri = nextPage;
+        nextPage = null;
+
+        // Enqueue the page before requesting it, as onPageArrived() may run right away for cached responses
+        var page = new CompletableFuture<Page<P>>();
+        pages.add(page);
+        CompletableFuture<Page<P>> fetch = pageFetcher.apply(uri);
+        fetches.add(fetch);
+        fetch.thenApply(this::onPageArrived)
+            .whenComplete((result, throwable) -> {
+                removeFetch(fetch);
+                if (throwable != null)
+                {
+                    page.completeExceptionally(throwable);
+                }
+                else
+                {
+                    page.complete(result);
+                }
+            });
+    }
+
+    private synchronized void removeFetch(CompletableFuture<Page<P>> fetch)
+    {
+        fetches.remove(fetch);
+    }
+
+    private static <T> T await(CompletableFuture<T> future)
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException e)
+        {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        nextPage = null;
+        for (CompletableFuture<Page<P>> page : pages)
+        {
+            page.cancel(false);
+        }
+        pages.clear();
+
+        // Copied as cancelling a fetch removes it from the set
+        for (CompletableFuture<Page<P>> fetch : List.copyOf(fetches))
+        {
+            fetch.cancel(false);
+        }
+        fetches.clear();
+    }
+}
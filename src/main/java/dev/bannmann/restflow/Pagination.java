@@ -0,0 +1,109 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Fetches the pages of a paged collection and exposes their elements as a single stream or publisher. By default, the
+ * next page is located via the {@code Link} header of the current page. <br>
+ * <br>
+ * While the elements of one page are consumed, the following page is already fetched, so the consumer does not have
+ * to wait for each page in turn. Each stream or publisher requests the first page when it is created. <br>
+ * <br>
+ * Example:
+ * <pre>{@code
+ * try (Stream<Item> items = client.get("items")
+ *     .paginatingListOf(Item.class)
+ *     .prefetchPages(2)
+ *     .stream())
+ * {
+ *     items.forEach(item -> ...);
+ * }
+ * }</pre>
+ */
+@Builder(toBuilder = true, access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Pagination<P, T>
+{
+    private static final int DEFAULT_PREFETCH_PAGES = 1;
+
+    static <P, T> Pagination<P, T> of(
+        URI firstPage,
+        Function<URI, CompletableFuture<Page<P>>> pageFetcher,
+        Function<P, ? extends Iterable<T>> elementExtractor)
+    {
+        return Pagination.<P, T>builder()
+            .firstPage(firstPage)
+            .pageFetcher(pageFetcher)
+            .elementExtractor(elementExtractor)
+            .nextPageLocator(NextPageLocator.linkHeader())
+            .prefetchPages(DEFAULT_PREFETCH_PAGES)
+            .build();
+    }
+
+    private final URI firstPage;
+    private final Function<URI, CompletableFuture<Page<P>>> pageFetcher;
+    private final Function<P, ? extends Iterable<T>> elementExtractor;
+    private final NextPageLocator<P> nextPageLocator;
+    private final int prefetchPages;
+
+    /**
+     * Sets how the URI of the next page is determined. Defaults to {@link NextPageLocator#linkHeader()}.
+     */
+    public Pagination<P, T> nextPageLocator(@NonNull NextPageLocator<P> nextPageLocator)
+    {
+        return toBuilder().nextPageLocator(nextPageLocator)
+            .build();
+    }
+
+    /**
+     * Sets how many pages are fetched ahead of the one being consumed. Defaults to 1. <br>
+     * <br>
+     * Fetched pages are buffered until they are consumed, so this also limits the number of pages held in memory to
+     * {@code prefetchPages + 1}. With 0, each page is only requested once the previous one has been consumed.
+     */
+    public Pagination<P, T> prefetchPages(int prefetchPages)
+    {
+        Preconditions.checkArgument(prefetchPages >= 0, "prefetchPages must not be negative");
+        return toBuilder().prefetchPages(prefetchPages)
+            .build();
+    }
+
+    /**
+     * Returns a sequential stream of the elements of all pages. The stream must be closed if it is not consumed
+     * completely. <br>
+     * <br>
+     * If a page cannot be fetched, the stream operation throws the {@link RequestException}.
+     */
+    public Stream<T> stream()
+    {
+        return createElements().stream();
+    }
+
+    /**
+     * Returns a publisher of the elements of all pages which supports a single subscriber. Pages are only consumed
+     * while the subscriber has outstanding demand, so prefetching stops once {@link #prefetchPages(int)} pages are
+     * buffered. <br>
+     * <br>
+     * If a page cannot be fetched, the {@link RequestException} is signalled to the subscriber.
+     */
+    public Flow.Publisher<T> publisher()
+    {
+        return createElements().publisher();
+    }
+
+    private PaginatedElements<P, T> createElements()
+    {
+        return new PaginatedElements<>(firstPage, pageFetcher, elementExtractor, nextPageLocator, prefetchPages);
+    }
+}
@@ -0,0 +1,102 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Passes the body through to another subscriber while recording a copy of the raw bytes. Once the body is complete,
+ * the copy is handed to a consumer unless the body exceeded the given limit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class RecordingBodySubscriber<T> implements HttpResponse.BodySubscriber<T>
+{
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final int limit;
+    private final Consumer<byte[]> recordingConsumer;
+
+    /**
+     * The recorded bytes, or {@code null} once the body exceeded the limit.
+     */
+    private ByteArrayOutputStream recording = new ByteArrayOutputStream();
+
+    @Override
+    public CompletionStage<T> getBody()
+    {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items)
+    {
+        if (recording != null)
+        {
+            record(items);
+        }
+        delegate.onNext(items);
+    }
+
+    private void record(List<ByteBuffer> items)
+    {
+        for (ByteBuffer item : items)
+        {
+            int length = item.remaining();
+            if (recording.size() + length > limit)
+            {
+                recording = null;
+                return;
+            }
+
+            if (item.hasArray())
+            {
+                recording.write(item.array(), item.arrayOffset() + item.position(), length);
+            }
+            else
+            {
+                byte[] bytes = new byte[length];
+                item.duplicate()
+                    .get(bytes);
+                recording.write(bytes, 0, length);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        recording = null;
+        delegate.onError(throwable);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        if (recording != null)
+        {
+            try
+            {
+                recordingConsumer.accept(recording.toByteArray());
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Could not process recorded response body", e);
+            }
+            recording = null;
+        }
+        delegate.onComplete();
+    }
+}
@@ -13,7 +13,7 @@ final class RegularRequester<B, R> extends AbstractRequester<B, R>
 
     private RegularRequester(RequestSpecification<B, R> spec)
     {
-        super(spec.createFinalRequest(), spec.getClientConfig());
+        super(spec);
         this.spec = spec;
     }
 
@@ -25,12 +25,12 @@ final class RegularRequester<B, R> extends AbstractRequester<B, R>
     }
 
     @Override
-    protected void verifyNoErrors(HttpResponse<B> response)
+    protected void verifyNoErrors(HttpResponse<B> response, CapturedBody capturedBody)
     {
         int responseStatus = response.statusCode();
         if (isFailure(responseStatus))
         {
-            throw createException(response);
+            throw createException(response, capturedBody);
         }
     }
 
@@ -39,6 +39,6 @@ final class RegularRequester<B, R> extends AbstractRequester<B, R>
     {
         return spec.getResponseBodyConfig()
             .getResponseConverter()
-            .apply(response.body());
+            .convert(response.body(), createResponseContext(response));
     }
 }
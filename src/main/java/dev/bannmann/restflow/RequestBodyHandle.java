@@ -1,6 +1,7 @@
 package dev.bannmann.restflow;
 
 import java.net.http.HttpRequest;
+import java.util.Map;
 
 import lombok.AccessLevel;
 import lombok.NonNull;
@@ -13,6 +14,11 @@ public final class RequestBodyHandle
     private final RequestTemplate requestTemplate;
     private final String method;
     private final String contentType;
+
+    /**
+     * The encoding of the body, or {@code null} if it is not compressed.
+     */
+    private final String contentEncoding;
     private final HttpRequest.BodyPublisher bodyPublisher;
 
     public RequestHandle to(@NonNull String resourcePath)
@@ -21,11 +27,30 @@ public final class RequestBodyHandle
         return new RequestHandle(request, clientConfig);
     }
 
+    /**
+     * Prepares sending the body to the given endpoint.
+     *
+     * @throws IllegalArgumentException if a path variable has no value
+     */
+    public RequestHandle to(@NonNull Endpoint endpoint, @NonNull Map<String, ?> variables)
+    {
+        HttpRequest request = endpoint.createUploadRequest(method,
+            contentType,
+            contentEncoding,
+            bodyPublisher,
+            variables);
+        return new RequestHandle(request, clientConfig);
+    }
+
     private HttpRequest createUploadRequest(String resourcePath)
     {
-        return requestTemplate.newBuilder(resourcePath)
-            .header("Content-Type", contentType)
-            .method(method, bodyPublisher)
+        HttpRequest.Builder builder = requestTemplate.newBuilder(resourcePath)
+            .header("Content-Type", contentType);
+        if (contentEncoding != null)
+        {
+            builder.header("Content-Encoding", contentEncoding);
+        }
+        return builder.method(method, bodyPublisher)
             .build();
     }
 }
@@ -0,0 +1,196 @@
+package dev.bannmann.restflow;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+/**
+ * Lets concurrent requests share a single exchange if they use a safe method and have the same URI and headers. The
+ * shared response body is buffered as raw bytes, and each request converts it on its own, so callers never share a
+ * result object. If the exchange fails, every request fails with its own exception carrying its own diagnostics data
+ * and caller frames. <br>
+ * <br>
+ * Only requests that are in flight at the same time are coalesced; a request started after the shared exchange has
+ * completed is sent anew. Requests whose body is streamed, e.g. as an {@link java.io.InputStream} or to a file, are
+ * never coalesced, as buffering their body would defeat the purpose. Of error responses, at most
+ * {@link ClientConfig#getMaxErrorBodyBytes()} bytes are buffered.
+ */
+public final class RequestCoalescer
+{
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD");
+
+    @Value
+    private static class Key
+    {
+        String method;
+        URI uri;
+        HttpHeaders headers;
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder exchangeCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Returns the number of exchanges that were actually sent.
+     */
+    public long getExchangeCount()
+    {
+        return exchangeCount.sum();
+    }
+
+    /**
+     * Returns the number of requests that joined an exchange already in flight instead of being sent.
+     */
+    public long getCoalescedCount()
+    {
+        return coalescedCount.sum();
+    }
+
+    boolean isApplicable(HttpRequest request)
+    {
+        return SAFE_METHODS.contains(request.method());
+    }
+
+    /**
+     * @param maxErrorBodyBytes the number of bytes to keep of the body of an error response; the remainder is
+     * discarded. Each request then captures the shared prefix as if it were the complete body.
+     */
+    <T> CompletableFuture<HttpResponse<T>> exchange(
+        HttpClient httpClient, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, int maxErrorBodyBytes)
+    {
+        var key = new Key(request.method(), request.uri(), request.headers());
+        var shared = new CompletableFuture<BufferedResponse>();
+        CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null)
+        {
+            coalescedCount.increment();
+            return replay(existing, request, bodyHandler);
+        }
+
+        exchangeCount.increment();
+        httpClient.sendAsync(request, createSharedBodyHandler(maxErrorBodyBytes))
+            .whenComplete((response, throwable) -> {
+                inFlight.remove(key, shared);
+                if (throwable != null)
+                {
+                    shared.completeExceptionally(throwable);
+                }
+                else
+                {
+                    shared.complete(new BufferedResponse(response.statusCode(),
+                        response.headers(),
+                        response.version(),
+                        response.body()));
+                }
+            });
+        return replay(shared, request, bodyHandler);
+    }
+
+    private static HttpResponse.BodyHandler<byte[]> createSharedBodyHandler(int maxErrorBodyBytes)
+    {
+        return responseInfo -> {
+            int statusCode = responseInfo.statusCode();
+            if (statusCode >= 200 && statusCode < 300)
+            {
+                return HttpResponse.BodySubscribers.ofByteArray();
+            }
+            return new PrefixBodySubscriber(maxErrorBodyBytes);
+        };
+    }
+
+    /**
+     * Keeps the first bytes of a body and discards the rest.
+     */
+    @RequiredArgsConstructor
+    private static final class PrefixBodySubscriber implements HttpResponse.BodySubscriber<byte[]>
+    {
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        private final int maxBytes;
+
+        @Override
+        public CompletionStage<byte[]> getBody()
+        {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items)
+        {
+            for (ByteBuffer item : items)
+            {
+                int length = Math.min(item.remaining(), maxBytes - prefix.size());
+                if (length > 0)
+                {
+                    byte[] bytes = new byte[length];
+                    item.get(bytes);
+                    prefix.writeBytes(bytes);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            result.complete(prefix.toByteArray());
+        }
+    }
+
+    /**
+     * Converts the shared response for an individual request. Failures are passed on as is (instead of being wrapped
+     * in a {@link java.util.concurrent.CompletionException}) to match the behavior of an exchange sent on its own.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> replay(
+        CompletableFuture<BufferedResponse> shared, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        var result = new CompletableFuture<HttpResponse<T>>();
+        shared.whenComplete((bufferedResponse, throwable) -> {
+            if (throwable != null)
+            {
+                result.completeExceptionally(throwable);
+                return;
+            }
+
+            bufferedResponse.replay(request, bodyHandler)
+                .whenComplete((response, replayThrowable) -> {
+                    if (replayThrowable != null)
+                    {
+                        result.completeExceptionally(replayThrowable);
+                    }
+                    else
+                    {
+                        result.complete(response);
+                    }
+                });
+        });
+        return result;
+    }
+}
@@ -16,4 +16,26 @@ public interface RequestCustomizer
      * @param builder the builder representing the request to be sent.
      */
     void customize(HttpRequest.Builder builder);
+
+    /**
+     * Whether this customizer always makes the same modification, regardless of the request and the time at which it
+     * is sent. A typical example is setting a fixed header. <br>
+     * <br>
+     * {@link StandardRestClient} applies static customizers of its client config to its request template once, so
+     * they do not add any cost to individual requests. Consequently, they must not depend on the URI, method or body
+     * of the request. All other customizers are invoked for every request. <br>
+     * <br>
+     * Being applied to the template also means that static customizers run before the request is completed. Headers
+     * set for the individual request, e.g. {@code Content-Type} for a body or {@code Accept} when negotiating the
+     * media type, overwrite those set by a static customizer. Likewise, static customizers run before all other
+     * customizers, regardless of the order in which they were registered. Customizers that need to see or change the
+     * final request must therefore not be static.
+     *
+     * @return {@code true} if the customizer is static, {@code false} otherwise. The default implementation returns
+     * {@code false}.
+     */
+    default boolean isStatic()
+    {
+        return false;
+    }
 }
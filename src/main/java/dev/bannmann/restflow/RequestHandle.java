@@ -1,17 +1,28 @@
 package dev.bannmann.restflow;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.json.JsonArray;
 import javax.json.JsonObject;
+import javax.json.bind.Jsonb;
 
 import lombok.AccessLevel;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
+import dev.bannmann.restflow.util.HttpRequests;
 import dev.bannmann.restflow.util.Types;
 
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
@@ -22,20 +33,87 @@ public final class RequestHandle
 
     public <T> FetchHandle<T> returning(Class<T> responseClass)
     {
-        var responseBodyConfig = new ResponseBodyConfig<>(HttpResponse.BodyHandlers.ofString(),
-            s -> clientConfig.getJsonb()
-                .fromJson(s, responseClass));
-        var spec = new RequestSpecification<>(request, responseBodyConfig, clientConfig);
-        return new FetchHandle<>(spec);
+        return createObjectFetchHandle(responseClass);
     }
 
     public <T> FetchHandle<T> returning(Type runtimeType)
     {
-        var responseBodyConfig = new ResponseBodyConfig<String, T>(HttpResponse.BodyHandlers.ofString(),
-            s -> clientConfig.getJsonb()
-                .fromJson(s, runtimeType));
-        var spec = new RequestSpecification<>(request, responseBodyConfig, clientConfig);
-        return new FetchHandle<>(spec);
+        return createObjectFetchHandle(runtimeType);
+    }
+
+    private <T> FetchHandle<T> createObjectFetchHandle(Type type)
+    {
+        return new FetchHandle<>(createSpecification(createObjectRequest(), createObjectBodyConfig(type)));
+    }
+
+    private HttpRequest createObjectRequest()
+    {
+        List<BodyCodec> bodyCodecs = clientConfig.getBodyCodecs();
+        if (bodyCodecs.isEmpty())
+        {
+            return request;
+        }
+        return negotiateMediaType(bodyCodecs);
+    }
+
+    private <T> ResponseBodyConfig<?, T> createObjectBodyConfig(Type type)
+    {
+        if (clientConfig.getBodyCodecs()
+            .isEmpty())
+        {
+            return createJsonBodyConfig(type);
+        }
+
+        ResponseConverter<byte[], T> converter = (bytes, context) -> BodyCodecs.decode(BodyCodecs.getResponseCodec(
+            clientConfig,
+            context.getContentType()), new ByteArrayInputStream(bytes), type);
+        return new ResponseBodyConfig<>(HttpResponse.BodyHandlers.ofByteArray(), converter);
+    }
+
+    private HttpRequest negotiateMediaType(List<BodyCodec> bodyCodecs)
+    {
+        if (request.headers()
+            .firstValue("Accept")
+            .isPresent())
+        {
+            return request;
+        }
+
+        return HttpRequests.toBuilder(request)
+            .header("Accept", BodyCodecs.createAcceptHeader(bodyCodecs))
+            .build();
+    }
+
+    private <T> ResponseBodyConfig<?, T> createJsonBodyConfig(Type type)
+    {
+        Jsonb jsonb = clientConfig.getJsonb();
+        if (clientConfig.isBinaryJsonDecoding())
+        {
+            return new ResponseBodyConfig<byte[], T>(HttpResponse.BodyHandlers.ofByteArray(),
+                bytes -> jsonb.fromJson(new ByteArrayInputStream(bytes), type));
+        }
+
+        return new ResponseBodyConfig<String, T>(HttpResponse.BodyHandlers.ofString(), s -> jsonb.fromJson(s, type));
+    }
+
+    private <B, T> FetchHandle<T> createFetchHandle(ResponseBodyConfig<B, T> responseBodyConfig)
+    {
+        return new FetchHandle<>(createSpecification(responseBodyConfig));
+    }
+
+    private <B, T> RequestSpecification<B, T> createSpecification(ResponseBodyConfig<B, T> responseBodyConfig)
+    {
+        return createSpecification(request, responseBodyConfig);
+    }
+
+    private <B, T> RequestSpecification<B, T> createSpecification(
+        HttpRequest request, ResponseBodyConfig<B, T> responseBodyConfig)
+    {
+        return RequestSpecification.<B, T>builder()
+            .request(request)
+            .responseBodyConfig(responseBodyConfig)
+            .clientConfig(clientConfig)
+            .build();
     }
 
     public <T> FetchHandle<List<T>> returningListOf(Class<T> elementClass)
@@ -43,6 +121,137 @@ public final class RequestHandle
         return returning(Types.listOf(elementClass));
     }
 
+    /**
+     * Requests a JSON array and binds its elements incrementally as they arrive. The stream is available as soon as
+     * the response headers have been received; elements are read from the connection as the stream is consumed. <br>
+     * <br>
+     * The returned stream must be closed if it is not consumed completely. Failures to parse or bind an element are
+     * thrown from the stream operation as {@link ResponseBodyException}.
+     */
+    public <T> FetchHandle<Stream<T>> returningStreamOf(Class<T> elementClass)
+    {
+        ResponseConverter<InputStream, Stream<T>> converter = (inputStream, context) -> new JsonArrayElements<>(
+            inputStream,
+            elementClass,
+            clientConfig.getJsonb(),
+            context).stream();
+        return createFetchHandle(ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofInputStream(), converter));
+    }
+
+    /**
+     * Requests a JSON array and publishes its elements incrementally as they arrive. Elements are only read from the
+     * connection while the subscriber has outstanding demand. The publisher supports a single subscriber. <br>
+     * <br>
+     * Failures to parse or bind an element are signalled to the subscriber as {@link ResponseBodyException}.
+     */
+    public <T> FetchHandle<Flow.Publisher<T>> returningPublisherOf(Class<T> elementClass)
+    {
+        ResponseConverter<InputStream, Flow.Publisher<T>> converter = (inputStream, context) -> new JsonArrayElements<>(
+            inputStream,
+            elementClass,
+            clientConfig.getJsonb(),
+            context).publisher();
+        return createFetchHandle(ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofInputStream(), converter));
+    }
+
+    /**
+     * Requests newline-delimited JSON (also known as JSON Lines) and binds the records incrementally as they arrive.
+     * Lines are split on the raw bytes without decoding the body as a whole. The stream is available as soon as the
+     * response headers have been received. <br>
+     * <br>
+     * The returned stream must be closed if it is not consumed completely. Failures to parse or bind a record are
+     * thrown from the stream operation as {@link ResponseBodyException} which states the line number and offset.
+     */
+    public <T> FetchHandle<Stream<T>> returningNdjsonStreamOf(Class<T> recordClass)
+    {
+        ResponseConverter<InputStream, Stream<T>> converter = (inputStream, context) -> new NdjsonRecords<>(inputStream,
+            recordClass,
+            clientConfig.getJsonb(),
+            context).stream();
+        return createFetchHandle(ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofInputStream(), converter));
+    }
+
+    /**
+     * Requests newline-delimited JSON (also known as JSON Lines) and publishes the records incrementally as they
+     * arrive. Records are only read from the connection while the subscriber has outstanding demand. The publisher
+     * supports a single subscriber. <br>
+     * <br>
+     * Failures to parse or bind a record are signalled to the subscriber as {@link ResponseBodyException} which states
+     * the line number and offset.
+     */
+    public <T> FetchHandle<Flow.Publisher<T>> returningNdjsonPublisherOf(Class<T> recordClass)
+    {
+        ResponseConverter<InputStream, Flow.Publisher<T>> converter = (inputStream, context) -> new NdjsonRecords<>(
+            inputStream,
+            recordClass,
+            clientConfig.getJsonb(),
+            context).publisher();
+        return createFetchHandle(ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofInputStream(), converter));
+    }
+
+    /**
+     * Requests a paged collection where each page is an array of elements, following the {@code Link} header to the
+     * next page by default.
+     */
+    public <T> Pagination<List<T>, T> paginatingListOf(Class<T> elementClass)
+    {
+        return createPagination(Types.listOf(elementClass), Function.identity());
+    }
+
+    /**
+     * Requests a paged collection where each page is an object that contains the elements, e.g. along with a cursor for
+     * the next page.
+     *
+     * @param pageClass the class the pages are bound to
+     * @param elementExtractor returns the elements of a page
+     */
+    public <P, T> Pagination<P, T> paginating(
+        @NonNull Class<P> pageClass, @NonNull Function<P, ? extends Iterable<T>> elementExtractor)
+    {
+        return createPagination(pageClass, elementExtractor);
+    }
+
+    private <P, T> Pagination<P, T> createPagination(
+        Type pageType, Function<P, ? extends Iterable<T>> elementExtractor)
+    {
+        HttpRequest pageRequest = createObjectRequest();
+        ResponseBodyConfig<?, Page<P>> responseBodyConfig = this.<P>createObjectBodyConfig(pageType)
+            .thenConvert((body, context) -> new Page<>(context.getUri(), context.getHeaders(), body));
+        Function<URI, CompletableFuture<Page<P>>> pageFetcher = uri -> new FetchHandle<>(createSpecification(
+            HttpRequests.toBuilder(pageRequest)
+                .uri(uri)
+                .build(),
+            responseBodyConfig)).fetch();
+        return Pagination.of(request.uri(), pageFetcher, elementExtractor);
+    }
+
+    /**
+     * Subscribes to server-sent events. The {@code data} of each event is bound to the given class with the configured
+     * JSON-B instance, or passed on unchanged if it is {@code String}.
+     *
+     * @see EventStream
+     */
+    public <T> EventStream<T> returningEventsOf(Class<T> dataClass)
+    {
+        Jsonb jsonb = clientConfig.getJsonb();
+        Function<String, T> dataBinder = dataClass == String.class
+            ? dataClass::cast
+            : data -> jsonb.fromJson(data, dataClass);
+        EventStream.Connector connector = (lastEventId, bodyHandler) -> {
+            HttpRequest.Builder builder = HttpRequests.toBuilder(request)
+                .setHeader("Accept", EventStream.MEDIA_TYPE)
+                .setHeader("Cache-Control", "no-cache");
+            if (lastEventId != null)
+            {
+                builder.setHeader("Last-Event-ID", lastEventId);
+            }
+
+            var responseBodyConfig = ResponseBodyConfig.<Void, Void>streamed(bodyHandler, v -> null);
+            return new FetchHandle<>(createSpecification(builder.build(), responseBodyConfig).asStreaming()).fetch();
+        };
+        return EventStream.of(connector, dataBinder);
+    }
+
     public FetchHandle<JsonObject> returningJsonObject()
     {
         return returning(JsonObject.class);
@@ -56,23 +265,41 @@ public final class RequestHandle
     public FetchHandle<String> returningString()
     {
         var responseBodyConfig = new ResponseBodyConfig<>(HttpResponse.BodyHandlers.ofString(), string -> string);
-        var spec = new RequestSpecification<>(request, responseBodyConfig, clientConfig);
-        return new FetchHandle<>(spec);
+        return new FetchHandle<>(createSpecification(responseBodyConfig));
     }
 
     public FetchHandle<InputStream> returningInputStream()
     {
-        var responseBodyConfig = new ResponseBodyConfig<>(HttpResponse.BodyHandlers.ofInputStream(),
-            inputStream -> inputStream);
-        var spec = new RequestSpecification<>(request, responseBodyConfig, clientConfig);
-        return new FetchHandle<>(spec);
+        var responseBodyConfig = ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofInputStream(),
+            (InputStream inputStream) -> inputStream);
+        return new FetchHandle<>(createSpecification(responseBodyConfig));
+    }
+
+    /**
+     * Writes the response body to the given file as it arrives, which avoids holding the body in memory. An existing
+     * file is overwritten. The fetched value is the path of the file. <br>
+     * <br>
+     * The file is only written for successful responses. The body of an error response is captured in the
+     * {@link ResponseStatusException} instead, limited to {@link ClientConfig#getMaxErrorBodyBytes()}. <br>
+     * <br>
+     * File downloads bypass the {@link ClientConfig#getResponseCache() response cache},
+     * {@link ClientConfig#getRequestCoalescer() request coalescing} and
+     * {@link ClientConfig#getHedgingPolicy() hedging}, as they would buffer the body in memory or write to the file
+     * concurrently.
+     */
+    public FetchHandle<Path> returningFile(@NonNull Path file)
+    {
+        var responseBodyConfig = ResponseBodyConfig.streamed(HttpResponse.BodyHandlers.ofFile(file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING), (Path path) -> path);
+        return new FetchHandle<>(createSpecification(responseBodyConfig));
     }
 
     public ExecuteHandle returningNothing()
     {
-        // Note: we use ofString() handler because discarding() would also discard the body of an error response.
-        var responseBodyConfig = new ResponseBodyConfig<String, Void>(HttpResponse.BodyHandlers.ofString(), v -> null);
-        var spec = new RequestSpecification<>(request, responseBodyConfig, clientConfig);
-        return new ExecuteHandle(spec);
+        // Note: discarding() only applies to successful responses, as requesters capture the body of error responses.
+        var responseBodyConfig = new ResponseBodyConfig<Void, Void>(HttpResponse.BodyHandlers.discarding(), v -> null);
+        return new ExecuteHandle(createSpecification(responseBodyConfig));
     }
 }
@@ -0,0 +1,120 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Receives events about the phases of each request sent by a client. All timestamps are values of
+ * {@link System#nanoTime()}, so they can only be compared with each other. <br>
+ * <br>
+ * For a single request, callbacks occur in this order:
+ * <ol>
+ *     <li>{@link #customizersApplied} when the request is created from the handle, unless there are no customizers to
+ *     apply</li>
+ *     <li>{@link #requestStarted} when the request is started</li>
+ *     <li>for each attempt: {@link #attemptStarted}, {@link #headersReceived} (if the server responded) and either
+ *     {@link #attemptSucceeded} or {@link #attemptFailed}</li>
+ *     <li>{@link #responseConverted} if a usable response was received</li>
+ *     <li>{@link #requestFailed} if the request as a whole failed</li>
+ * </ol>
+ * The time between {@link #requestStarted} and the first {@link #attemptStarted} (or between one attempt's end and
+ * the next attempt's start) is spent in the configured {@link ClientConfig#getPolicies() policies}. Responses served
+ * from a {@link ResponseCache} without contacting the server do not cause any attempt callbacks. <br>
+ * <br>
+ * Callbacks are invoked on whatever thread happens to complete the respective phase, including threads of the
+ * {@link java.net.http.HttpClient HttpClient}. Implementations must therefore be thread-safe, return quickly and must
+ * not throw exceptions.
+ */
+public interface RequestListener
+{
+    /**
+     * Called after all {@link RequestCustomizer request customizers} were applied.
+     *
+     * @param request the customized request
+     * @param startNanos the time at which the first customizer was invoked
+     * @param endNanos the time at which the last customizer returned
+     */
+    default void customizersApplied(HttpRequest request, long startNanos, long endNanos)
+    {
+    }
+
+    /**
+     * Called when the request is started, i.e. before any policies are applied.
+     *
+     * @param request the request
+     * @param nanos the current time
+     */
+    default void requestStarted(HttpRequest request, long nanos)
+    {
+    }
+
+    /**
+     * Called right before an attempt is handed to the HTTP client or, if configured, the concurrency limiter.
+     *
+     * @param request the request
+     * @param attempt the number of the attempt, starting at 1
+     * @param nanos the current time
+     */
+    default void attemptStarted(HttpRequest request, int attempt, long nanos)
+    {
+    }
+
+    /**
+     * Called when the status line and headers of a response have been received, before the body is read.
+     *
+     * @param request the request
+     * @param attempt the number of the attempt, starting at 1
+     * @param statusCode the response status code
+     * @param nanos the current time
+     */
+    default void headersReceived(HttpRequest request, int attempt, int statusCode, long nanos)
+    {
+    }
+
+    /**
+     * Called when the response body of an attempt has been received and the response status was acceptable. For
+     * streaming response types, this happens as soon as the stream is available.
+     *
+     * @param request the request
+     * @param attempt the number of the attempt, starting at 1
+     * @param statusCode the response status code
+     * @param nanos the current time
+     */
+    default void attemptSucceeded(HttpRequest request, int attempt, int statusCode, long nanos)
+    {
+    }
+
+    /**
+     * Called when an attempt failed, either due to a low-level error or an unacceptable response status.
+     *
+     * @param request the request
+     * @param attempt the number of the attempt, starting at 1
+     * @param failure the reason for the failure
+     * @param nanos the current time
+     */
+    default void attemptFailed(HttpRequest request, int attempt, Throwable failure, long nanos)
+    {
+    }
+
+    /**
+     * Called after the response body was converted to the requested type.
+     *
+     * @param request the request
+     * @param startNanos the time at which conversion started
+     * @param endNanos the time at which conversion ended
+     */
+    default void responseConverted(HttpRequest request, long startNanos, long endNanos)
+    {
+    }
+
+    /**
+     * Called when the request as a whole failed, i.e. after the last attempt failed or conversion of the response
+     * body failed.
+     *
+     * @param request the request
+     * @param failure the reason for the failure
+     * @param nanos the current time
+     */
+    default void requestFailed(HttpRequest request, Throwable failure, long nanos)
+    {
+    }
+}
@@ -1,6 +1,9 @@
 package dev.bannmann.restflow;
 
 import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -13,6 +16,7 @@ import dev.bannmann.restflow.util.HttpRequests;
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 final class RequestSpecification<B, R>
 {
+    @Getter
     private final HttpRequest request;
 
     @Getter
@@ -21,23 +25,121 @@ final class RequestSpecification<B, R>
     @Getter
     private final ClientConfig clientConfig;
 
+    /**
+     * Whether this request must be sent on its own even if the client config enables request coalescing.
+     */
+    @Getter
+    private final boolean coalescingDisabled;
+
+    /**
+     * Whether the response body is a long-lived stream that is consumed as it arrives, e.g. server-sent events. Such
+     * requests are not cached, coalesced or hedged, and no time budget applies to them.
+     */
+    @Getter
+    private final boolean streaming;
+
+    /**
+     * The point in time by which this request must be completed, or {@code null} to use {@link #timeBudget}.
+     */
+    private final Instant deadline;
+
+    /**
+     * The time this request may take from being started, or {@code null} to use the default of the client config.
+     */
+    private final Duration timeBudget;
+
+    /**
+     * Customizers added for this request only. They are applied after the customizers of the client config.
+     */
+    @Builder.Default
+    private final CustomizerChain customizers = CustomizerChain.empty();
+
+    /**
+     * Returns whether the response is received in full before it is converted. Only such requests may use the
+     * response cache, request coalescing or hedging, which buffer responses or receive them more than once.
+     */
+    public boolean isBuffered()
+    {
+        return responseBodyConfig.isBuffered() && !streaming;
+    }
+
     public RequestSpecification<B, R> withCustomizer(RequestCustomizer requestCustomizer)
     {
-        ClientConfig newClientConfig = getClientConfig().toBuilder()
-            .requestCustomizer(requestCustomizer)
+        return toBuilder().customizers(customizers.append(requestCustomizer))
             .build();
+    }
+
+    public RequestSpecification<B, R> withoutCoalescing()
+    {
+        return toBuilder().coalescingDisabled(true)
+            .build();
+    }
 
-        return toBuilder().clientConfig(newClientConfig)
+    public RequestSpecification<B, R> asStreaming()
+    {
+        return toBuilder().streaming(true)
+            .build();
+    }
+
+    public RequestSpecification<B, R> withDeadline(Instant deadline)
+    {
+        return toBuilder().deadline(deadline)
+            .timeBudget(null)
             .build();
     }
 
+    public RequestSpecification<B, R> withTimeBudget(Duration timeBudget)
+    {
+        return toBuilder().timeBudget(timeBudget)
+            .deadline(null)
+            .build();
+    }
+
+    /**
+     * Returns the time remaining for this request if it were started now, or {@code null} if it has no deadline or is
+     * {@link #isStreaming() streaming}.
+     */
+    public Duration calculateTimeBudget()
+    {
+        if (streaming)
+        {
+            return null;
+        }
+        if (deadline != null)
+        {
+            return Duration.between(Instant.now(), deadline);
+        }
+        if (timeBudget != null)
+        {
+            return timeBudget;
+        }
+        return clientConfig.getDefaultTimeBudget();
+    }
+
     public HttpRequest createFinalRequest()
     {
+        List<RequestCustomizer> configCustomizers = clientConfig.getRequestCustomizers();
+        if (configCustomizers.isEmpty() && customizers.isEmpty())
+        {
+            // Avoid copying the request if there is nothing to customize
+            return request;
+        }
+
+        RequestListener requestListener = clientConfig.getRequestListener();
+        long startNanos = requestListener != null ? System.nanoTime() : 0;
+
         HttpRequest.Builder builder = HttpRequests.toBuilder(request);
-        for (RequestCustomizer customizer : clientConfig.getRequestCustomizers())
+        for (RequestCustomizer customizer : configCustomizers)
         {
             customizer.customize(builder);
         }
-        return builder.build();
+        customizers.applyTo(builder);
+        HttpRequest result = builder.build();
+
+        if (requestListener != null)
+        {
+            requestListener.customizersApplied(result, startNanos, System.nanoTime());
+        }
+        return result;
     }
 }
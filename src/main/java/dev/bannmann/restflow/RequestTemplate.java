@@ -45,4 +45,14 @@ final class RequestTemplate
         return builder.copy()
             .uri(resourceUrl.toUri());
     }
+
+    /**
+     * Creates an immutable snapshot of the template with the base URL as URI.
+     */
+    public HttpRequest createPrototype()
+    {
+        return builder.copy()
+            .uri(baseUrl.toUri())
+            .build();
+    }
 }
@@ -5,4 +5,11 @@ import java.util.concurrent.CompletableFuture;
 interface Requester<T>
 {
     CompletableFuture<T> start();
+
+    /**
+     * Sends the request on the calling thread and waits for the result.
+     *
+     * @throws RequestException if the request fails
+     */
+    T startBlocking();
 }
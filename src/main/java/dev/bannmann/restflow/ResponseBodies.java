@@ -0,0 +1,98 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.base.Utf8;
+import com.google.common.io.ByteStreams;
+
+@Slf4j
+@UtilityClass
+class ResponseBodies
+{
+    /**
+     * Returns the text of the given response body, decoding raw bytes as UTF-8.
+     */
+    public String toText(Object body)
+    {
+        if (body == null)
+        {
+            return null;
+        }
+
+        if (body instanceof byte[])
+        {
+            return new String((byte[]) body, StandardCharsets.UTF_8);
+        }
+
+        return body.toString();
+    }
+
+    /**
+     * Captures at most {@code maxBytes} bytes of the given response body. If the body is a stream, the remainder is
+     * read and discarded, and the stream is closed. For bodies that were already received as text, the limit applies
+     * to characters instead of bytes.
+     *
+     * @throws IOException if reading the stream fails
+     */
+    public CapturedBody capture(Object body, int maxBytes) throws IOException
+    {
+        if (body == null)
+        {
+            return new CapturedBody("", 0, false);
+        }
+
+        if (body instanceof InputStream)
+        {
+            try (InputStream inputStream = (InputStream) body)
+            {
+                byte[] prefix = ByteStreams.toByteArray(ByteStreams.limit(inputStream, maxBytes));
+                long remainder = ByteStreams.exhaust(inputStream);
+                return createCapturedBody(prefix, prefix.length, prefix.length + remainder);
+            }
+        }
+
+        if (body instanceof byte[])
+        {
+            byte[] bytes = (byte[]) body;
+            return createCapturedBody(bytes, Math.min(bytes.length, maxBytes), bytes.length);
+        }
+
+        String text = body.toString();
+        long totalLength = Utf8.encodedLength(text);
+        if (text.length() > maxBytes)
+        {
+            return new CapturedBody(text.substring(0, maxBytes), totalLength, true);
+        }
+        return new CapturedBody(text, totalLength, false);
+    }
+
+    /**
+     * Closes the given response body if it holds on to the connection, e.g. because it is a stream. Other bodies were
+     * already read completely and are left alone.
+     */
+    public void close(Object body)
+    {
+        if (body instanceof AutoCloseable)
+        {
+            try
+            {
+                ((AutoCloseable) body).close();
+            }
+            catch (Exception e)
+            {
+                log.debug("Could not close response body", e);
+            }
+        }
+    }
+
+    private CapturedBody createCapturedBody(byte[] bytes, int capturedLength, long totalLength)
+    {
+        String text = new String(bytes, 0, capturedLength, StandardCharsets.UTF_8);
+        return new CapturedBody(text, totalLength, capturedLength < totalLength);
+    }
+}
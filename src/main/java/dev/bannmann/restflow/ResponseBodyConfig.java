@@ -3,13 +3,56 @@ package dev.bannmann.restflow;
 import java.net.http.HttpResponse;
 import java.util.function.Function;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 @Getter
-@RequiredArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 final class ResponseBodyConfig<B, R>
 {
+    /**
+     * Creates a config whose body handler passes the body on while it is being received, e.g. as an
+     * {@link java.io.InputStream}. Such bodies are not buffered for sharing with other requests.
+     */
+    public static <B, R> ResponseBodyConfig<B, R> streamed(
+        HttpResponse.BodyHandler<B> bodyHandler, ResponseConverter<B, R> responseConverter)
+    {
+        return new ResponseBodyConfig<>(bodyHandler, responseConverter, false);
+    }
+
+    public static <B, R> ResponseBodyConfig<B, R> streamed(
+        HttpResponse.BodyHandler<B> bodyHandler, Function<B, R> responseConverter)
+    {
+        return streamed(bodyHandler, (body, context) -> responseConverter.apply(body));
+    }
+
     private final HttpResponse.BodyHandler<B> bodyHandler;
-    private final Function<B, R> responseConverter;
+    private final ResponseConverter<B, R> responseConverter;
+
+    /**
+     * Whether the body handler receives the complete body before the response is available. Only such responses may
+     * be buffered in full to share them with other requests, e.g. by the {@link RequestCoalescer}.
+     */
+    private final boolean buffered;
+
+    public ResponseBodyConfig(HttpResponse.BodyHandler<B> bodyHandler, ResponseConverter<B, R> responseConverter)
+    {
+        this(bodyHandler, responseConverter, true);
+    }
+
+    public ResponseBodyConfig(HttpResponse.BodyHandler<B> bodyHandler, Function<B, R> responseConverter)
+    {
+        this(bodyHandler, (body, context) -> responseConverter.apply(body));
+    }
+
+    /**
+     * Returns a config which additionally applies the given converter to the result of this config's converter.
+     */
+    public <U> ResponseBodyConfig<B, U> thenConvert(ResponseConverter<R, U> nextConverter)
+    {
+        return new ResponseBodyConfig<>(bodyHandler,
+            (body, context) -> nextConverter.convert(responseConverter.convert(body, context), context),
+            buffered);
+    }
 }
@@ -0,0 +1,246 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import lombok.Builder;
+import lombok.Value;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Caches responses to {@code GET} requests in memory, following the rules of RFC 9111 for a private cache. Fresh
+ * responses are served without contacting the server; stale responses with an {@code ETag} or {@code Last-Modified}
+ * header are revalidated with a conditional request. <br>
+ * <br>
+ * Entries hold the raw body bytes, so each request converts the body anew and never receives an object shared with
+ * another request. The cache is bounded by the total size of the bodies and evicts the least recently used entries
+ * first. <br>
+ * <br>
+ * Entries are keyed by method, URI and the request headers that select a representation or identify the caller, e.g.
+ * {@code Authorization} and {@code Accept}. This keeps callers sharing a {@link ClientConfig} from receiving each
+ * other's data, while headers that change on every request, e.g. request IDs or trace headers, do not prevent hits.
+ * Responses with a {@code Vary} header are only stored if it lists no other headers. Requests that carry their own
+ * conditional or range headers bypass the cache, as do requests whose body is streamed, e.g. file downloads.
+ */
+public final class ResponseCache
+{
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+
+    /**
+     * The request headers that are part of the key, in lower case.
+     */
+    static final Set<String> KEY_HEADERS = ImmutableSet.of("authorization",
+        "cookie",
+        "accept",
+        "accept-encoding",
+        "accept-language");
+
+    @Value
+    private static class Key
+    {
+        String method;
+        URI uri;
+        Map<String, List<String>> headers;
+
+        static Key of(HttpRequest request)
+        {
+            HttpHeaders requestHeaders = request.headers();
+            ImmutableMap.Builder<String, List<String>> headers = ImmutableMap.builder();
+            for (String name : KEY_HEADERS)
+            {
+                List<String> values = requestHeaders.allValues(name);
+                if (!values.isEmpty())
+                {
+                    headers.put(name, values);
+                }
+            }
+            return new Key(request.method(), request.uri(), headers.build());
+        }
+    }
+
+    private final Cache<Key, CachedResponse> entries;
+    private final int maximumEntryWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder revalidationCount = new LongAdder();
+
+    /**
+     * @param maximumWeight the maximum number of body bytes held by the cache
+     * @param maximumEntryWeight the maximum number of body bytes of a response to be stored; defaults to
+     * {@code maximumWeight}
+     */
+    @Builder
+    private ResponseCache(long maximumWeight, int maximumEntryWeight)
+    {
+        Preconditions.checkArgument(maximumWeight > 0, "maximumWeight must be positive");
+        Preconditions.checkArgument(maximumEntryWeight >= 0, "maximumEntryWeight must not be negative");
+
+        entries = CacheBuilder.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((Key key, CachedResponse response) -> response.getWeight())
+            .recordStats()
+            .build();
+
+        if (maximumEntryWeight > 0)
+        {
+            this.maximumEntryWeight = maximumEntryWeight;
+        }
+        else
+        {
+            this.maximumEntryWeight = (int) Math.min(maximumWeight, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Returns the number of requests that were answered from the cache without contacting the server.
+     */
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of cacheable requests that were sent to the server and received a full response.
+     */
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of requests for which the server confirmed a stale entry with {@code 304 Not Modified}.
+     */
+    public long getRevalidationCount()
+    {
+        return revalidationCount.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return entries.stats()
+            .evictionCount();
+    }
+
+    public void invalidateAll()
+    {
+        entries.invalidateAll();
+    }
+
+    boolean isApplicable(HttpRequest request)
+    {
+        if (!request.method()
+            .equals("GET"))
+        {
+            return false;
+        }
+
+        var headers = request.headers();
+        if (headers.firstValue("If-None-Match")
+            .isPresent() ||
+            headers.firstValue("If-Modified-Since")
+                .isPresent() ||
+            headers.firstValue("Range")
+                .isPresent())
+        {
+            return false;
+        }
+
+        return !CacheControl.of(headers)
+            .isNoStore();
+    }
+
+    /**
+     * Returns a response created from a fresh entry, or {@code null} if there is none.
+     */
+    <T> CompletableFuture<HttpResponse<T>> lookup(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        CacheControl requestCacheControl = CacheControl.of(request.headers());
+        if (requestCacheControl.isNoCache() || requestCacheControl.getMaxAgeSeconds() == 0)
+        {
+            return null;
+        }
+
+        CachedResponse entry = entries.getIfPresent(Key.of(request));
+        if (entry == null || !entry.isFresh())
+        {
+            return null;
+        }
+
+        hitCount.increment();
+        return entry.getResponse()
+            .replay(request, bodyHandler);
+    }
+
+    /**
+     * Sends the attempt request via the given transmitter, revalidating a stale entry if possible and storing the
+     * response if it is cacheable. Entries are keyed by the original request, as attempts may carry additional headers
+     * that change on every attempt, e.g. the remaining time until the deadline.
+     */
+    <T> CompletableFuture<HttpResponse<T>> exchange(
+        HttpRequest request,
+        HttpRequest attemptRequest,
+        HttpResponse.BodyHandler<T> bodyHandler,
+        BiFunction<HttpRequest, HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> transmitter)
+    {
+        Key key = Key.of(request);
+        CachedResponse entry = entries.getIfPresent(key);
+        HttpRequest outgoingRequest = entry != null ? entry.addValidators(attemptRequest) : attemptRequest;
+
+        HttpResponse.BodyHandler<T> recordingBodyHandler = responseInfo -> createSubscriber(key,
+            responseInfo,
+            bodyHandler);
+        return transmitter.apply(outgoingRequest, recordingBodyHandler)
+            .thenCompose(response -> {
+                if (response.statusCode() == NOT_MODIFIED && entry != null)
+                {
+                    revalidationCount.increment();
+                    CachedResponse refreshed = entry.refresh(response.headers());
+                    entries.put(key, refreshed);
+                    return refreshed.getResponse()
+                        .replay(request, bodyHandler);
+                }
+
+                missCount.increment();
+                return CompletableFuture.completedFuture(response);
+            });
+    }
+
+    private <T> HttpResponse.BodySubscriber<T> createSubscriber(
+        Key key, HttpResponse.ResponseInfo responseInfo, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        if (responseInfo.statusCode() == NOT_MODIFIED)
+        {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+
+        HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+        if (responseInfo.statusCode() != OK || !CachedResponse.isStorable(responseInfo.headers()))
+        {
+            return subscriber;
+        }
+
+        long responseNanos = System.nanoTime();
+        return new RecordingBodySubscriber<>(subscriber, maximumEntryWeight, body -> {
+            var response = new BufferedResponse(responseInfo.statusCode(),
+                responseInfo.headers(),
+                responseInfo.version(),
+                body);
+            entries.put(key, CachedResponse.create(response, responseNanos));
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+final class ResponseContext
+{
+    private final HttpRequest request;
+    private final HttpResponse<?> response;
+    private final Map<String, Object> diagnosticsData;
+    private final List<StackWalker.StackFrame> callerFrames;
+
+    /**
+     * Returns the URI of the response, which differs from the one of the request if redirects were followed.
+     */
+    public URI getUri()
+    {
+        return response.uri();
+    }
+
+    public HttpHeaders getHeaders()
+    {
+        return response.headers();
+    }
+
+    /**
+     * Returns the value of the {@code Content-Type} header of the response, or {@code null} if there is none.
+     */
+    public String getContentType()
+    {
+        return response.headers()
+            .firstValue("Content-Type")
+            .orElse(null);
+    }
+
+    /**
+     * Creates an exception for a failure that occurred while processing a part of the response body.
+     *
+     * @param part describes the part of the body that could not be processed, e.g. {@code "element 5"}
+     */
+    public ResponseBodyException createBodyException(String part, Throwable cause)
+    {
+        String message = String.format("Could not process %s of response to %s %s",
+            part,
+            request.method(),
+            request.uri());
+        return new ResponseBodyException(message, cause, response, diagnosticsData, callerFrames);
+    }
+}
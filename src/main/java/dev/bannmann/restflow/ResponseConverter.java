@@ -0,0 +1,12 @@
+package dev.bannmann.restflow;
+
+/**
+ * Converts a response body to the result of a request. In contrast to a plain {@link java.util.function.Function},
+ * implementations have access to the {@link ResponseContext}, which allows reporting failures that occur after the
+ * request has completed, e.g. while a stream of elements is being consumed.
+ */
+@FunctionalInterface
+interface ResponseConverter<B, R>
+{
+    R convert(B body, ResponseContext context);
+}
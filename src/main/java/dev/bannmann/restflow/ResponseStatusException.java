@@ -11,14 +11,25 @@ import lombok.Builder;
  */
 public class ResponseStatusException extends InvalidResponseException
 {
+    public ResponseStatusException(
+        String message,
+        Throwable cause,
+        HttpResponse<?> response,
+        Map<String, Object> diagnosticsData,
+        List<StackWalker.StackFrame> callerFrames)
+    {
+        this(message, cause, response, null, diagnosticsData, callerFrames);
+    }
+
     @Builder
     public ResponseStatusException(
         String message,
         Throwable cause,
         HttpResponse<?> response,
+        CapturedBody capturedBody,
         Map<String, Object> diagnosticsData,
         List<StackWalker.StackFrame> callerFrames)
     {
-        super(message, cause, response, diagnosticsData, callerFrames);
+        super(message, cause, response, capturedBody, diagnosticsData, callerFrames);
     }
 }
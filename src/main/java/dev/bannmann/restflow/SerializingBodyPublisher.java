@@ -0,0 +1,157 @@
+package dev.bannmann.restflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Serializes the request body when the HTTP client subscribes instead of when the request is created. The serializer
+ * runs on a separate thread and writes into a small number of bounded chunks which are handed to the client as it
+ * requests them, so neither the complete body nor its text form is ever held in memory. <br>
+ * <br>
+ * The chunks are handed over via {@link HttpRequest.BodyPublishers#ofInputStream}, so a thread of the HTTP client
+ * blocks while it waits for the serializer to fill the next chunk. This is only noticeable for serializers that are
+ * slow compared to the network, and it avoids buffering the body in full. <br>
+ * <br>
+ * Each subscription serializes the body anew, which allows the request to be sent again, e.g. by a retry policy. If
+ * the client cancels a subscription, e.g. because the server responded early, the pipe is closed so that the serializer
+ * fails right away instead of waiting for a reader that never comes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class SerializingBodyPublisher implements HttpRequest.BodyPublisher
+{
+    @FunctionalInterface
+    interface BodyWriter
+    {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int CHUNK_COUNT = 4;
+
+    private final BodyWriter bodyWriter;
+
+    @Override
+    public long contentLength()
+    {
+        return -1;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber)
+    {
+        var serialization = new Serialization(subscriber);
+        HttpRequest.BodyPublishers.ofInputStream(serialization::start)
+            .subscribe(serialization);
+    }
+
+    private InputStream startSerialization()
+    {
+        var pipe = new ChunkPipe(CHUNK_SIZE, CHUNK_COUNT);
+        BlockingIo.EXECUTOR.execute(() -> {
+            try
+            {
+                OutputStream outputStream = pipe.outputStream();
+                bodyWriter.writeTo(outputStream);
+                outputStream.close();
+                pipe.complete();
+            }
+            catch (Throwable t)
+            {
+                // Errors such as StackOverflowError must reach the reader as well, or it would wait forever
+                pipe.fail(t);
+                Throwables.throwIfInstanceOf(t, Error.class);
+            }
+        });
+        return pipe.inputStream();
+    }
+
+    /**
+     * Passes the chunks on to the subscriber of the client and closes the pipe when it cancels, as the publisher of
+     * {@link HttpRequest.BodyPublishers#ofInputStream} does not close the stream in that case.
+     */
+    @RequiredArgsConstructor
+    private final class Serialization implements Flow.Subscriber<ByteBuffer>
+    {
+        private final Flow.Subscriber<? super ByteBuffer> delegate;
+
+        private volatile InputStream inputStream;
+        private volatile boolean cancelled;
+
+        public InputStream start()
+        {
+            InputStream result = startSerialization();
+            inputStream = result;
+            if (cancelled)
+            {
+                // The subscription was cancelled while the serialization was being started
+                closeQuietly(result);
+            }
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            delegate.onSubscribe(new Flow.Subscription()
+            {
+                @Override
+                public void request(long n)
+                {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel()
+                {
+                    subscription.cancel();
+                    cancelled = true;
+                    InputStream current = inputStream;
+                    if (current != null)
+                    {
+                        closeQuietly(current);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onNext(ByteBuffer item)
+        {
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            delegate.onComplete();
+        }
+
+        private void closeQuietly(InputStream stream)
+        {
+            try
+            {
+                stream.close();
+            }
+            catch (IOException e)
+            {
+                log.debug("Could not close serialization pipe", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dev.bannmann.restflow;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * An event received from an {@link EventStream}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class ServerSentEvent<T>
+{
+    /**
+     * The ID of this event or of the last event before it that had one, or {@code null} if no event had an ID yet.
+     */
+    String id;
+
+    /**
+     * The event type, which is {@code "message"} unless the server specified another one.
+     */
+    String type;
+
+    /**
+     * The payload of the event, bound from the {@code data} lines.
+     */
+    T data;
+}
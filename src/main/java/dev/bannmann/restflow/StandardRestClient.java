@@ -1,20 +1,30 @@
 package dev.bannmann.restflow;
 
+import java.io.FileNotFoundException;
 import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import javax.json.Json;
 import javax.json.JsonMergePatch;
 import javax.json.JsonPatch;
 import javax.json.JsonValue;
+import javax.json.JsonWriter;
 
 import lombok.Builder;
 import lombok.NonNull;
 
+import com.google.common.base.Utf8;
+
 public final class StandardRestClient
 {
     private static final String APPLICATION_JSON = "application/json";
     private static final String APPLICATION_JSON_PATCH_JSON = "application/json-patch+json";
     private static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
 
     private final ClientConfig clientConfig;
     private final RequestTemplate requestTemplate;
@@ -25,8 +35,75 @@ public final class StandardRestClient
     @Builder
     private StandardRestClient(@NonNull ClientConfig clientConfig, @NonNull HttpRequest.Builder requestTemplate)
     {
-        this.clientConfig = clientConfig;
-        this.requestTemplate = new RequestTemplate(requestTemplate);
+        this.clientConfig = withoutStaticCustomizers(clientConfig);
+        this.requestTemplate = new RequestTemplate(acceptCompressedResponses(clientConfig,
+            applyStaticCustomizers(clientConfig, requestTemplate)));
+    }
+
+    private static ClientConfig withoutStaticCustomizers(ClientConfig clientConfig)
+    {
+        List<RequestCustomizer> customizers = clientConfig.getRequestCustomizers();
+        if (customizers.stream()
+            .noneMatch(RequestCustomizer::isStatic))
+        {
+            return clientConfig;
+        }
+
+        return clientConfig.toBuilder()
+            .clearRequestCustomizers()
+            .requestCustomizers(customizers.stream()
+                .filter(customizer -> !customizer.isStatic())
+                .collect(Collectors.toList()))
+            .build();
+    }
+
+    private static HttpRequest.Builder applyStaticCustomizers(
+        ClientConfig clientConfig, HttpRequest.Builder requestTemplate)
+    {
+        List<RequestCustomizer> customizers = clientConfig.getRequestCustomizers();
+        if (customizers.stream()
+            .noneMatch(RequestCustomizer::isStatic))
+        {
+            return requestTemplate;
+        }
+
+        HttpRequest.Builder result = requestTemplate.copy();
+        for (RequestCustomizer customizer : customizers)
+        {
+            if (customizer.isStatic())
+            {
+                customizer.customize(result);
+            }
+        }
+        return result;
+    }
+
+    private static HttpRequest.Builder acceptCompressedResponses(
+        ClientConfig clientConfig, HttpRequest.Builder requestTemplate)
+    {
+        if (clientConfig.getCompression() == null ||
+            requestTemplate.build()
+                .headers()
+                .firstValue("Accept-Encoding")
+                .isPresent())
+        {
+            return requestTemplate;
+        }
+
+        return requestTemplate.copy()
+            .header("Accept-Encoding", Compression.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Creates an endpoint for the given URI template, e.g. {@code users/{id}/orders{?page,size}}. Endpoints should be
+     * created once and reused, as that avoids parsing the resource path for every request.
+     *
+     * @throws IllegalArgumentException if the template is malformed
+     * @see Endpoint
+     */
+    public Endpoint endpoint(@NonNull String template)
+    {
+        return new Endpoint(clientConfig, requestTemplate.createPrototype(), template);
     }
 
     public RequestHandle get(@NonNull String resourcePath)
@@ -36,36 +113,87 @@ public final class StandardRestClient
         return new RequestHandle(request, clientConfig);
     }
 
+    /**
+     * Prepares a POST request with the given object as body. The body is serialized when the request is sent, using
+     * the {@link ClientConfig#getRequestBodyCodec() request body codec} or JSON-B if there is none.
+     */
     public RequestBodyHandle post(@NonNull Object body)
     {
-        return post(clientConfig.getJsonb()
-            .toJson(body), APPLICATION_JSON);
+        return createObjectBodyHandle("POST", body);
     }
 
     public RequestBodyHandle post(@NonNull JsonValue body)
     {
-        return post(body.toString(), APPLICATION_JSON);
+        return createSerializedBodyHandle("POST", APPLICATION_JSON, createJsonValueWriter(body));
     }
 
     public RequestBodyHandle post(@NonNull String body, @NonNull String contentType)
     {
-        return new RequestBodyHandle(clientConfig, requestTemplate, "POST", contentType, getBodyPublisher(body));
+        return createTextBodyHandle("POST", contentType, body);
+    }
+
+    /**
+     * Prepares a POST request that uploads the given file as {@code application/octet-stream}.
+     *
+     * @throws FileNotFoundException if the file does not exist or is not readable
+     * @see #post(Path, String)
+     */
+    public RequestBodyHandle post(@NonNull Path file) throws FileNotFoundException
+    {
+        return post(file, APPLICATION_OCTET_STREAM);
     }
 
+    /**
+     * Prepares a POST request that uploads the given file. The file is streamed to the connection when the request is
+     * sent, so it is never loaded into memory as a whole. It is read again for each attempt.
+     *
+     * @throws FileNotFoundException if the file does not exist or is not readable
+     */
+    public RequestBodyHandle post(@NonNull Path file, @NonNull String contentType) throws FileNotFoundException
+    {
+        return createFileBodyHandle("POST", contentType, file);
+    }
+
+    /**
+     * Prepares a PUT request with the given object as body. The body is serialized when the request is sent.
+     *
+     * @see #post(Object)
+     */
     public RequestBodyHandle put(@NonNull Object body)
     {
-        return put(clientConfig.getJsonb()
-            .toJson(body), APPLICATION_JSON);
+        return createObjectBodyHandle("PUT", body);
     }
 
     public RequestBodyHandle put(@NonNull JsonValue body)
     {
-        return put(body.toString(), APPLICATION_JSON);
+        return createSerializedBodyHandle("PUT", APPLICATION_JSON, createJsonValueWriter(body));
     }
 
     public RequestBodyHandle put(@NonNull String body, @NonNull String contentType)
     {
-        return new RequestBodyHandle(clientConfig, requestTemplate, "PUT", contentType, getBodyPublisher(body));
+        return createTextBodyHandle("PUT", contentType, body);
+    }
+
+    /**
+     * Prepares a PUT request that uploads the given file as {@code application/octet-stream}.
+     *
+     * @throws FileNotFoundException if the file does not exist or is not readable
+     * @see #post(Path, String)
+     */
+    public RequestBodyHandle put(@NonNull Path file) throws FileNotFoundException
+    {
+        return put(file, APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * Prepares a PUT request that uploads the given file.
+     *
+     * @throws FileNotFoundException if the file does not exist or is not readable
+     * @see #post(Path, String)
+     */
+    public RequestBodyHandle put(@NonNull Path file, @NonNull String contentType) throws FileNotFoundException
+    {
+        return createFileBodyHandle("PUT", contentType, file);
     }
 
     public RequestHandle delete(@NonNull String resourcePath)
@@ -78,45 +206,115 @@ public final class StandardRestClient
 
     public RequestBodyHandle patch(@NonNull JsonPatch patch)
     {
-        return new RequestBodyHandle(clientConfig,
-            requestTemplate,
-            "PATCH",
+        return createSerializedBodyHandle("PATCH",
             APPLICATION_JSON_PATCH_JSON,
-            getBodyPublisher(patch.toJsonArray()));
+            createJsonValueWriter(patch.toJsonArray()));
     }
 
     public RequestBodyHandle patch(@NonNull JsonMergePatch patch)
     {
-        return new RequestBodyHandle(clientConfig,
-            requestTemplate,
-            "PATCH",
+        return createSerializedBodyHandle("PATCH",
             APPLICATION_MERGE_PATCH_JSON,
-            getBodyPublisher(patch.toJsonValue()));
+            createJsonValueWriter(patch.toJsonValue()));
     }
 
+    /**
+     * Prepares a PATCH request with the given object as body. The body is serialized when the request is sent.
+     *
+     * @see #post(Object)
+     */
     public RequestBodyHandle patch(@NonNull Object body)
     {
-        return patch(clientConfig.getJsonb()
-            .toJson(body), APPLICATION_JSON);
+        return createObjectBodyHandle("PATCH", body);
     }
 
     public RequestBodyHandle patch(@NonNull JsonValue body)
     {
-        return patch(body.toString(), APPLICATION_JSON);
+        return createSerializedBodyHandle("PATCH", APPLICATION_JSON, createJsonValueWriter(body));
     }
 
     public RequestBodyHandle patch(@NonNull String body, @NonNull String contentType)
     {
-        return new RequestBodyHandle(clientConfig, requestTemplate, "PATCH", contentType, getBodyPublisher(body));
+        return createTextBodyHandle("PATCH", contentType, body);
     }
 
-    private HttpRequest.BodyPublisher getBodyPublisher(@NonNull JsonValue body)
+    private RequestBodyHandle createObjectBodyHandle(String method, Object body)
     {
-        return getBodyPublisher(body.toString());
+        BodyCodec bodyCodec = BodyCodecs.getRequestCodec(clientConfig);
+        return createSerializedBodyHandle(method,
+            bodyCodec.getMediaType(),
+            outputStream -> bodyCodec.encode(body, outputStream));
     }
 
-    private HttpRequest.BodyPublisher getBodyPublisher(@NonNull String body)
+    private SerializingBodyPublisher.BodyWriter createJsonValueWriter(JsonValue body)
     {
-        return HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8);
+        return outputStream -> {
+            try (JsonWriter writer = Json.createWriter(outputStream))
+            {
+                writer.write(body);
+            }
+        };
+    }
+
+    private RequestBodyHandle createSerializedBodyHandle(
+        String method, String contentType, SerializingBodyPublisher.BodyWriter bodyWriter)
+    {
+        Compression compression = clientConfig.getCompression();
+        if (compression != null && compression.shouldCompress(-1))
+        {
+            return createBodyHandle(method,
+                contentType,
+                Compression.GZIP,
+                new SerializingBodyPublisher(compression.compressing(bodyWriter)));
+        }
+
+        return createBodyHandle(method, contentType, null, new SerializingBodyPublisher(bodyWriter));
+    }
+
+    private RequestBodyHandle createTextBodyHandle(String method, String contentType, String body)
+    {
+        Compression compression = clientConfig.getCompression();
+        if (compression != null && compression.shouldCompress(Utf8.encodedLength(body)))
+        {
+            byte[] compressedBody = compression.compress(body.getBytes(StandardCharsets.UTF_8));
+            return createBodyHandle(method,
+                contentType,
+                Compression.GZIP,
+                HttpRequest.BodyPublishers.ofByteArray(compressedBody));
+        }
+
+        return createBodyHandle(method,
+            contentType,
+            null,
+            HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+    }
+
+    private RequestBodyHandle createFileBodyHandle(String method, String contentType, Path file)
+        throws FileNotFoundException
+    {
+        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.ofFile(file);
+
+        Compression compression = clientConfig.getCompression();
+        if (compression != null && compression.shouldCompress(bodyPublisher.contentLength()))
+        {
+            SerializingBodyPublisher.BodyWriter bodyWriter = outputStream -> Files.copy(file, outputStream);
+            return createBodyHandle(method,
+                contentType,
+                Compression.GZIP,
+                new SerializingBodyPublisher(compression.compressing(bodyWriter)));
+        }
+
+        return createBodyHandle(method, contentType, null, bodyPublisher);
+    }
+
+    private RequestBodyHandle createBodyHandle(
+        String method, String contentType, String contentEncoding, HttpRequest.BodyPublisher bodyPublisher)
+    {
+        return new RequestBodyHandle(clientConfig,
+            requestTemplate,
+            method,
+            contentType,
+            contentEncoding,
+            bodyPublisher);
     }
 }
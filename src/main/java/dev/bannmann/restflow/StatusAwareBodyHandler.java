@@ -0,0 +1,72 @@
+package dev.bannmann.restflow;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Chooses how to receive a response body based on the response status. This way, bodies of responses that are not
+ * used for the result are not buffered in full. <br>
+ * <br>
+ * As captured bodies do not have the body type of the response, they are kept by the handler instead. Each attempt
+ * therefore needs its own instance. If a hedged attempt receives several captured bodies, the first one is kept.
+ */
+@RequiredArgsConstructor
+final class StatusAwareBodyHandler<B> implements HttpResponse.BodyHandler<B>
+{
+    public enum Strategy
+    {
+        /**
+         * Receive the body with the handler of the {@link ResponseBodyConfig}.
+         */
+        CONVERT,
+
+        /**
+         * Discard the body; {@link HttpResponse#body()} will return {@code null}.
+         */
+        DISCARD,
+
+        /**
+         * Keep the beginning of the body for diagnostic purposes; {@link HttpResponse#body()} will return {@code null},
+         * and the captured body is available via {@link #getCapturedBody()}.
+         */
+        CAPTURE
+    }
+
+    private final HttpResponse.BodyHandler<B> delegate;
+    private final IntFunction<Strategy> strategySelector;
+    private final int maxCapturedBytes;
+    private final AtomicReference<CapturedBody> capturedBody = new AtomicReference<>();
+
+    @Override
+    public HttpResponse.BodySubscriber<B> apply(HttpResponse.ResponseInfo responseInfo)
+    {
+        switch (strategySelector.apply(responseInfo.statusCode()))
+        {
+            case DISCARD:
+                return HttpResponse.BodySubscribers.replacing(null);
+            case CAPTURE:
+                return HttpResponse.BodySubscribers.mapping(new CapturingBodySubscriber(maxCapturedBytes),
+                    this::keepCapturedBody);
+            default:
+                return delegate.apply(responseInfo);
+        }
+    }
+
+    private B keepCapturedBody(CapturedBody body)
+    {
+        capturedBody.compareAndSet(null, body);
+        return null;
+    }
+
+    /**
+     * Returns the body captured for a response with the {@link Strategy#CAPTURE} strategy, or {@code null} if there is
+     * none.
+     */
+    public CapturedBody getCapturedBody()
+    {
+        return capturedBody.get();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.bannmann.restflow;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A request that takes all properties except the URI, method and body from an immutable prototype request. This avoids
+ * copying the prototype via a {@link HttpRequest.Builder} for every request.
+ */
+@RequiredArgsConstructor
+final class TemplatedRequest extends HttpRequest
+{
+    private final HttpRequest prototype;
+    private final HttpHeaders headers;
+    private final String method;
+    private final Optional<BodyPublisher> bodyPublisher;
+    private final URI uri;
+
+    @Override
+    public Optional<BodyPublisher> bodyPublisher()
+    {
+        return bodyPublisher;
+    }
+
+    @Override
+    public String method()
+    {
+        return method;
+    }
+
+    @Override
+    public Optional<Duration> timeout()
+    {
+        return prototype.timeout();
+    }
+
+    @Override
+    public boolean expectContinue()
+    {
+        return prototype.expectContinue();
+    }
+
+    @Override
+    public URI uri()
+    {
+        return uri;
+    }
+
+    @Override
+    public Optional<HttpClient.Version> version()
+    {
+        return prototype.version();
+    }
+
+    @Override
+    public HttpHeaders headers()
+    {
+        return headers;
+    }
+}
@@ -0,0 +1,306 @@
+package dev.bannmann.restflow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A parsed URI template supporting the subset of RFC 6570 that is useful for REST resources: simple string expansion
+ * ({@code {id}}), form-style query expansion ({@code {?page,size}}) and query continuation ({@code {&sort}}). <br>
+ * <br>
+ * Literal parts are validated when parsing and copied as-is during expansion. Variable values are percent-encoded
+ * except for unreserved characters; values consisting only of unreserved characters are appended without copying.
+ */
+final class UriTemplate
+{
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z0-9_]+");
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] UNRESERVED = createCharacterTable("-._~");
+    private static final boolean[] LITERAL = createCharacterTable("-._~:/?#[]@!$&'()*+,;=%");
+
+    private interface Part
+    {
+        void expand(StringBuilder builder, Map<String, ?> variables, String template);
+
+        int getEstimatedLength();
+    }
+
+    @RequiredArgsConstructor
+    private static final class Literal implements Part
+    {
+        private final String text;
+
+        @Override
+        public void expand(StringBuilder builder, Map<String, ?> variables, String template)
+        {
+            builder.append(text);
+        }
+
+        @Override
+        public int getEstimatedLength()
+        {
+            return text.length();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class PathVariable implements Part
+    {
+        private final String name;
+
+        @Override
+        public void expand(StringBuilder builder, Map<String, ?> variables, String template)
+        {
+            Object value = variables.get(name);
+            if (value == null)
+            {
+                throw new IllegalArgumentException(String.format("No value for variable '%s' of template %s",
+                    name,
+                    template));
+            }
+            appendEncoded(builder, value.toString());
+        }
+
+        @Override
+        public int getEstimatedLength()
+        {
+            return 8;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class QueryVariables implements Part
+    {
+        private final boolean continuation;
+        private final ImmutableList<String> names;
+
+        @Override
+        public void expand(StringBuilder builder, Map<String, ?> variables, String template)
+        {
+            boolean first = !continuation;
+            for (String name : names)
+            {
+                Object value = variables.get(name);
+                if (value == null)
+                {
+                    continue;
+                }
+
+                builder.append(first ? '?' : '&')
+                    .append(name)
+                    .append('=');
+                appendEncoded(builder, value.toString());
+                first = false;
+            }
+        }
+
+        @Override
+        public int getEstimatedLength()
+        {
+            return names.size() * 12;
+        }
+    }
+
+    @Getter
+    private final String template;
+
+    @Getter
+    private final ImmutableList<String> variableNames;
+
+    private final ImmutableList<Part> parts;
+    private final int estimatedLength;
+
+    /**
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    public UriTemplate(@NonNull String template)
+    {
+        this.template = template;
+
+        var partsBuilder = ImmutableList.<Part>builder();
+        var variableNamesBuilder = ImmutableList.<String>builder();
+        boolean inQuery = false;
+        int position = 0;
+        while (position < template.length())
+        {
+            int expressionStart = template.indexOf('{', position);
+            if (expressionStart == -1)
+            {
+                expressionStart = template.length();
+            }
+
+            if (expressionStart > position)
+            {
+                if (inQuery)
+                {
+                    throw createException("literal text after query expression", position);
+                }
+                partsBuilder.add(new Literal(parseLiteral(position, expressionStart)));
+            }
+
+            if (expressionStart == template.length())
+            {
+                break;
+            }
+
+            int expressionEnd = template.indexOf('}', expressionStart);
+            if (expressionEnd == -1)
+            {
+                throw createException("unterminated expression", expressionStart);
+            }
+
+            Part part = parseExpression(expressionStart, expressionEnd, variableNamesBuilder);
+            if (part instanceof QueryVariables)
+            {
+                inQuery = true;
+            }
+            else if (inQuery)
+            {
+                throw createException("path expression after query expression", expressionStart);
+            }
+            partsBuilder.add(part);
+
+            position = expressionEnd + 1;
+        }
+
+        parts = partsBuilder.build();
+        variableNames = variableNamesBuilder.build();
+        estimatedLength = parts.stream()
+            .mapToInt(Part::getEstimatedLength)
+            .sum();
+    }
+
+    private String parseLiteral(int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = template.charAt(i);
+            if (!isIn(LITERAL, c))
+            {
+                throw createException("invalid character '" + c + "'", i);
+            }
+        }
+        return template.substring(start, end);
+    }
+
+    private Part parseExpression(int start, int end, ImmutableList.Builder<String> variableNamesBuilder)
+    {
+        String expression = template.substring(start + 1, end);
+        char operator = expression.isEmpty() ? 0 : expression.charAt(0);
+        boolean query = operator == '?' || operator == '&';
+
+        List<String> names = new ArrayList<>();
+        for (String name : (query ? expression.substring(1) : expression).split(",", -1))
+        {
+            if (!VARIABLE_NAME.matcher(name)
+                .matches())
+            {
+                throw createException("invalid variable name '" + name + "'", start);
+            }
+            names.add(name);
+        }
+        variableNamesBuilder.addAll(names);
+
+        if (query)
+        {
+            return new QueryVariables(operator == '&', ImmutableList.copyOf(names));
+        }
+        if (names.size() > 1)
+        {
+            throw createException("multiple variables in path expression", start);
+        }
+        return new PathVariable(names.get(0));
+    }
+
+    private IllegalArgumentException createException(String problem, int index)
+    {
+        return new IllegalArgumentException(String.format("Invalid URI template %s: %s at index %d",
+            template,
+            problem,
+            index));
+    }
+
+    /**
+     * Appends the expansion of this template to the given prefix.
+     *
+     * @throws IllegalArgumentException if a path variable has no value
+     */
+    public String expand(String prefix, Map<String, ?> variables)
+    {
+        var builder = new StringBuilder(prefix.length() + estimatedLength);
+        builder.append(prefix);
+        for (Part part : parts)
+        {
+            part.expand(builder, variables, template);
+        }
+        return builder.toString();
+    }
+
+    private static void appendEncoded(StringBuilder builder, String value)
+    {
+        int length = value.length();
+        int i = 0;
+        while (i < length && isIn(UNRESERVED, value.charAt(i)))
+        {
+            i++;
+        }
+
+        if (i == length)
+        {
+            builder.append(value);
+            return;
+        }
+
+        builder.append(value, 0, i);
+        for (byte b : value.substring(i)
+            .getBytes(StandardCharsets.UTF_8))
+        {
+            char c = (char) (b & 0xFF);
+            if (isIn(UNRESERVED, c))
+            {
+                builder.append(c);
+            }
+            else
+            {
+                builder.append('%')
+                    .append(HEX_DIGITS[c >> 4])
+                    .append(HEX_DIGITS[c & 0xF]);
+            }
+        }
+    }
+
+    private static boolean isIn(boolean[] table, char c)
+    {
+        return c < table.length && table[c];
+    }
+
+    private static boolean[] createCharacterTable(String additionalCharacters)
+    {
+        boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++)
+        {
+            table[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++)
+        {
+            table[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++)
+        {
+            table[c] = true;
+        }
+        for (char c : additionalCharacters.toCharArray())
+        {
+            table[c] = true;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.bannmann.restflow.cbor;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+
+import lombok.NonNull;
+
+import org.kohsuke.MetaInfServices;
+
+import dev.bannmann.restflow.BodyCodec;
+
+/**
+ * Converts objects to and from CBOR ({@code application/cbor}, RFC 8949). Binding is done by JSON-B, so the same
+ * annotations and adapters apply as for JSON, and the data model is that of JSON: CBOR maps must have text keys, and
+ * byte strings are bound like base64url encoded strings.
+ */
+@MetaInfServices(BodyCodec.class)
+public final class CborCodec implements BodyCodec
+{
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    private final Jsonb jsonb;
+
+    public CborCodec()
+    {
+        this(new JsonbConfig());
+    }
+
+    /**
+     * @param jsonbConfig the configuration for binding, e.g. to register adapters. Formatting and encoding settings
+     * have no effect.
+     */
+    public CborCodec(@NonNull JsonbConfig jsonbConfig)
+    {
+        jsonb = JsonbBuilder.newBuilder()
+            .withProvider(new CborJsonProvider())
+            .withConfig(jsonbConfig)
+            .build();
+    }
+
+    @Override
+    public String getMediaType()
+    {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream)
+    {
+        jsonb.toJson(value, outputStream);
+    }
+
+    @Override
+    public Object decode(InputStream inputStream, Type type)
+    {
+        return jsonb.fromJson(inputStream, type);
+    }
+}
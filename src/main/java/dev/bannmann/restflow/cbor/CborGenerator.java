@@ -0,0 +1,427 @@
+package dev.bannmann.restflow.cbor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerationException;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Writes JSON-P generator calls as CBOR (RFC 8949), which allows JSON-B implementations to produce CBOR data. <br>
+ * <br>
+ * Objects and arrays are written with indefinite length, so nothing needs to be buffered. Integers use the shortest
+ * encoding, and doubles are written in single precision if that does not lose information. Decimals that are not
+ * integers are written as decimal fractions (tag 4).
+ */
+final class CborGenerator implements JsonGenerator
+{
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_TAG = 6;
+
+    private static final int START_INDEFINITE_ARRAY = 0x9F;
+    private static final int START_INDEFINITE_MAP = 0xBF;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT = 0xFA;
+    private static final int DOUBLE = 0xFB;
+    private static final int BREAK = 0xFF;
+
+    private static final int TAG_POSITIVE_BIGNUM = 2;
+    private static final int TAG_NEGATIVE_BIGNUM = 3;
+    private static final int TAG_DECIMAL_FRACTION = 4;
+
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+    private int depth;
+
+    CborGenerator(OutputStream outputStream)
+    {
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public JsonGenerator writeStartObject()
+    {
+        depth++;
+        writeByte(START_INDEFINITE_MAP);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartObject(String name)
+    {
+        writeKey(name);
+        return writeStartObject();
+    }
+
+    @Override
+    public JsonGenerator writeKey(String name)
+    {
+        writeText(name);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartArray()
+    {
+        depth++;
+        writeByte(START_INDEFINITE_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartArray(String name)
+    {
+        writeKey(name);
+        return writeStartArray();
+    }
+
+    @Override
+    public JsonGenerator write(String name, JsonValue value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, String value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, BigInteger value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, BigDecimal value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, int value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, long value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, double value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, boolean value)
+    {
+        writeKey(name);
+        return write(value);
+    }
+
+    @Override
+    public JsonGenerator writeNull(String name)
+    {
+        writeKey(name);
+        return writeNull();
+    }
+
+    @Override
+    public JsonGenerator writeEnd()
+    {
+        if (depth == 0)
+        {
+            throw new JsonGenerationException("No object or array to end");
+        }
+        depth--;
+        writeByte(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(JsonValue value)
+    {
+        switch (value.getValueType())
+        {
+            case OBJECT:
+                writeStartObject();
+                for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet())
+                {
+                    write(entry.getKey(), entry.getValue());
+                }
+                return writeEnd();
+            case ARRAY:
+                writeStartArray();
+                for (JsonValue element : (JsonArray) value)
+                {
+                    write(element);
+                }
+                return writeEnd();
+            case STRING:
+                return write(((JsonString) value).getString());
+            case NUMBER:
+                return write(((JsonNumber) value).bigDecimalValue());
+            case TRUE:
+                return write(true);
+            case FALSE:
+                return write(false);
+            default:
+                return writeNull();
+        }
+    }
+
+    @Override
+    public JsonGenerator write(String value)
+    {
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(BigDecimal value)
+    {
+        if (value.scale() <= 0 || value.stripTrailingZeros()
+            .scale() <= 0)
+        {
+            return write(value.toBigIntegerExact());
+        }
+
+        writeHead(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+        writeHead(MAJOR_ARRAY, 2);
+        write(-value.scale());
+        return write(value.unscaledValue());
+    }
+
+    @Override
+    public JsonGenerator write(BigInteger value)
+    {
+        if (value.compareTo(MIN_LONG) >= 0 && value.compareTo(MAX_LONG) <= 0)
+        {
+            return write(value.longValueExact());
+        }
+
+        BigInteger magnitude = value.signum() < 0 ? value.negate()
+            .subtract(BigInteger.ONE) : value;
+        byte[] bytes = magnitude.toByteArray();
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeHead(MAJOR_TAG, value.signum() < 0 ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        writeHead(MAJOR_BYTES, bytes.length - offset);
+        writeBytes(bytes, offset, bytes.length - offset);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(int value)
+    {
+        return write((long) value);
+    }
+
+    @Override
+    public JsonGenerator write(long value)
+    {
+        if (value >= 0)
+        {
+            writeHead(MAJOR_UNSIGNED, value);
+        }
+        else
+        {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(double value)
+    {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+        {
+            throw new NumberFormatException("Non-finite numbers are not supported: " + value);
+        }
+
+        float floatValue = (float) value;
+        if (floatValue == value)
+        {
+            writeByte(FLOAT);
+            writeFixed(Float.floatToIntBits(floatValue), 4);
+        }
+        else
+        {
+            writeByte(DOUBLE);
+            writeFixed(Double.doubleToLongBits(value), 8);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(boolean value)
+    {
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeNull()
+    {
+        writeByte(NULL);
+        return this;
+    }
+
+    private void writeText(String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the initial byte of a data item and, if necessary, the following bytes of its argument.
+     *
+     * @param argument the unsigned argument
+     */
+    private void writeHead(int majorType, long argument)
+    {
+        int type = majorType << 5;
+        if (argument < 24)
+        {
+            writeByte(type | (int) argument);
+        }
+        else if (argument < 0x100)
+        {
+            writeByte(type | 24);
+            writeFixed(argument, 1);
+        }
+        else if (argument < 0x10000)
+        {
+            writeByte(type | 25);
+            writeFixed(argument, 2);
+        }
+        else if (argument < 0x100000000L)
+        {
+            writeByte(type | 26);
+            writeFixed(argument, 4);
+        }
+        else
+        {
+            writeByte(type | 27);
+            writeFixed(argument, 8);
+        }
+    }
+
+    private void writeFixed(long value, int length)
+    {
+        for (int i = length - 1; i >= 0; i--)
+        {
+            writeByte((int) (value >>> (i * 8)));
+        }
+    }
+
+    private void writeByte(int value)
+    {
+        if (position == buffer.length)
+        {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length)
+    {
+        if (length > buffer.length - position)
+        {
+            flushBuffer();
+            if (length > buffer.length)
+            {
+                writeToStream(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void flushBuffer()
+    {
+        writeToStream(buffer, 0, position);
+        position = 0;
+    }
+
+    private void writeToStream(byte[] bytes, int offset, int length)
+    {
+        try
+        {
+            outputStream.write(bytes, offset, length);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        flushBuffer();
+        try
+        {
+            outputStream.flush();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (depth > 0)
+        {
+            throw new JsonGenerationException("Unterminated object or array");
+        }
+
+        flushBuffer();
+        try
+        {
+            outputStream.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package dev.bannmann.restflow.cbor;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonMergePatch;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonPatch;
+import javax.json.JsonPatchBuilder;
+import javax.json.JsonPointer;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.JsonWriterFactory;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * A JSON-P provider whose byte-based parsers and generators read and write CBOR instead of JSON text. All other
+ * functionality, e.g. building {@link JsonValue} instances, is delegated to the default provider. <br>
+ * <br>
+ * Character-based parsers and generators, readers and writers are not supported, as CBOR is a binary format.
+ */
+final class CborJsonProvider extends JsonProvider
+{
+    private final JsonProvider delegate = JsonProvider.provider();
+
+    private final class ParserFactory implements JsonParserFactory
+    {
+        private final Map<String, ?> config;
+
+        private ParserFactory(Map<String, ?> config)
+        {
+            this.config = config;
+        }
+
+        @Override
+        public JsonParser createParser(Reader reader)
+        {
+            throw createCharacterBasedException();
+        }
+
+        @Override
+        public JsonParser createParser(InputStream in)
+        {
+            return new CborParser(in, delegate);
+        }
+
+        @Override
+        public JsonParser createParser(InputStream in, Charset charset)
+        {
+            return new CborParser(in, delegate);
+        }
+
+        @Override
+        public JsonParser createParser(JsonObject obj)
+        {
+            return delegate.createParserFactory(config)
+                .createParser(obj);
+        }
+
+        @Override
+        public JsonParser createParser(JsonArray array)
+        {
+            return delegate.createParserFactory(config)
+                .createParser(array);
+        }
+
+        @Override
+        public Map<String, ?> getConfigInUse()
+        {
+            return Map.of();
+        }
+    }
+
+    private static final class GeneratorFactory implements JsonGeneratorFactory
+    {
+        @Override
+        public JsonGenerator createGenerator(Writer writer)
+        {
+            throw createCharacterBasedException();
+        }
+
+        @Override
+        public JsonGenerator createGenerator(OutputStream out)
+        {
+            return new CborGenerator(out);
+        }
+
+        @Override
+        public JsonGenerator createGenerator(OutputStream out, Charset charset)
+        {
+            return new CborGenerator(out);
+        }
+
+        @Override
+        public Map<String, ?> getConfigInUse()
+        {
+            return Map.of();
+        }
+    }
+
+    private static UnsupportedOperationException createCharacterBasedException()
+    {
+        return new UnsupportedOperationException("CBOR is a binary format and cannot be read from or written to text");
+    }
+
+    @Override
+    public JsonParser createParser(Reader reader)
+    {
+        throw createCharacterBasedException();
+    }
+
+    @Override
+    public JsonParser createParser(InputStream in)
+    {
+        return new CborParser(in, delegate);
+    }
+
+    @Override
+    public JsonParserFactory createParserFactory(Map<String, ?> config)
+    {
+        return new ParserFactory(config);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(Writer writer)
+    {
+        throw createCharacterBasedException();
+    }
+
+    @Override
+    public JsonGenerator createGenerator(OutputStream out)
+    {
+        return new CborGenerator(out);
+    }
+
+    @Override
+    public JsonGeneratorFactory createGeneratorFactory(Map<String, ?> config)
+    {
+        return new GeneratorFactory();
+    }
+
+    @Override
+    public JsonReader createReader(Reader reader)
+    {
+        throw createCharacterBasedException();
+    }
+
+    @Override
+    public JsonReader createReader(InputStream in)
+    {
+        throw new UnsupportedOperationException("JsonReader is not supported for CBOR");
+    }
+
+    @Override
+    public JsonWriter createWriter(Writer writer)
+    {
+        throw createCharacterBasedException();
+    }
+
+    @Override
+    public JsonWriter createWriter(OutputStream out)
+    {
+        throw new UnsupportedOperationException("JsonWriter is not supported for CBOR");
+    }
+
+    @Override
+    public JsonWriterFactory createWriterFactory(Map<String, ?> config)
+    {
+        throw new UnsupportedOperationException("JsonWriter is not supported for CBOR");
+    }
+
+    @Override
+    public JsonReaderFactory createReaderFactory(Map<String, ?> config)
+    {
+        throw new UnsupportedOperationException("JsonReader is not supported for CBOR");
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder()
+    {
+        return delegate.createObjectBuilder();
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder(JsonObject object)
+    {
+        return delegate.createObjectBuilder(object);
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder(Map<String, Object> map)
+    {
+        return delegate.createObjectBuilder(map);
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder()
+    {
+        return delegate.createArrayBuilder();
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder(JsonArray array)
+    {
+        return delegate.createArrayBuilder(array);
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder(Collection<?> collection)
+    {
+        return delegate.createArrayBuilder(collection);
+    }
+
+    @Override
+    public JsonPointer createPointer(String jsonPointer)
+    {
+        return delegate.createPointer(jsonPointer);
+    }
+
+    @Override
+    public JsonPatchBuilder createPatchBuilder()
+    {
+        return delegate.createPatchBuilder();
+    }
+
+    @Override
+    public JsonPatchBuilder createPatchBuilder(JsonArray array)
+    {
+        return delegate.createPatchBuilder(array);
+    }
+
+    @Override
+    public JsonPatch createPatch(JsonArray array)
+    {
+        return delegate.createPatch(array);
+    }
+
+    @Override
+    public JsonPatch createDiff(JsonStructure source, JsonStructure target)
+    {
+        return delegate.createDiff(source, target);
+    }
+
+    @Override
+    public JsonMergePatch createMergePatch(JsonValue patch)
+    {
+        return delegate.createMergePatch(patch);
+    }
+
+    @Override
+    public JsonMergePatch createMergeDiff(JsonValue source, JsonValue target)
+    {
+        return delegate.createMergeDiff(source, target);
+    }
+
+    @Override
+    public JsonBuilderFactory createBuilderFactory(Map<String, ?> config)
+    {
+        return delegate.createBuilderFactory(config);
+    }
+
+    @Override
+    public JsonString createValue(String value)
+    {
+        return delegate.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(int value)
+    {
+        return delegate.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(long value)
+    {
+        return delegate.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(double value)
+    {
+        return delegate.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(BigDecimal value)
+    {
+        return delegate.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(BigInteger value)
+    {
+        return delegate.createValue(value);
+    }
+}
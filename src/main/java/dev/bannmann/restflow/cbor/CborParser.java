@@ -0,0 +1,676 @@
+package dev.bannmann.restflow.cbor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * Reads CBOR (RFC 8949) and reports it as JSON-P events, which allows JSON-B implementations to bind CBOR data. <br>
+ * <br>
+ * Map keys must be text strings. Byte strings are reported as base64url strings, bignums (tags 2 and 3) and decimal
+ * fractions (tag 4) as numbers, and {@code undefined} as {@code null}. Other tags are ignored.
+ */
+final class CborParser implements JsonParser
+{
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+
+    private static final int INDEFINITE = 31;
+    private static final int BREAK = 0xFF;
+
+    private static final int TAG_POSITIVE_BIGNUM = 2;
+    private static final int TAG_NEGATIVE_BIGNUM = 3;
+    private static final int TAG_DECIMAL_FRACTION = 4;
+
+    private static final class Container
+    {
+        private final boolean map;
+
+        /**
+         * The number of remaining items (or key/value pairs for maps), or {@code -1} for indefinite length.
+         */
+        private long remaining;
+
+        private boolean expectingKey;
+
+        private Container(boolean map, long remaining)
+        {
+            this.map = map;
+            this.remaining = remaining;
+            this.expectingKey = map;
+        }
+    }
+
+    private final InputStream inputStream;
+    private final JsonProvider jsonProvider;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Deque<Container> containers = new ArrayDeque<>();
+
+    private int position;
+    private int limit;
+    private long offset;
+    private boolean finished;
+
+    private Event event;
+    private String string;
+
+    /**
+     * The current number if it does not fit into {@link #longValue}, or {@code null} otherwise.
+     */
+    private BigDecimal number;
+    private long longValue;
+    private boolean integral;
+
+    CborParser(InputStream inputStream, JsonProvider jsonProvider)
+    {
+        this.inputStream = inputStream;
+        this.jsonProvider = jsonProvider;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return !finished;
+    }
+
+    @Override
+    public Event next()
+    {
+        if (finished)
+        {
+            throw new NoSuchElementException();
+        }
+
+        try
+        {
+            event = readEvent();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        if (containers.isEmpty() && event != Event.START_OBJECT && event != Event.START_ARRAY)
+        {
+            finished = true;
+        }
+        return event;
+    }
+
+    private Event readEvent() throws IOException
+    {
+        Container container = containers.peek();
+        if (container != null && isAtEnd(container))
+        {
+            containers.pop();
+            return container.map ? Event.END_OBJECT : Event.END_ARRAY;
+        }
+
+        int initialByte = readByte();
+        int majorType = initialByte >>> 5;
+        int additionalInfo = initialByte & 0x1F;
+
+        if (container != null && container.expectingKey)
+        {
+            if (majorType != MAJOR_TEXT)
+            {
+                throw createParsingException("Map keys must be text strings");
+            }
+            string = readText(additionalInfo);
+            container.expectingKey = false;
+            return Event.KEY_NAME;
+        }
+
+        if (container != null)
+        {
+            container.expectingKey = container.map;
+            if (container.remaining > 0)
+            {
+                container.remaining--;
+            }
+        }
+        return readValue(majorType, additionalInfo);
+    }
+
+    private boolean isAtEnd(Container container) throws IOException
+    {
+        if (container.remaining == 0)
+        {
+            return true;
+        }
+        if (container.remaining < 0 && (!container.map || container.expectingKey) && peekByte() == BREAK)
+        {
+            readByte();
+            return true;
+        }
+        return false;
+    }
+
+    private Event readValue(int majorType, int additionalInfo) throws IOException
+    {
+        switch (majorType)
+        {
+            case MAJOR_UNSIGNED:
+                long unsigned = readUnsigned(additionalInfo);
+                if (unsigned >= 0)
+                {
+                    setNumber(unsigned);
+                }
+                else
+                {
+                    setNumber(new BigDecimal(toBigInteger(unsigned)), true);
+                }
+                return Event.VALUE_NUMBER;
+
+            case MAJOR_NEGATIVE:
+                long negated = readUnsigned(additionalInfo);
+                if (negated >= 0)
+                {
+                    setNumber(-1 - negated);
+                }
+                else
+                {
+                    setNumber(new BigDecimal(toBigInteger(negated).negate()
+                        .subtract(BigInteger.ONE)), true);
+                }
+                return Event.VALUE_NUMBER;
+
+            case MAJOR_BYTES:
+                string = Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(readBytes(additionalInfo));
+                return Event.VALUE_STRING;
+
+            case MAJOR_TEXT:
+                string = readText(additionalInfo);
+                return Event.VALUE_STRING;
+
+            case MAJOR_ARRAY:
+                containers.push(new Container(false, readLength(additionalInfo)));
+                return Event.START_ARRAY;
+
+            case MAJOR_MAP:
+                containers.push(new Container(true, readLength(additionalInfo)));
+                return Event.START_OBJECT;
+
+            case MAJOR_TAG:
+                return readTagged(readUnsigned(additionalInfo));
+
+            default:
+                // Major type 7
+                return readSimple(additionalInfo);
+        }
+    }
+
+    private Event readTagged(long tag) throws IOException
+    {
+        int initialByte = readByte();
+        int majorType = initialByte >>> 5;
+        int additionalInfo = initialByte & 0x1F;
+
+        if (tag == TAG_POSITIVE_BIGNUM && majorType == MAJOR_BYTES)
+        {
+            setNumber(new BigDecimal(new BigInteger(1, readBytes(additionalInfo))), true);
+            return Event.VALUE_NUMBER;
+        }
+        if (tag == TAG_NEGATIVE_BIGNUM && majorType == MAJOR_BYTES)
+        {
+            setNumber(new BigDecimal(new BigInteger(1, readBytes(additionalInfo)).negate()
+                .subtract(BigInteger.ONE)), true);
+            return Event.VALUE_NUMBER;
+        }
+        if (tag == TAG_DECIMAL_FRACTION && majorType == MAJOR_ARRAY && additionalInfo == 2)
+        {
+            BigInteger exponent = readInteger();
+            BigInteger mantissa = readInteger();
+            setNumber(new BigDecimal(mantissa, exponent.negate()
+                .intValueExact()), false);
+            return Event.VALUE_NUMBER;
+        }
+
+        return readValue(majorType, additionalInfo);
+    }
+
+    private BigInteger readInteger() throws IOException
+    {
+        int initialByte = readByte();
+        int majorType = initialByte >>> 5;
+        int additionalInfo = initialByte & 0x1F;
+        if (readValue(majorType, additionalInfo) != Event.VALUE_NUMBER)
+        {
+            throw createParsingException("Expected an integer in decimal fraction");
+        }
+        return number == null ? BigInteger.valueOf(longValue) : number.toBigIntegerExact();
+    }
+
+    private Event readSimple(int additionalInfo) throws IOException
+    {
+        switch (additionalInfo)
+        {
+            case 20:
+                return Event.VALUE_FALSE;
+            case 21:
+                return Event.VALUE_TRUE;
+            case 22:
+            case 23:
+                return Event.VALUE_NULL;
+            case 25:
+                setNumber(halfToDouble((int) readFixed(2)), false);
+                return Event.VALUE_NUMBER;
+            case 26:
+                setNumber(Float.intBitsToFloat((int) readFixed(4)), false);
+                return Event.VALUE_NUMBER;
+            case 27:
+                setNumber(Double.longBitsToDouble(readFixed(8)), false);
+                return Event.VALUE_NUMBER;
+            default:
+                throw createParsingException("Unsupported simple value " + additionalInfo);
+        }
+    }
+
+    private void setNumber(double value, boolean integral)
+    {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+        {
+            throw createParsingException("Non-finite numbers are not supported");
+        }
+        setNumber(BigDecimal.valueOf(value), integral);
+    }
+
+    private void setNumber(BigDecimal value, boolean integral)
+    {
+        this.number = value;
+        this.integral = integral;
+    }
+
+    private void setNumber(long value)
+    {
+        this.number = null;
+        this.longValue = value;
+    }
+
+    private static BigInteger toBigInteger(long unsigned)
+    {
+        return BigInteger.valueOf(unsigned)
+            .add(BigInteger.ONE.shiftLeft(64));
+    }
+
+    private static double halfToDouble(int bits)
+    {
+        int exponent = (bits >> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+        double value;
+        if (exponent == 0)
+        {
+            value = Math.scalb((double) mantissa, -24);
+        }
+        else if (exponent == 31)
+        {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        else
+        {
+            value = Math.scalb((double) (mantissa + 1024), exponent - 25);
+        }
+        return (bits & 0x8000) != 0 ? -value : value;
+    }
+
+    /**
+     * @return the length, or {@code -1} for indefinite length
+     */
+    private long readLength(int additionalInfo) throws IOException
+    {
+        if (additionalInfo == INDEFINITE)
+        {
+            return -1;
+        }
+
+        long length = readUnsigned(additionalInfo);
+        if (length < 0 || length > Integer.MAX_VALUE)
+        {
+            throw createParsingException("Length " + Long.toUnsignedString(length) + " is too large");
+        }
+        return length;
+    }
+
+    /**
+     * @return the unsigned value, which is negative if it does not fit into a {@code long}
+     */
+    private long readUnsigned(int additionalInfo) throws IOException
+    {
+        if (additionalInfo < 24)
+        {
+            return additionalInfo;
+        }
+
+        switch (additionalInfo)
+        {
+            case 24:
+                return readFixed(1);
+            case 25:
+                return readFixed(2);
+            case 26:
+                return readFixed(4);
+            case 27:
+                return readFixed(8);
+            default:
+                throw createParsingException("Invalid additional information " + additionalInfo);
+        }
+    }
+
+    private long readFixed(int length) throws IOException
+    {
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private String readText(int additionalInfo) throws IOException
+    {
+        return new String(readBytes(additionalInfo), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int additionalInfo) throws IOException
+    {
+        if (additionalInfo != INDEFINITE)
+        {
+            int length = (int) readLength(additionalInfo);
+            if (length <= BUFFER_SIZE)
+            {
+                return readFully(length);
+            }
+
+            var result = new ByteArrayOutputStream(BUFFER_SIZE);
+            readInto(result, length);
+            return result.toByteArray();
+        }
+
+        // Indefinite-length strings consist of definite-length chunks terminated by a break
+        var result = new ByteArrayOutputStream();
+        while (peekByte() != BREAK)
+        {
+            int chunkInfo = readByte() & 0x1F;
+            if (chunkInfo == INDEFINITE)
+            {
+                throw createParsingException("Nested indefinite-length string");
+            }
+            readInto(result, (int) readLength(chunkInfo));
+        }
+        readByte();
+        return result.toByteArray();
+    }
+
+    private byte[] readFully(int length) throws IOException
+    {
+        byte[] result = new byte[length];
+        int copied = 0;
+        while (copied < length)
+        {
+            if (position == limit)
+            {
+                fill();
+            }
+            int count = Math.min(length - copied, limit - position);
+            System.arraycopy(buffer, position, result, copied, count);
+            position += count;
+            offset += count;
+            copied += count;
+        }
+        return result;
+    }
+
+    /**
+     * Copies the given number of bytes to the target. As the target only grows with the data actually received, a
+     * corrupt or hostile length cannot cause a huge allocation up front.
+     */
+    private void readInto(ByteArrayOutputStream target, int length) throws IOException
+    {
+        int remaining = length;
+        while (remaining > 0)
+        {
+            if (position == limit)
+            {
+                fill();
+            }
+            int count = Math.min(remaining, limit - position);
+            target.write(buffer, position, count);
+            position += count;
+            offset += count;
+            remaining -= count;
+        }
+    }
+
+    private int readByte() throws IOException
+    {
+        if (position == limit)
+        {
+            fill();
+        }
+        offset++;
+        return buffer[position++] & 0xFF;
+    }
+
+    private int peekByte() throws IOException
+    {
+        if (position == limit)
+        {
+            fill();
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private void fill() throws IOException
+    {
+        int count = inputStream.read(buffer);
+        if (count <= 0)
+        {
+            throw new EOFException("Unexpected end of CBOR data at offset " + offset);
+        }
+        position = 0;
+        limit = count;
+    }
+
+    private JsonParsingException createParsingException(String message)
+    {
+        return new JsonParsingException(message + " at offset " + offset, getLocation());
+    }
+
+    @Override
+    public String getString()
+    {
+        if (event == Event.VALUE_NUMBER)
+        {
+            return number == null ? Long.toString(longValue) : number.toString();
+        }
+        if (event != Event.KEY_NAME && event != Event.VALUE_STRING)
+        {
+            throw new IllegalStateException("Current event " + event + " has no string value");
+        }
+        return string;
+    }
+
+    @Override
+    public boolean isIntegralNumber()
+    {
+        BigDecimal value = getNumber();
+        return value == null || integral || value.scale() <= 0;
+    }
+
+    @Override
+    public int getInt()
+    {
+        BigDecimal value = getNumber();
+        return value == null ? (int) longValue : value.intValue();
+    }
+
+    @Override
+    public long getLong()
+    {
+        BigDecimal value = getNumber();
+        return value == null ? longValue : value.longValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal()
+    {
+        BigDecimal value = getNumber();
+        return value == null ? BigDecimal.valueOf(longValue) : value;
+    }
+
+    /**
+     * @return the current number, or {@code null} if it is stored in {@link #longValue}
+     */
+    private BigDecimal getNumber()
+    {
+        if (event != Event.VALUE_NUMBER)
+        {
+            throw new IllegalStateException("Current event " + event + " is not a number");
+        }
+        return number;
+    }
+
+    @Override
+    public JsonObject getObject()
+    {
+        if (event != Event.START_OBJECT)
+        {
+            throw new IllegalStateException("Current event " + event + " is not the start of an object");
+        }
+
+        JsonObjectBuilder builder = jsonProvider.createObjectBuilder();
+        while (next() != Event.END_OBJECT)
+        {
+            String key = string;
+            next();
+            builder.add(key, getValue());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public JsonArray getArray()
+    {
+        if (event != Event.START_ARRAY)
+        {
+            throw new IllegalStateException("Current event " + event + " is not the start of an array");
+        }
+
+        JsonArrayBuilder builder = jsonProvider.createArrayBuilder();
+        while (next() != Event.END_ARRAY)
+        {
+            builder.add(getValue());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public JsonValue getValue()
+    {
+        switch (event)
+        {
+            case START_OBJECT:
+                return getObject();
+            case START_ARRAY:
+                return getArray();
+            case KEY_NAME:
+            case VALUE_STRING:
+                return jsonProvider.createValue(string);
+            case VALUE_NUMBER:
+                return number == null ? jsonProvider.createValue(longValue) : jsonProvider.createValue(number);
+            case VALUE_TRUE:
+                return JsonValue.TRUE;
+            case VALUE_FALSE:
+                return JsonValue.FALSE;
+            case VALUE_NULL:
+                return JsonValue.NULL;
+            default:
+                throw new IllegalStateException("Current event " + event + " has no value");
+        }
+    }
+
+    @Override
+    public void skipObject()
+    {
+        if (event == Event.START_OBJECT)
+        {
+            getObject();
+        }
+    }
+
+    @Override
+    public void skipArray()
+    {
+        if (event == Event.START_ARRAY)
+        {
+            getArray();
+        }
+    }
+
+    @Override
+    public JsonLocation getLocation()
+    {
+        long streamOffset = offset;
+        return new JsonLocation()
+        {
+            @Override
+            public long getLineNumber()
+            {
+                return -1;
+            }
+
+            @Override
+            public long getColumnNumber()
+            {
+                return -1;
+            }
+
+            @Override
+            public long getStreamOffset()
+            {
+                return streamOffset;
+            }
+        };
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            inputStream.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
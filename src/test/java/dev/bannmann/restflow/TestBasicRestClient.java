@@ -13,12 +13,22 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.channels.ClosedChannelException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.json.Json;
 import javax.json.JsonObject;
@@ -305,17 +315,123 @@ public class TestBasicRestClient extends AbstractNameableTest
         assertThat(response).contains(expectedResult);
     }
 
+    @Test(timeOut = METHOD_TIMEOUT, dataProvider = "getFetchTypeData")
+    public <T> void testFetchWithBinaryJsonDecoding(
+        org.mockserver.model.HttpResponse mockResponse,
+        ReturnSpec<T> returnSpec,
+        T expectedResult,
+        @UseAsTestName @SuppressWarnings("unused") String remark) throws Exception
+    {
+        T response = prepareFetchClientServer(mockResponse, returnSpec, makeBinaryJsonDecodingClientConfig()).fetch()
+            .get();
+
+        assertThat(response).isEqualTo(expectedResult);
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchWithBinaryJsonDecodingAndMalformedJsonResponse()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HTML_ERROR_PAGE_WITH_SUCCESS_STATUS);
+
+        CompletableFuture<Greeting> responseFuture = makeClient(makeBinaryJsonDecodingClientConfig()).make(
+                TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch();
+
+        assertThatThrownBy(responseFuture::get).isExactlyInstanceOf(ExecutionException.class)
+            .extracting(Throwable::getCause, as(InstanceOfAssertFactories.THROWABLE))
+            .isExactlyInstanceOf(ResponseBodyException.class)
+            .hasMessageContaining(TestData.Responses.Body.HTML_UNEXPECTED_ERROR);
+    }
+
+    private ClientConfig makeBinaryJsonDecodingClientConfig()
+    {
+        return makeClientConfig().toBuilder()
+            .binaryJsonDecoding(true)
+            .build();
+    }
+
     private <T> FetchHandle<T> prepareFetchClientServer(
         org.mockserver.model.HttpResponse mockResponse, ReturnSpec<T> returnSpec)
+    {
+        return prepareFetchClientServer(mockResponse, returnSpec, makeClientConfig());
+    }
+
+    private <T> FetchHandle<T> prepareFetchClientServer(
+        org.mockserver.model.HttpResponse mockResponse, ReturnSpec<T> returnSpec, ClientConfig clientConfig)
     {
         mockedServer.when(TestData.Requests.Incoming.POST)
             .respond(mockResponse);
 
-        BasicRestClient client = makeClient();
+        BasicRestClient client = makeClient(clientConfig);
         var requestHandle = client.make(TestData.Requests.Outgoing.POST);
         return returnSpec.apply(requestHandle);
     }
 
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchStream() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HELLO_WORLD_ARRAY);
+
+        try (Stream<Greeting> stream = makeClient().make(TestData.Requests.Outgoing.POST)
+            .returningStreamOf(Greeting.class)
+            .fetch()
+            .get())
+        {
+            assertThat(stream).containsExactly(new Greeting("Hello, world!"));
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchStreamWithMalformedJsonResponse() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HTML_ERROR_PAGE_WITH_SUCCESS_STATUS);
+
+        try (Stream<Greeting> stream = makeClient().make(TestData.Requests.Outgoing.POST)
+            .returningStreamOf(Greeting.class)
+            .fetch()
+            .get())
+        {
+            assertThatThrownBy(stream::count).isExactlyInstanceOf(ResponseBodyException.class)
+                .hasRootCauseExactlyInstanceOf(JsonParsingException.class);
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchNdjsonStream() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HELLO_WORLD_NDJSON);
+
+        try (Stream<Greeting> stream = makeClient().make(TestData.Requests.Outgoing.POST)
+            .returningNdjsonStreamOf(Greeting.class)
+            .fetch()
+            .get())
+        {
+            assertThat(stream).containsExactly(new Greeting("Hello, world!"), new Greeting("Hello, world!"));
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchNdjsonStreamWithMalformedLine() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.MALFORMED_NDJSON);
+
+        try (Stream<Greeting> stream = makeClient().make(TestData.Requests.Outgoing.POST)
+            .returningNdjsonStreamOf(Greeting.class)
+            .fetch()
+            .get())
+        {
+            int secondLineOffset = TestData.Responses.Body.HELLO_WORLD_OBJECT.length() + 1;
+            assertThatThrownBy(stream::count).isExactlyInstanceOf(ResponseBodyException.class)
+                .hasMessageContaining("line 2 (byte offset " + secondLineOffset + ")");
+        }
+    }
+
     @Test(timeOut = METHOD_TIMEOUT)
     public void testTimeoutKept() throws Exception
     {
@@ -424,6 +540,164 @@ public class TestBasicRestClient extends AbstractNameableTest
         assertThatThrownBy(tryFetchFuture::get).hasRootCauseMessage(expectedMessage);
     }
 
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testTruncatedErrorBody()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(response().withStatusCode(418)
+                .withBody("Incompatible equipment."));
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .maxErrorBodyBytes(12)
+            .maxMessageBodyChars(5)
+            .build();
+        var fetchFuture = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returningInputStream()
+            .fetch();
+
+        String expectedMessage = "Got status 418 with message »Incom… (23 bytes total)« for POST " +
+            TestData.BASE_URL +
+            TestData.Strings.PATH;
+        assertThatThrownBy(fetchFuture::get).cause()
+            .hasMessage(expectedMessage)
+            .asInstanceOf(InstanceOfAssertFactories.type(ResponseStatusException.class))
+            .extracting(ResponseStatusException::getCapturedBody)
+            .isEqualTo(new CapturedBody("Incompatible", 23, true));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testErrorBodyCapturedInsteadOfConverted()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(response().withStatusCode(500)
+                .withBody("x".repeat(100_000)));
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .maxErrorBodyBytes(10)
+            .build();
+        var fetchFuture = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch();
+
+        assertThatThrownBy(fetchFuture::get).cause()
+            .asInstanceOf(InstanceOfAssertFactories.type(ResponseStatusException.class))
+            .satisfies(e -> assertThat(e.getResponse()
+                .body()).isNull())
+            .extracting(ResponseStatusException::getCapturedBody)
+            .isEqualTo(new CapturedBody("x".repeat(10), 100_000, true));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFetchBlocking()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST, once())
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+        mockedServer.when(TestData.Requests.Incoming.POST, once())
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .policy(RETRY_ONCE_POLICY)
+            .build();
+        Greeting greeting = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetchBlocking();
+
+        assertThat(greeting).isEqualTo(new Greeting("Hello, world!"));
+        mockedServer.verify(TestData.Requests.Incoming.POST, exactly(2));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testTryFetchBlockingMissing()
+    {
+        Optional<String> response = makeClient().make(TestData.Requests.Outgoing.POST_MISSING)
+            .returningString()
+            .tryFetchBlocking();
+
+        assertThat(response).isEmpty();
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testExecuteBlockingFailures()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+
+        ExecuteHandle serverError = makeClient().make(TestData.Requests.Outgoing.POST)
+            .returningNothing();
+        assertThatThrownBy(serverError::executeBlocking).isExactlyInstanceOf(ResponseStatusException.class)
+            .hasMessageStartingWith("Got status 500");
+
+        ExecuteHandle nowhere = makeClient().make(HttpRequest.newBuilder()
+                .uri(TestData.FAKE_SERVER_URL.toUri())
+                .build())
+            .returningNothing();
+        assertThatThrownBy(nowhere::executeBlocking).isExactlyInstanceOf(RequestFailureException.class)
+            .hasMessageContaining(TestData.FAKE_SERVER_URL.toString())
+            .hasRootCauseExactlyInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testConversionExecutor() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        AtomicInteger submittedTasks = new AtomicInteger();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            ConversionExecutor conversionExecutor = ConversionExecutor.builder()
+                .executor(command -> {
+                    submittedTasks.incrementAndGet();
+                    executorService.execute(command);
+                })
+                .build();
+            ClientConfig clientConfig = makeClientConfig().toBuilder()
+                .conversionExecutor(conversionExecutor)
+                .build();
+            Greeting greeting = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+                .returning(Greeting.class)
+                .fetch()
+                .get();
+
+            assertThat(greeting).isEqualTo(new Greeting("Hello, world!"));
+            assertThat(submittedTasks).hasValue(1);
+            assertThat(conversionExecutor.getOffloadedCount()).isEqualTo(1);
+            assertThat(conversionExecutor.getInlineCount()).isZero();
+            assertThat(conversionExecutor.getQueueDepth()).isZero();
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testConversionExecutorRejection()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        ConversionExecutor conversionExecutor = ConversionExecutor.builder()
+            .executor(command -> {
+                throw new RejectedExecutionException("Queue is full");
+            })
+            .build();
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .conversionExecutor(conversionExecutor)
+            .build();
+        CompletableFuture<Greeting> responseFuture = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch();
+
+        assertThatThrownBy(responseFuture::get).isExactlyInstanceOf(ExecutionException.class)
+            .extracting(Throwable::getCause, as(InstanceOfAssertFactories.THROWABLE))
+            .isExactlyInstanceOf(RequestFailureException.class)
+            .hasMessageContaining(TestData.Strings.PATH)
+            .hasCauseExactlyInstanceOf(RejectedExecutionException.class);
+        assertThat(conversionExecutor.getQueueDepth()).isZero();
+    }
+
     @Test(timeOut = METHOD_TIMEOUT)
     public void testGlobalRequestCustomizer() throws Exception
     {
@@ -479,6 +753,436 @@ public class TestBasicRestClient extends AbstractNameableTest
         mockedServer.verify(TestData.Requests.Incoming.POST_AUTHORIZED);
     }
 
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testResponseCacheHit() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT.clone()
+                .withHeader("Cache-Control", "max-age=60"));
+
+        ResponseCache responseCache = ResponseCache.builder()
+            .maximumWeight(1024 * 1024)
+            .build();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .responseCache(responseCache)
+            .build());
+
+        Greeting first = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+        Greeting second = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+
+        assertThat(second).isEqualTo(first)
+            .isNotSameAs(first);
+        assertThat(responseCache.getHitCount()).isEqualTo(1);
+        assertThat(responseCache.getMissCount()).isEqualTo(1);
+        mockedServer.verify(TestData.Requests.Incoming.GET, exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testResponseCacheSeparatesCallers() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT.clone()
+                .withHeader("Cache-Control", "max-age=60"));
+
+        ResponseCache responseCache = ResponseCache.builder()
+            .maximumWeight(1024 * 1024)
+            .build();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .responseCache(responseCache)
+            .build());
+
+        for (String credentials : List.of(TestData.Strings.BEARER_IDDQD, TestData.Strings.BASIC_FOOBAR))
+        {
+            client.make(TestData.Requests.Outgoing.GET)
+                .returning(Greeting.class)
+                .customizingRequest(authorizationHeaderSetter(credentials))
+                .fetch()
+                .get();
+        }
+
+        assertThat(responseCache.getHitCount()).isZero();
+        mockedServer.verify(TestData.Requests.Incoming.GET, exactly(2));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testResponseCacheIgnoresPerRequestHeaders() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT.clone()
+                .withHeader("Cache-Control", "max-age=60")
+                .withHeader("Vary", "Accept"));
+
+        ResponseCache responseCache = ResponseCache.builder()
+            .maximumWeight(1024 * 1024)
+            .build();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .responseCache(responseCache)
+            .build());
+
+        for (String requestId : List.of("1", "2"))
+        {
+            client.make(TestData.Requests.Outgoing.GET)
+                .returning(Greeting.class)
+                .customizingRequest(builder -> builder.setHeader("X-Request-ID", requestId))
+                .fetch()
+                .get();
+        }
+
+        assertThat(responseCache.getHitCount()).isEqualTo(1);
+        mockedServer.verify(TestData.Requests.Incoming.GET, exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testResponseCacheRevalidation() throws Exception
+    {
+        String eTag = "\"v1\"";
+        mockedServer.when(TestData.Requests.Incoming.GET.clone()
+                .withHeader("If-None-Match", eTag))
+            .respond(response().withStatusCode(304)
+                .withHeader("ETag", eTag));
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT.clone()
+                .withHeader("ETag", eTag)
+                .withHeader("Cache-Control", "no-cache"));
+
+        ResponseCache responseCache = ResponseCache.builder()
+            .maximumWeight(1024 * 1024)
+            .build();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .responseCache(responseCache)
+            .build());
+
+        client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+        Greeting revalidated = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+
+        assertThat(revalidated).isEqualTo(new Greeting("Hello, world!"));
+        assertThat(responseCache.getRevalidationCount()).isEqualTo(1);
+        mockedServer.verify(TestData.Requests.Incoming.GET, exactly(2));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testRequestCoalescing() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.DELAYED_HELLO_WORLD_OBJECT);
+
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .requestCoalescer(requestCoalescer)
+            .build());
+
+        var first = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch();
+        var second = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch();
+        var separate = client.make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .withoutCoalescing()
+            .fetch();
+
+        assertThat(first.get()).isEqualTo(second.get())
+            .isNotSameAs(second.get())
+            .isEqualTo(separate.get());
+        assertThat(requestCoalescer.getCoalescedCount()).isEqualTo(1);
+        mockedServer.verify(TestData.Requests.Incoming.GET, exactly(2));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testBulkFetch() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        BasicRestClient client = makeClient();
+        List<FetchHandle<Greeting>> handles = Collections.nCopies(5,
+            client.make(TestData.Requests.Outgoing.POST)
+                .returning(Greeting.class));
+
+        BulkFetchExecution<Greeting> execution = BulkFetch.of(handles)
+            .maxConcurrency(2)
+            .start();
+
+        assertThat(execution.results()).hasSize(5)
+            .allMatch(BulkFetchResult::isSuccess);
+        assertThat(execution.getCompletion()
+            .get()).hasSize(5)
+            .containsOnly(new Greeting("Hello, world!"));
+        mockedServer.verify(TestData.Requests.Incoming.POST, exactly(5));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testBulkFetchResultsAreConsumedOnce()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.DELAYED_HELLO_WORLD_OBJECT);
+
+        BasicRestClient client = makeClient();
+        List<FetchHandle<Greeting>> handles = Collections.nCopies(5,
+            client.make(TestData.Requests.Outgoing.POST)
+                .returning(Greeting.class));
+
+        BulkFetchExecution<Greeting> execution = BulkFetch.of(handles)
+            .maxConcurrency(2)
+            .start();
+
+        try (Stream<BulkFetchResult<Greeting>> results = execution.results())
+        {
+            assertThatThrownBy(execution::results).isExactlyInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(execution::publisher).isExactlyInstanceOf(IllegalStateException.class);
+        }
+
+        assertThatThrownBy(execution.getCompletion()::get).isInstanceOf(CancellationException.class);
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testBulkFetchCollectAll()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+
+        BasicRestClient client = makeClient();
+        List<FetchHandle<Greeting>> handles = Collections.nCopies(3,
+            client.make(TestData.Requests.Outgoing.POST)
+                .returning(Greeting.class));
+
+        BulkFetchExecution<Greeting> execution = BulkFetch.of(handles)
+            .errorMode(BulkFetch.ErrorMode.COLLECT_ALL)
+            .start();
+
+        assertThatThrownBy(() -> execution.getCompletion()
+            .get()).hasCauseExactlyInstanceOf(BulkFetchException.class);
+        mockedServer.verify(TestData.Requests.Incoming.POST, exactly(3));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testConcurrencyLimitExceeded() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.DELAYED_HELLO_WORLD_OBJECT);
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(1)
+            .minLimit(1)
+            .maxLimit(1)
+            .build();
+        BasicRestClient client = makeClient(makeClientConfig().toBuilder()
+            .concurrencyLimiter(concurrencyLimiter)
+            .build());
+
+        var first = client.make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch();
+        var second = client.make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch();
+
+        assertThatThrownBy(second::get).isExactlyInstanceOf(ExecutionException.class)
+            .hasCauseExactlyInstanceOf(ConcurrencyLimitExceededException.class);
+        assertThat(first.get()).isEqualTo(new Greeting("Hello, world!"));
+        assertThat(concurrencyLimiter.getRejectedCount()).isEqualTo(1);
+        assertThat(concurrencyLimiter.getInFlight(TestData.BASE_URL.toUri()
+            .getAuthority())).isZero();
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testRequestListener() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST, once())
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+        mockedServer.when(TestData.Requests.Incoming.POST, once())
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        List<String> events = new CopyOnWriteArrayList<>();
+        RequestListener requestListener = new RequestListener()
+        {
+            @Override
+            public void customizersApplied(HttpRequest request, long startNanos, long endNanos)
+            {
+                events.add("customizersApplied");
+            }
+
+            @Override
+            public void requestStarted(HttpRequest request, long nanos)
+            {
+                events.add("requestStarted");
+            }
+
+            @Override
+            public void attemptStarted(HttpRequest request, int attempt, long nanos)
+            {
+                events.add("attemptStarted " + attempt);
+            }
+
+            @Override
+            public void headersReceived(HttpRequest request, int attempt, int statusCode, long nanos)
+            {
+                events.add("headersReceived " + attempt + " " + statusCode);
+            }
+
+            @Override
+            public void attemptSucceeded(HttpRequest request, int attempt, int statusCode, long nanos)
+            {
+                events.add("attemptSucceeded " + attempt);
+            }
+
+            @Override
+            public void attemptFailed(HttpRequest request, int attempt, Throwable failure, long nanos)
+            {
+                events.add("attemptFailed " + attempt);
+            }
+
+            @Override
+            public void responseConverted(HttpRequest request, long startNanos, long endNanos)
+            {
+                events.add("responseConverted");
+            }
+        };
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .policy(RETRY_ONCE_POLICY)
+            .requestCustomizer(authorizationHeaderSetter(TestData.Strings.BASIC_FOOBAR))
+            .requestListener(requestListener)
+            .build();
+        Greeting greeting = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+
+        assertThat(greeting).isEqualTo(new Greeting("Hello, world!"));
+        assertThat(events).containsExactly("customizersApplied",
+            "requestStarted",
+            "attemptStarted 1",
+            "headersReceived 1 500",
+            "attemptFailed 1",
+            "attemptStarted 2",
+            "headersReceived 2 200",
+            "attemptSucceeded 2",
+            "responseConverted");
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testCallerFramesPerCallSite()
+    {
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .callerFrameCapture(CallerFrameCapture.perCallSite(10))
+            .diagnosticsDataSupplier(() -> Map.of("requestId", "abc"))
+            .build();
+        BasicRestClient client = makeClient(clientConfig);
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(TestData.FAKE_SERVER_URL.toUri())
+            .build();
+
+        List<RequestException> exceptions = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+        {
+            CompletableFuture<Void> responseFuture = client.make(request)
+                .returningNothing()
+                .execute();
+            assertThatThrownBy(responseFuture::join).cause()
+                .isInstanceOfSatisfying(RequestException.class, exceptions::add);
+        }
+
+        RequestException first = exceptions.get(0);
+        RequestException second = exceptions.get(1);
+        assertThat(first.getCallerFrames()).isNotEmpty()
+            .isSameAs(second.getCallerFrames());
+        assertThat(first.getDiagnosticsData()).containsExactly(Map.entry("requestId", "abc"));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testHedging() throws Exception
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET, once())
+            .respond(TestData.Responses.DELAYED_HELLO_WORLD_OBJECT);
+        mockedServer.when(TestData.Requests.Incoming.GET, once())
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder()
+            .delay(Duration.ofMillis(50))
+            .budget(1)
+            .build();
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .hedgingPolicy(hedgingPolicy)
+            .build();
+
+        long startNanos = System.nanoTime();
+        Greeting greeting = makeClient(clientConfig).make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .fetch()
+            .get();
+
+        assertThat(greeting).isEqualTo(new Greeting("Hello, world!"));
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofMillis(750));
+        assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(1);
+        assertThat(hedgingPolicy.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testDeadline()
+    {
+        mockedServer.when(TestData.Requests.Incoming.GET)
+            .respond(TestData.Responses.DELAYED_HELLO_WORLD_OBJECT);
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .policy(RETRY_ONCE_POLICY)
+            .defaultTimeBudget(Duration.ofSeconds(10))
+            .deadlineHeader("Request-Timeout")
+            .build();
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<Greeting> responseFuture = makeClient(clientConfig).make(TestData.Requests.Outgoing.GET)
+            .returning(Greeting.class)
+            .withTimeBudget(Duration.ofMillis(300))
+            .fetch();
+
+        assertThatThrownBy(responseFuture::get).isExactlyInstanceOf(ExecutionException.class)
+            .extracting(Throwable::getCause, as(InstanceOfAssertFactories.THROWABLE))
+            .isExactlyInstanceOf(DeadlineExceededException.class)
+            .hasMessageContaining(TestData.Strings.PATH);
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofMillis(750));
+        mockedServer.verify(TestData.Requests.Incoming.GET.clone()
+            .withHeader("Request-Timeout", "[0-9]+"), exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testDeadlineEndsRetryDelay()
+    {
+        mockedServer.when(TestData.Requests.Incoming.POST)
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+
+        ClientConfig clientConfig = makeClientConfig().toBuilder()
+            .policy(RetryPolicy.<HttpResponse<?>>builder()
+                .withMaxRetries(3)
+                .withDelay(Duration.ofSeconds(2))
+                .build())
+            .build();
+
+        ExecuteHandle handle = makeClient(clientConfig).make(TestData.Requests.Outgoing.POST)
+            .returningNothing()
+            .withTimeBudget(Duration.ofMillis(300));
+
+        long startNanos = System.nanoTime();
+        assertThatThrownBy(handle::executeBlocking).isExactlyInstanceOf(DeadlineExceededException.class)
+            .hasMessageContaining(TestData.Strings.PATH);
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofMillis(750));
+        assertThat(Thread.interrupted()).isFalse();
+        mockedServer.verify(TestData.Requests.Incoming.POST, exactly(1));
+    }
+
     private RequestCustomizer authorizationHeaderSetter(String value)
     {
         return builder -> builder.setHeader(TestData.Strings.AUTHORIZATION, value);
@@ -42,6 +42,9 @@ class TestData
             public final HttpRequest POST_MISSING = createRequest(Strings.PATH_MISSING).POST(noBody())
                 .build();
 
+            public final HttpRequest GET = createRequest(Strings.PATH).GET()
+                .build();
+
             private static HttpRequest.Builder createRequest(String path)
             {
                 return HttpRequest.newBuilder()
@@ -56,6 +59,8 @@ class TestData
             public final org.mockserver.model.HttpRequest POST = request(Strings.PATH).withMethod("POST");
             public final org.mockserver.model.HttpRequest POST_AUTHORIZED = POST.clone()
                 .withHeader(Strings.AUTHORIZATION, Strings.BEARER_IDDQD);
+
+            public final org.mockserver.model.HttpRequest GET = request(Strings.PATH).withMethod("GET");
         }
     }
 
@@ -69,6 +74,10 @@ class TestData
 
             public final String HELLO_WORLD_JSON_ARRAY = "[" + HELLO_WORLD_OBJECT + "]";
 
+            public final String HELLO_WORLD_NDJSON = HELLO_WORLD_OBJECT + "\n\n" + HELLO_WORLD_OBJECT + "\n";
+
+            public final String MALFORMED_NDJSON = HELLO_WORLD_OBJECT + "\n{\"greeting\":\n";
+
             public final String
                 INTERNAL_SERVER_ERROR_BODY
                 = "Detected a slight field variance in the thera-magnetic caesium portal housing.";
@@ -89,6 +98,12 @@ class TestData
         public final org.mockserver.model.HttpResponse HELLO_WORLD_ARRAY = response().withStatusCode(200)
             .withBody(Body.HELLO_WORLD_JSON_ARRAY);
 
+        public final org.mockserver.model.HttpResponse HELLO_WORLD_NDJSON = response().withStatusCode(200)
+            .withBody(Body.HELLO_WORLD_NDJSON);
+
+        public final org.mockserver.model.HttpResponse MALFORMED_NDJSON = response().withStatusCode(200)
+            .withBody(Body.MALFORMED_NDJSON);
+
         public final org.mockserver.model.HttpResponse HTML_ERROR_PAGE_WITH_SUCCESS_STATUS = response().withStatusCode(
                 200)
             .withBody(Body.HTML_UNEXPECTED_ERROR);
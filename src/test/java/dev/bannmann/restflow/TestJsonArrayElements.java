@@ -0,0 +1,178 @@
+package dev.bannmann.restflow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.json.Json;
+import javax.json.JsonValue;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.stream.JsonParsingException;
+
+import org.testng.annotations.Test;
+
+public class TestJsonArrayElements
+{
+    /**
+     * Returns at most one byte per read, so that every element spans several chunks.
+     */
+    private static final class TricklingInputStream extends FilterInputStream
+    {
+        TricklingInputStream(InputStream in)
+        {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            return super.read(bytes, offset, Math.min(length, 1));
+        }
+    }
+
+    private final Jsonb jsonb = JsonbBuilder.create();
+
+    @Test
+    public void testStringsWithStructuralCharacters()
+    {
+        String json = "[\"a[b]\", \"c,d\", \"e\\\"]f\", \"g\\\\\", \"{\"]";
+
+        assertThat(read(json, String.class)).containsExactly("a[b]", "c,d", "e\"]f", "g\\", "{");
+        assertThat(readTrickling(json, String.class)).containsExactly("a[b]", "c,d", "e\"]f", "g\\", "{");
+    }
+
+    @Test
+    public void testNestedElements()
+    {
+        String json = "[{\"greeting\":\"Hello, [world]!\"},[[1],{\"a\":[]}],{}]";
+        List<JsonValue> expected = List.of(Json.createObjectBuilder()
+                .add("greeting", "Hello, [world]!")
+                .build(),
+            Json.createArrayBuilder()
+                .add(Json.createArrayBuilder()
+                    .add(1))
+                .add(Json.createObjectBuilder()
+                    .add("a", Json.createArrayBuilder()))
+                .build(),
+            JsonValue.EMPTY_JSON_OBJECT);
+
+        assertThat(read(json, JsonValue.class)).containsExactlyElementsOf(expected);
+        assertThat(readTrickling(json, JsonValue.class)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testObjectsBoundToClass()
+    {
+        String json = "[{\"greeting\":\"Hello, world!\"}, {\"greeting\":\"}\"}]";
+
+        assertThat(readTrickling(json, TestBasicRestClient.Greeting.class)).containsExactly(
+            new TestBasicRestClient.Greeting("Hello, world!"),
+            new TestBasicRestClient.Greeting("}"));
+    }
+
+    @Test
+    public void testNumbers()
+    {
+        String json = "[1,-2.5e3 ,\n0.5]";
+
+        assertThat(read(json, BigDecimal.class)).containsExactly(new BigDecimal("1"),
+            new BigDecimal("-2.5e3"),
+            new BigDecimal("0.5"));
+        assertThat(readTrickling(json, BigDecimal.class)).containsExactly(new BigDecimal("1"),
+            new BigDecimal("-2.5e3"),
+            new BigDecimal("0.5"));
+    }
+
+    @Test
+    public void testLiterals()
+    {
+        String json = "[true,false, null]";
+
+        assertThat(read(json, JsonValue.class)).containsExactly(JsonValue.TRUE, JsonValue.FALSE, JsonValue.NULL);
+        assertThat(readTrickling(json, JsonValue.class)).containsExactly(JsonValue.TRUE,
+            JsonValue.FALSE,
+            JsonValue.NULL);
+    }
+
+    @Test
+    public void testEmptyArray()
+    {
+        assertThat(read(" [ ] ", String.class)).isEmpty();
+        assertThat(readTrickling("[]", String.class)).isEmpty();
+    }
+
+    @Test
+    public void testElementLargerThanChunk()
+    {
+        String text = "x".repeat(20_000);
+
+        assertThat(read("[\"" + text + "\",\"y\"]", String.class)).containsExactly(text, "y");
+    }
+
+    @Test
+    public void testTruncatedElement()
+    {
+        var elements = createElements("[{\"greeting\":\"Hello\"},{\"gree", TestBasicRestClient.Greeting.class, false);
+
+        assertThat(elements.next()).isEqualTo(new TestBasicRestClient.Greeting("Hello"));
+        assertThatThrownBy(elements::next).isExactlyInstanceOf(ResponseBodyException.class);
+    }
+
+    @Test
+    public void testTruncatedArray()
+    {
+        var elements = createElements("[1, 2", BigDecimal.class, true);
+
+        assertThat(elements.next()).isEqualTo(new BigDecimal("1"));
+        assertThat(elements.next()).isEqualTo(new BigDecimal("2"));
+        assertThatThrownBy(elements::hasNext).isExactlyInstanceOf(ResponseBodyException.class)
+            .hasRootCauseExactlyInstanceOf(JsonParsingException.class);
+    }
+
+    @Test
+    public void testNotAnArray()
+    {
+        var elements = createElements("{\"greeting\":\"Hello\"}", TestBasicRestClient.Greeting.class, false);
+
+        assertThatThrownBy(elements::hasNext).isExactlyInstanceOf(ResponseBodyException.class)
+            .hasRootCauseExactlyInstanceOf(JsonParsingException.class);
+    }
+
+    private <T> List<T> read(String json, Class<T> elementClass)
+    {
+        return createElements(json, elementClass, false).stream()
+            .collect(Collectors.toList());
+    }
+
+    private <T> List<T> readTrickling(String json, Class<T> elementClass)
+    {
+        return createElements(json, elementClass, true).stream()
+            .collect(Collectors.toList());
+    }
+
+    private <T> JsonArrayElements<T> createElements(String json, Class<T> elementClass, boolean trickling)
+    {
+        InputStream inputStream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        if (trickling)
+        {
+            inputStream = new TricklingInputStream(inputStream);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/elements"))
+            .build();
+        var context = new ResponseContext(request, null, Map.of(), List.of());
+        return new JsonArrayElements<>(inputStream, elementClass, jsonb, context);
+    }
+}
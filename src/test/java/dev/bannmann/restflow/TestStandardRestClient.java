@@ -1,11 +1,98 @@
 package dev.bannmann.restflow;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.model.JsonBody.json;
+import static org.mockserver.verify.VerificationTimes.exactly;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.bind.JsonbBuilder;
+
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.matchers.Times;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.github.mizool.core.UrlRef;
 import com.github.mizool.core.exception.NotYetImplementedException;
+import com.sun.net.httpserver.HttpServer;
+import dev.failsafe.RetryPolicy;
+
+import dev.bannmann.restflow.cbor.CborCodec;
 
 public class TestStandardRestClient
 {
+    private static final int METHOD_TIMEOUT = 5 * 1000;
+
+    private final ClientAndServer mockedServer = new ClientAndServer(0);
+
+    @BeforeMethod
+    public void setUp()
+    {
+        mockedServer.reset();
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        mockedServer.stop();
+    }
+
+    private StandardRestClient makeClient()
+    {
+        return makeClient(makeClientConfig());
+    }
+
+    private StandardRestClient makeClient(ClientConfig clientConfig)
+    {
+        var baseUrl = new UrlRef("http://localhost:" + mockedServer.getPort());
+        return StandardRestClient.builder()
+            .clientConfig(clientConfig)
+            .requestTemplate(HttpRequest.newBuilder()
+                .uri(baseUrl.toUri()))
+            .build();
+    }
+
+    private ClientConfig makeClientConfig()
+    {
+        return ClientConfig.builder()
+            .httpClient(HttpClient.newBuilder()
+                .build())
+            .jsonb(JsonbBuilder.create())
+            .build();
+    }
+
     // TODO add StandardRestClient tests
 
     @Test(enabled = false)
@@ -13,4 +100,662 @@ public class TestStandardRestClient
     {
         throw new NotYetImplementedException();
     }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPostObject() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("POST"))
+            .respond(TestData.Responses.NO_CONTENT);
+
+        makeClient().post(new TestBasicRestClient.Greeting("Hello, world!"))
+            .to(TestData.Strings.PATH)
+            .returningNothing()
+            .execute()
+            .get();
+
+        mockedServer.verify(request(TestData.Strings.PATH).withMethod("POST")
+            .withBody(json(TestData.Responses.Body.HELLO_WORLD_OBJECT)));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPostObjectIsSerializedAgainForRetry() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("POST"), Times.once())
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("POST"))
+            .respond(TestData.Responses.NO_CONTENT);
+
+        makeClient(makeClientConfig().toBuilder()
+                .policy(RetryPolicy.<HttpResponse<?>>builder()
+                    .withMaxRetries(1)
+                    .build())
+                .build()).post(new TestBasicRestClient.Greeting("Hello, world!"))
+            .to(TestData.Strings.PATH)
+            .returningNothing()
+            .execute()
+            .get();
+
+        mockedServer.verify(request(TestData.Strings.PATH).withMethod("POST")
+            .withBody(json(TestData.Responses.Body.HELLO_WORLD_OBJECT)), exactly(2));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPostObjectFailsIfSerializationFails()
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("POST"))
+            .respond(TestData.Responses.NO_CONTENT);
+
+        CompletableFuture<Void> responseFuture = makeClient().post(new UnserializableGreeting())
+            .to(TestData.Strings.PATH)
+            .returningNothing()
+            .execute();
+
+        assertThatThrownBy(responseFuture::get).isExactlyInstanceOf(ExecutionException.class)
+            .hasCauseExactlyInstanceOf(RequestFailureException.class);
+        mockedServer.verify(request(TestData.Strings.PATH).withMethod("POST"), exactly(0));
+    }
+
+    /**
+     * Fails to serialize after more than a chunk of the body has been written.
+     */
+    public static class UnserializableGreeting
+    {
+        public String getGreeting()
+        {
+            return "Hello, world! ".repeat(10_000);
+        }
+
+        public String getSignature()
+        {
+            throw new IllegalStateException("Cannot sign greeting");
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPutJsonValue() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("PUT"))
+            .respond(TestData.Responses.NO_CONTENT);
+
+        var body = Json.createObjectBuilder()
+            .add("greeting", "Hello, world!")
+            .build();
+        makeClient().put(body)
+            .to(TestData.Strings.PATH)
+            .returningNothing()
+            .execute()
+            .get();
+
+        mockedServer.verify(request(TestData.Strings.PATH).withMethod("PUT")
+            .withBody(json(TestData.Responses.Body.HELLO_WORLD_OBJECT)));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPaginationFollowsLinkHeader()
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("GET")
+                .withQueryStringParameter("page", "2"))
+            .respond(response().withStatusCode(200)
+                .withBody("[{\"greeting\":\"Goodbye!\"}]"));
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("GET"))
+            .respond(TestData.Responses.HELLO_WORLD_ARRAY.clone()
+                .withHeader("Link", "<" + TestData.Strings.PATH + "?page=2>; rel=\"next\""));
+
+        List<TestBasicRestClient.Greeting> greetings;
+        try (Stream<TestBasicRestClient.Greeting> stream = makeClient().get(TestData.Strings.PATH)
+            .paginatingListOf(TestBasicRestClient.Greeting.class)
+            .stream())
+        {
+            greetings = stream.collect(Collectors.toList());
+        }
+
+        assertThat(greetings).containsExactly(new TestBasicRestClient.Greeting("Hello, world!"),
+            new TestBasicRestClient.Greeting("Goodbye!"));
+        mockedServer.verify(request(TestData.Strings.PATH).withQueryStringParameter("page", "2"), exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testClosingPaginationCancelsFetchInFlight()
+    {
+        List<CompletableFuture<Page<List<String>>>> fetches = new CopyOnWriteArrayList<>();
+        Pagination<List<String>, String> pagination = Pagination.of(URI.create("http://localhost/items"), uri -> {
+            var fetch = new CompletableFuture<Page<List<String>>>();
+            fetches.add(fetch);
+            return fetch;
+        }, Function.identity());
+
+        pagination.stream()
+            .close();
+
+        assertThat(fetches).hasSize(1)
+            .allMatch(CompletableFuture::isCancelled);
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testBatchLoader() throws Exception
+    {
+        mockedServer.when(request("/greetings").withMethod("GET"))
+            .respond(response().withStatusCode(200)
+                .withBody("[{\"greeting\":\"Hello\"},{\"greeting\":\"Hi\"}]"));
+
+        Endpoint greetings = makeClient().endpoint("greetings{?names}");
+        var loader = BatchLoader.<String, TestBasicRestClient.Greeting>builder()
+            .batchRequest(names -> greetings.get(Map.of("names", String.join(",", names)))
+                .returningListOf(TestBasicRestClient.Greeting.class))
+            .keyExtractor(TestBasicRestClient.Greeting::getGreeting)
+            .maxWait(Duration.ofMillis(100))
+            .build();
+
+        var hello = loader.load("Hello");
+        var hi = loader.load("Hi");
+        var howdy = loader.load("Howdy");
+        var helloAgain = loader.load("Hello");
+
+        assertThat(hello.get()).contains(new TestBasicRestClient.Greeting("Hello"));
+        assertThat(hi.get()).contains(new TestBasicRestClient.Greeting("Hi"));
+        assertThat(howdy.get()).isEmpty();
+        assertThat(helloAgain).isSameAs(hello);
+        assertThat(loader.getBatchSizes()
+            .getCount()).isEqualTo(1);
+        assertThat(loader.getBatchSizes()
+            .getMax()).isEqualTo(3);
+        assertThat(loader.getWaitTimes()
+            .getCount()).isEqualTo(3);
+        mockedServer.verify(request("/greetings"), exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testEndpoint() throws Exception
+    {
+        mockedServer.when(request("/users/42/orders").withMethod("GET")
+                .withQueryStringParameter("q", "a b&c"))
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        Endpoint endpoint = makeClient().endpoint("users/{id}/orders{?q,page}");
+        var greeting = endpoint.get(Map.of("id", 42, "q", "a b&c"))
+            .returning(TestBasicRestClient.Greeting.class)
+            .fetch()
+            .get();
+
+        assertThat(greeting).isEqualTo(new TestBasicRestClient.Greeting("Hello, world!"));
+        assertThat(endpoint.getVariableNames()).containsExactly("id", "q", "page");
+        assertThat(endpoint.expand(Map.of("id", "ä/ö", "page", 2))
+            .getRawPath()).isEqualTo("/users/%C3%A4%2F%C3%B6/orders");
+        assertThat(endpoint.expand(Map.of("id", 1, "page", 2))
+            .getRawQuery()).isEqualTo("page=2");
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testPostObjectToEndpoint() throws Exception
+    {
+        mockedServer.when(request("/users/42/greetings").withMethod("POST"))
+            .respond(TestData.Responses.NO_CONTENT);
+
+        Endpoint endpoint = makeClient().endpoint("/users/{id}/greetings");
+        makeClient().post(new TestBasicRestClient.Greeting("Hello, world!"))
+            .to(endpoint, Map.of("id", 42))
+            .returningNothing()
+            .execute()
+            .get();
+
+        mockedServer.verify(request("/users/42/greetings").withMethod("POST")
+            .withHeader("Content-Type", "application/json")
+            .withBody(json(TestData.Responses.Body.HELLO_WORLD_OBJECT)));
+    }
+
+    @Test
+    public void testInvalidEndpointTemplate()
+    {
+        StandardRestClient client = makeClient();
+
+        assertThatThrownBy(() -> client.endpoint("users/{id")).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unterminated expression");
+        assertThatThrownBy(() -> client.endpoint("users/{?page}/orders")).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("literal text after query expression");
+        assertThatThrownBy(() -> client.endpoint("users/{id}")
+            .get(Map.of())).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("No value for variable 'id'");
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testStaticRequestCustomizer() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("GET"))
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        RequestCustomizer staticCustomizer = new RequestCustomizer()
+        {
+            @Override
+            public void customize(HttpRequest.Builder builder)
+            {
+                builder.setHeader("X-Client", "restflow");
+            }
+
+            @Override
+            public boolean isStatic()
+            {
+                return true;
+            }
+        };
+        StandardRestClient client = makeClient(makeClientConfig().toBuilder()
+            .requestCustomizer(staticCustomizer)
+            .build());
+
+        client.get(TestData.Strings.PATH)
+            .returningString()
+            .fetch()
+            .get();
+        client.endpoint(TestData.Strings.PATH)
+            .get()
+            .returningString()
+            .customizingRequest(builder -> builder.setHeader(TestData.Strings.AUTHORIZATION,
+                TestData.Strings.BEARER_IDDQD))
+            .fetch()
+            .get();
+
+        mockedServer.verify(request(TestData.Strings.PATH).withHeader("X-Client", "restflow"), exactly(2));
+        mockedServer.verify(request(TestData.Strings.PATH).withHeader("X-Client", "restflow")
+            .withHeader(TestData.Strings.AUTHORIZATION, TestData.Strings.BEARER_IDDQD), exactly(1));
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFileUploadAndDownload() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("PUT"))
+            .respond(TestData.Responses.NO_CONTENT);
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("GET"))
+            .respond(TestData.Responses.HELLO_WORLD_OBJECT);
+
+        Path upload = Files.createTempFile("restflow", ".json");
+        Path download = Files.createTempFile("restflow", ".json");
+        try
+        {
+            Files.writeString(upload, TestData.Responses.Body.HELLO_WORLD_OBJECT);
+            Files.writeString(download, "Some previous content that is longer than the response");
+
+            makeClient().put(upload)
+                .to(TestData.Strings.PATH)
+                .returningNothing()
+                .executeBlocking();
+            Path result = makeClient().get(TestData.Strings.PATH)
+                .returningFile(download)
+                .fetchBlocking();
+
+            mockedServer.verify(request(TestData.Strings.PATH).withMethod("PUT")
+                .withHeader("Content-Type", "application/octet-stream")
+                .withBody(json(TestData.Responses.Body.HELLO_WORLD_OBJECT)));
+            assertThat(result).isEqualTo(download);
+            assertThat(download).hasContent(TestData.Responses.Body.HELLO_WORLD_OBJECT);
+        }
+        finally
+        {
+            Files.delete(upload);
+            Files.delete(download);
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testFileDownloadError() throws Exception
+    {
+        mockedServer.when(request(TestData.Strings.PATH).withMethod("GET"))
+            .respond(TestData.Responses.INTERNAL_SERVER_ERROR);
+
+        Path download = Files.createTempDirectory("restflow")
+            .resolve("download.json");
+        var handle = makeClient().get(TestData.Strings.PATH)
+            .returningFile(download);
+
+        assertThatThrownBy(handle::fetchBlocking).isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining(TestData.Responses.Body.INTERNAL_SERVER_ERROR_BODY);
+        assertThat(download).doesNotExist();
+
+        Files.delete(download.getParent());
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testCompression() throws Exception
+    {
+        Map<String, String> requestHeaders = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/echo", exchange -> {
+            requestHeaders.put("Accept-Encoding", exchange.getRequestHeaders()
+                .getFirst("Accept-Encoding"));
+            requestHeaders.put("Content-Encoding", exchange.getRequestHeaders()
+                .getFirst("Content-Encoding"));
+
+            byte[] body;
+            try (InputStream requestBody = new GZIPInputStream(exchange.getRequestBody()))
+            {
+                body = requestBody.readAllBytes();
+            }
+
+            var compressedBody = new ByteArrayOutputStream();
+            try (var gzipStream = new GZIPOutputStream(compressedBody))
+            {
+                gzipStream.write(body);
+            }
+            exchange.getResponseHeaders()
+                .add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressedBody.size());
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                compressedBody.writeTo(responseBody);
+            }
+        });
+        server.start();
+
+        try
+        {
+            Compression compression = Compression.builder()
+                .requestBodyCompression(true)
+                .unknownSizeCompression(true)
+                .build();
+            StandardRestClient client = StandardRestClient.builder()
+                .clientConfig(makeClientConfig().toBuilder()
+                    .compression(compression)
+                    .build())
+                .requestTemplate(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress()
+                        .getPort() + "/")))
+                .build();
+
+            var greeting = client.post(new TestBasicRestClient.Greeting("Hello, world!"))
+                .to("echo")
+                .returning(TestBasicRestClient.Greeting.class)
+                .fetch()
+                .get();
+
+            assertThat(greeting).isEqualTo(new TestBasicRestClient.Greeting("Hello, world!"));
+            assertThat(requestHeaders).containsEntry("Accept-Encoding", "gzip, deflate")
+                .containsEntry("Content-Encoding", "gzip");
+            assertThat(compression.getUncompressedBytesSent()).isPositive();
+            assertThat(compression.getCompressedBytesSent()).isPositive();
+            assertThat(compression.getDecompressedBytesReceived()).isEqualTo(compression.getUncompressedBytesSent());
+            assertThat(compression.getCompressedBytesReceived()).isPositive();
+        }
+        finally
+        {
+            server.stop(0);
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testCompressionWithSeveralGzipMembers() throws Exception
+    {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/greeting", exchange -> {
+            var compressedBody = new ByteArrayOutputStream();
+            for (String part : List.of("{\"greeting\":", "\"Hello, world!\"}"))
+            {
+                try (var gzipStream = new GZIPOutputStream(compressedBody))
+                {
+                    gzipStream.write(part.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            exchange.getResponseHeaders()
+                .add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressedBody.size());
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                compressedBody.writeTo(responseBody);
+            }
+        });
+        server.start();
+
+        try
+        {
+            StandardRestClient client = StandardRestClient.builder()
+                .clientConfig(makeClientConfig().toBuilder()
+                    .compression(Compression.builder()
+                        .build())
+                    .build())
+                .requestTemplate(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress()
+                        .getPort() + "/")))
+                .build();
+
+            var greeting = client.get("greeting")
+                .returning(TestBasicRestClient.Greeting.class)
+                .fetch()
+                .get();
+
+            assertThat(greeting).isEqualTo(new TestBasicRestClient.Greeting("Hello, world!"));
+        }
+        finally
+        {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCborCodec() throws Exception
+    {
+        Map<String, String> requestHeaders = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/echo", exchange -> {
+            requestHeaders.put("Accept", exchange.getRequestHeaders()
+                .getFirst("Accept"));
+            requestHeaders.put("Content-Type", exchange.getRequestHeaders()
+                .getFirst("Content-Type"));
+
+            byte[] body;
+            try (InputStream requestBody = exchange.getRequestBody())
+            {
+                body = requestBody.readAllBytes();
+            }
+
+            exchange.getResponseHeaders()
+                .add("Content-Type", CborCodec.MEDIA_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                responseBody.write(body);
+            }
+        });
+        server.start();
+
+        try
+        {
+            StandardRestClient client = StandardRestClient.builder()
+                .clientConfig(makeClientConfig().toBuilder()
+                    .bodyCodec(new CborCodec())
+                    .requestBodyCodec(new CborCodec())
+                    .build())
+                .requestTemplate(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress()
+                        .getPort() + "/")))
+                .build();
+
+            var greeting = client.post(new TestBasicRestClient.Greeting("Hello, world!"))
+                .to("echo")
+                .returning(TestBasicRestClient.Greeting.class)
+                .fetch()
+                .get();
+
+            assertThat(greeting).isEqualTo(new TestBasicRestClient.Greeting("Hello, world!"));
+            assertThat(requestHeaders).containsEntry("Content-Type", CborCodec.MEDIA_TYPE);
+            assertThat(requestHeaders.get("Accept")).startsWith(CborCodec.MEDIA_TYPE);
+        }
+        finally
+        {
+            server.stop(0);
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testEventStreamReconnects() throws Exception
+    {
+        List<String> lastEventIds = new CopyOnWriteArrayList<>();
+        AtomicInteger connections = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/events", exchange -> {
+            lastEventIds.add(String.valueOf(exchange.getRequestHeaders()
+                .getFirst("Last-Event-ID")));
+
+            String body;
+            switch (connections.incrementAndGet())
+            {
+                case 1:
+                    body = "retry: 10\n: keep-alive\nid: 1\ndata: {\"greeting\":\n" +
+                        "data: \"Hello\"}\n\nid: 2\ndata: {\"greeting\":\"incomplete\"}\n";
+                    break;
+                case 2:
+                    body = "event: farewell\r\ndata: {\"greeting\":\"Goodbye\"}\r\n\r\n";
+                    break;
+                default:
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                    return;
+            }
+
+            exchange.getResponseHeaders()
+                .add("Content-Type", "text/event-stream");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                responseBody.write(bytes);
+            }
+        });
+        server.start();
+
+        try
+        {
+            StandardRestClient client = StandardRestClient.builder()
+                .clientConfig(makeClientConfig())
+                .requestTemplate(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress()
+                        .getPort() + "/")))
+                .build();
+
+            var result = new CompletableFuture<List<ServerSentEvent<TestBasicRestClient.Greeting>>>();
+            List<ServerSentEvent<TestBasicRestClient.Greeting>> events = new CopyOnWriteArrayList<>();
+            client.get("events")
+                .returningEventsOf(TestBasicRestClient.Greeting.class)
+                .publisher()
+                .subscribe(new Flow.Subscriber<>()
+                {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription)
+                    {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(ServerSentEvent<TestBasicRestClient.Greeting> item)
+                    {
+                        events.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable)
+                    {
+                        result.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onComplete()
+                    {
+                        result.complete(events);
+                    }
+                });
+
+            assertThat(result.get()).extracting(ServerSentEvent::getId,
+                    ServerSentEvent::getType,
+                    ServerSentEvent::getData)
+                .containsExactly(tuple("1", "message", new TestBasicRestClient.Greeting("Hello")),
+                    tuple("1", "farewell", new TestBasicRestClient.Greeting("Goodbye")));
+            assertThat(lastEventIds).containsExactly("null", "1", "1");
+        }
+        finally
+        {
+            server.stop(0);
+        }
+    }
+
+    @Test(timeOut = METHOD_TIMEOUT)
+    public void testEventStreamReconnectsAfterBrokenConnectionWithoutEvents() throws Exception
+    {
+        AtomicInteger connections = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/events", exchange -> {
+            String body;
+            long declaredLength;
+            switch (connections.incrementAndGet())
+            {
+                case 1:
+                    // Announces more bytes than are sent, so the connection breaks after the keep-alive comment
+                    body = "retry: 10\n: keep-alive\n";
+                    declaredLength = body.length() + 100;
+                    break;
+                case 2:
+                    body = "data: {\"greeting\":\"Hello\"}\n\n";
+                    declaredLength = body.length();
+                    break;
+                default:
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                    return;
+            }
+
+            exchange.getResponseHeaders()
+                .add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, declaredLength);
+            try (OutputStream responseBody = exchange.getResponseBody())
+            {
+                responseBody.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+
+        try
+        {
+            StandardRestClient client = StandardRestClient.builder()
+                .clientConfig(makeClientConfig())
+                .requestTemplate(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress()
+                        .getPort() + "/")))
+                .build();
+
+            var result = new CompletableFuture<List<ServerSentEvent<TestBasicRestClient.Greeting>>>();
+            List<ServerSentEvent<TestBasicRestClient.Greeting>> events = new CopyOnWriteArrayList<>();
+            client.get("events")
+                .returningEventsOf(TestBasicRestClient.Greeting.class)
+                .publisher()
+                .subscribe(new Flow.Subscriber<>()
+                {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription)
+                    {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(ServerSentEvent<TestBasicRestClient.Greeting> item)
+                    {
+                        events.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable)
+                    {
+                        result.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onComplete()
+                    {
+                        result.complete(events);
+                    }
+                });
+
+            assertThat(result.get()).extracting(ServerSentEvent::getData)
+                .containsExactly(new TestBasicRestClient.Greeting("Hello"));
+            assertThat(connections).hasValue(3);
+        }
+        finally
+        {
+            server.stop(0);
+        }
+    }
 }